@@ -10,6 +10,7 @@
 
 package org.cloudbus.cloudsim.examples;
 
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -17,23 +18,44 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 
+import org.cloudbus.cloudsim.AntColonyEngine;
+import org.cloudbus.cloudsim.BranchAndBoundEngine;
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.CloudletDag;
 import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.DatacenterBroker1;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.DifferentialEvolutionEngine;
+import org.cloudbus.cloudsim.EliteLibrary;
+import org.cloudbus.cloudsim.GeneticEngine;
+import org.cloudbus.cloudsim.GreyWolfEngine;
+import org.cloudbus.cloudsim.HeftEngine;
+import org.cloudbus.cloudsim.HierarchicalEngine;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MultifitEngine;
+import org.cloudbus.cloudsim.OperatorBandit;
+import org.cloudbus.cloudsim.ParticleSwarmEngine;
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.PortfolioEngine;
+import org.cloudbus.cloudsim.ScheduleCache;
+import org.cloudbus.cloudsim.SchedulingEngine;
+import org.cloudbus.cloudsim.SimulatedAnnealingEngine;
 import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.TabuSearchEngine;
+import org.cloudbus.cloudsim.TraceCloudlet;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelFull;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicySimple;
 import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.WorkloadTraceReader;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
@@ -130,13 +152,49 @@ public class CloudSimExample6 {
 			Datacenter datacenter1 = createDatacenter("Datacenter_1");
 
 			//Third step: Create Broker
-			DatacenterBroker broker = createBroker();
+			//the first argument selects the scheduling engine, by default flower pollination or
+			//branch and bound if the instance is small enough
+			DatacenterBroker broker = createBroker(args.length > 0 ? args[0] : "auto");
 			int brokerId = broker.getId();
 			//Fourth step: Create VMs and Cloudlets and send them to broker
 			vmlist = createVM(brokerId,20); //creating 20 vms
 			cloudletList = createCloudlet(brokerId,20); // creating 40 cloudlets
 			broker.submitVmList(vmlist);
-			broker.submitCloudletList(cloudletList);
+			//a second argument "dag" runs the cloudlets as a workflow, "online" lets half of them
+			//arrive in batches of five while the first half runs, "window" schedules those
+			//arrivals in windows of one second, "rebalance" lets the vms that drain early take
+			//the cloudlets still waiting on the others, "early" searches the schedule while the
+			//vms are being created, "cache" keeps the schedule in the schedules directory so
+			//that the next run submits it at once, "elites" seeds the population with the best
+			//schedules of the closest past runs, "trace" followed by a file reads the cloudlets
+			//from a SWF or GWA workload trace instead, each arriving at the submit time of its job
+			if (args.length > 1 && args[1].equals("rebalance")) {
+				broker.setRuntimeRebalancing(true);
+			} else if (args.length > 1 && args[1].equals("early")) {
+				broker.setEarlyStart(true);
+			} else if (args.length > 1 && args[1].equals("cache")) {
+				broker.setScheduleCache(new ScheduleCache("schedules"));
+			} else if (args.length > 1 && args[1].equals("elites")) {
+				broker.setEliteLibrary(new EliteLibrary("EliteLibrary.txt"));
+			}
+			if (args.length > 2 && args[1].equals("trace")) {
+				cloudletList = new ArrayList<Cloudlet>();
+				new TraceFeeder("TraceFeeder", broker, args[2]);
+			} else if (args.length > 1 && args[1].equals("dag")) {
+				broker.submitCloudletList(cloudletList, createWorkflow(cloudletList.size()));
+			} else if (args.length > 1 && (args[1].equals("online") || args[1].equals("window"))) {
+				if (args[1].equals("window")) {
+					broker.setWindowLength(1.0);
+				}
+				int half = cloudletList.size() / 2;
+				broker.submitCloudletList(cloudletList.subList(0, half));
+				for (int i = half; i < cloudletList.size(); i += 5) {
+					broker.submitCloudletList(cloudletList.subList(i, Math.min(i + 5, cloudletList.size())),
+							0.5 * (i - half + 5) / 5);
+				}
+			} else {
+				broker.submitCloudletList(cloudletList);
+			}
 
 			// Fifth step: Starts the simulation
 			CloudSim.startSimulation();
@@ -157,6 +215,22 @@ public class CloudSimExample6 {
 		}
 	}
 
+	/**
+	 * Creates a workflow of layers of four cloudlets, where each cloudlet waits for two
+	 * cloudlets of the layer before it
+	 * @param cloudlets the number of cloudlets
+	 * @return the dependencies between the cloudlets
+	 */
+	private static CloudletDag createWorkflow(int cloudlets){
+		CloudletDag dag = new CloudletDag();
+		for (int i = 4; i < cloudlets; i++) {
+			int layer = i / 4 - 1;
+			dag.addDependency(layer * 4 + i % 4, i);
+			dag.addDependency(layer * 4 + (i + 1) % 4, i);
+		}
+		return dag;
+	}
+
 	private static Datacenter createDatacenter(String name){
 
 		// Here are the steps needed to create a PowerDatacenter:
@@ -271,7 +345,7 @@ public class CloudSimExample6 {
 
 	//We strongly encourage users to develop their own broker policies, to submit vms and cloudlets according
 	//to the specific rules of the simulated scenario
-	private static DatacenterBroker createBroker(){
+	private static DatacenterBroker createBroker(String engine){
 
 		DatacenterBroker broker = null;
 		try {
@@ -280,9 +354,63 @@ public class CloudSimExample6 {
 			e.printStackTrace();
 			return null;
 		}
+		broker.setSchedulingEngine(createSchedulingEngine(engine));
+		//fpa always pollinates, so it can be compared with the optimum of bnb
+		broker.setExactMode(!engine.equals("fpa") && !engine.equals("hybrid") && !engine.startsWith("bandit"));
+		//hybrid pollinates and hands its population over to the genetic algorithm
+		broker.setHybridMode(engine.equals("hybrid"));
+		//bandit pollinates with the operators that pay off, chosen by ucb or thompson sampling
+		if (engine.equals("bandit")) {
+			broker.setOperatorPolicy(OperatorBandit.Policy.UCB);
+		} else if (engine.equals("bandit-ts")) {
+			broker.setOperatorPolicy(OperatorBandit.Policy.THOMPSON);
+		}
+		//multifit needs no population
+		broker.setStandaloneMode(engine.equals("multifit"));
 		return broker;
 	}
 
+	/**
+	 * Creates the scheduling engine with the given name
+	 * @param name auto, fpa, hybrid, bandit, bandit-ts, portfolio, hierarchical, bnb, multifit, heft, sa, tabu, pso, aco, gwo, de, de-best or ga
+	 * @return the engine, null for the flower pollination of the broker itself
+	 */
+	private static SchedulingEngine createSchedulingEngine(String name){
+		if (name.equals("portfolio")) {
+			//fpa races all the other engines for 5 seconds
+			return new PortfolioEngine();
+		} else if (name.equals("hierarchical")) {
+			//the genetic algorithm on each datacenter at once, then a balancing pass
+			return new HierarchicalEngine();
+		} else if (name.equals("bnb")) {
+			return new BranchAndBoundEngine();
+		} else if (name.equals("multifit")) {
+			return new MultifitEngine();
+		} else if (name.equals("heft")) {
+			return new HeftEngine();
+		} else if (name.equals("sa")) {
+			return new SimulatedAnnealingEngine();
+		} else if (name.equals("tabu")) {
+			return new TabuSearchEngine();
+		} else if (name.equals("pso")) {
+			return new ParticleSwarmEngine();
+		} else if (name.equals("aco")) {
+			return new AntColonyEngine();
+		} else if (name.equals("gwo")) {
+			return new GreyWolfEngine();
+		} else if (name.equals("de")) {
+			return new DifferentialEvolutionEngine();
+		} else if (name.equals("de-best")) {
+			return new DifferentialEvolutionEngine(200, DifferentialEvolutionEngine.Strategy.BEST_1_BIN);
+		} else if (name.equals("ga")) {
+			return new GeneticEngine();
+		} else if (!name.equals("fpa") && !name.equals("auto") && !name.equals("hybrid")
+				&& !name.startsWith("bandit")) {
+			Log.printLine("Unknown scheduling engine " + name + ", using flower pollination");
+		}
+		return null;
+	}
+
 	/**
 	 * Prints the Cloudlet objects
 	 * @param list  list of Cloudlets
@@ -312,4 +440,96 @@ public class CloudSimExample6 {
 		}
 
 	}
+
+	/**
+	 * A TraceFeeder sends the jobs of a workload trace to the broker as cloudlets arriving at
+	 * the submit times of their jobs. It reads the trace a chunk at a time and reads the next
+	 * chunk only when the last cloudlets of the chunk before arrive, so only about a chunk of
+	 * the trace is waiting in memory at any time, and the broker schedules the cloudlets as
+	 * they arrive instead of all of them in its first batch. The broker still keeps the
+	 * cloudlets it sent, as every broker does.
+	 */
+	private static class TraceFeeder extends SimEntity {
+
+		/** The tag of the event to read the next chunk. */
+		private static final int READ_CHUNK = 9101;
+
+		/** The most cloudlets read at a time. */
+		private static final int CHUNK_SIZE = 10000;
+
+		/** The broker the cloudlets are sent to. */
+		private final DatacenterBroker broker;
+
+		/** The name of the trace. */
+		private final String fileName;
+
+		/** The reader of the trace. */
+		private final WorkloadTraceReader reader;
+
+		/**
+		 * Opens a trace to send to a broker
+		 * @param name the name of the entity
+		 * @param broker the broker
+		 * @param fileName the SWF or GWA trace, gzipped if its name ends in .gz
+		 * @throws IOException if the trace cannot be opened
+		 */
+		public TraceFeeder(String name, DatacenterBroker broker, String fileName) throws IOException {
+			super(name);
+			this.broker = broker;
+			this.fileName = fileName;
+			//the jobs ran on processors rated at 1000 mips, and the vms have a single pe
+			reader = new WorkloadTraceReader(fileName, broker.getId(), 1000);
+			reader.setMaxPes(1);
+		}
+
+		@Override
+		public void startEntity() {
+			readChunk();
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (ev.getTag() == READ_CHUNK) {
+				readChunk();
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+		/**
+		 * Sends the next chunk of the trace to the broker, the cloudlets submitted at the same
+		 * time arriving together, and reads the chunk after it when its last cloudlets arrive
+		 */
+		private void readChunk() {
+			List<TraceCloudlet> chunk;
+			try {
+				chunk = reader.readCloudlets(CHUNK_SIZE);
+			} catch (IOException e) {
+				Log.printLine(getName() + ": cannot read " + fileName + ": " + e);
+				chunk = new ArrayList<TraceCloudlet>();
+			}
+			if (chunk.isEmpty()) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					Log.printLine(getName() + ": " + e);
+				}
+				Log.printLine(reader.getCloudletCount() + " cloudlets read from " + fileName);
+				return;
+			}
+			int first = 0;
+			for (int i = 1; i <= chunk.size(); i++) {
+				if (i == chunk.size() || chunk.get(i).getSubmitTime() != chunk.get(first).getSubmitTime()) {
+					broker.submitCloudletList(chunk.subList(first, i), chunk.get(first).getSubmitTime());
+					first = i;
+				}
+			}
+			double last = chunk.get(chunk.size() - 1).getSubmitTime();
+			schedule(getId(), Math.max(0, last - CloudSim.clock()), READ_CHUNK);
+		}
+
+	}
+
 }
@@ -0,0 +1,21 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * An AdditiveSchedulingEngine finds the time of a vm by adding and subtracting the runtimes of
+ * its cloudlets, so it can only schedule problems where that time is their sum, see
+ * {@link SchedulingProblem#isAdditive()}. Given a problem whose cloudlets depend on each other
+ * it throws an IllegalArgumentException rather than return a schedule whose makespan it got
+ * wrong; brokers and portfolios check for this interface and leave such problems to the
+ * other engines.
+ */
+public interface AdditiveSchedulingEngine extends SchedulingEngine {
+
+}
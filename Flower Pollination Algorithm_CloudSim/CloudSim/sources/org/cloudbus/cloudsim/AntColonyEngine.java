@@ -0,0 +1,488 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * AntColonyEngine schedules cloudlets by ant colony optimisation. Every ant puts the
+ * cloudlets on vms one by one, longest first, picking a vm with a probability that grows with
+ * the pheromone of the (cloudlet, vm) pair and with the desirability 1/(length/mips) of the
+ * vm, taken over the time the vm is already busy. A schedule built this way always has each
+ * cloudlet on exactly one vm, so no repair is needed. The ants of an iteration build their
+ * schedules in parallel and the best schedule found so far lays down pheromone.
+ */
+public class AntColonyEngine implements SchedulingEngine {
+
+	/** The number of ants in an iteration. */
+	private int ants;
+
+	/** The number of iterations. */
+	private int iterations;
+
+	/** The weight of the pheromone. */
+	private double alpha;
+
+	/** The weight of the desirability. */
+	private double beta;
+
+	/** The share of the pheromone that evaporates in an iteration. */
+	private double evaporation;
+
+	/** Pheromone matrices with more entries than this keep only a few vms per cloudlet. */
+	private long denseLimit;
+
+	/** The number of vms per cloudlet with their own pheromone in a sparse matrix. */
+	private int sparseEntries;
+
+	/** The number of threads building schedules. */
+	private int threads;
+
+	/** The random number generator. */
+	private Random random;
+
+	/**
+	 * Creates a new engine.
+	 */
+	public AntColonyEngine() {
+		this(20, 100);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param ants the number of ants in an iteration
+	 * @param iterations the number of iterations
+	 * @pre ants > 0
+	 * @pre iterations > 0
+	 */
+	public AntColonyEngine(int ants, int iterations) {
+		setAnts(ants);
+		setIterations(iterations);
+		setAlpha(1);
+		setBeta(2);
+		setEvaporation(0.1);
+		setDenseLimit(1 << 24);
+		setSparseEntries(16);
+		setThreads(Runtime.getRuntime().availableProcessors());
+		random = new Random();
+	}
+
+	@Override
+	public int[] schedule(final SchedulingProblem problem, int[] initial) {
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		if (cloudlets == 0) {
+			return initial.clone();
+		}
+
+		// the initial schedule sets the pheromone bounds and is kept if no ant beats it
+		int[] best = initial.clone();
+		double bestMakespan = problem.getMakespan(best);
+		double initialMakespan = bestMakespan;
+		float tauMax = (float) (1 / (evaporation * bestMakespan));
+		final Pheromone pheromone = (long) cloudlets * vms <= denseLimit
+				? new DensePheromone(cloudlets, vms, tauMax)
+				: new SparsePheromone(cloudlets, sparseEntries, tauMax);
+
+		// longest cloudlets are placed first
+		final int[] order = problem.getLongestFirst();
+
+		ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			for (int iteration = 0; iteration < iterations && !problem.isStopped(); iteration++) {
+				final float tauMin = tauMax / (2 * vms);
+				List<Future<int[]>> results = new ArrayList<Future<int[]>>();
+				List<int[]> schedules = new ArrayList<int[]>();
+				for (int ant = 0; ant < ants; ant++) {
+					final Random antRandom = new Random(random.nextLong());
+					if (executor == null) {
+						schedules.add(construct(problem, pheromone, order, tauMin, antRandom));
+					} else {
+						results.add(executor.submit(new Callable<int[]>() {
+
+							@Override
+							public int[] call() {
+								return construct(problem, pheromone, order, tauMin, antRandom);
+							}
+						}));
+					}
+				}
+				for (Future<int[]> result : results) {
+					schedules.add(result.get());
+				}
+
+				for (int[] schedule : schedules) {
+					double makespan = problem.getMakespan(schedule);
+					if (makespan < bestMakespan) {
+						bestMakespan = makespan;
+						best = schedule;
+						problem.publish(best, bestMakespan);
+					}
+				}
+
+				// evaporate everywhere and lay pheromone on the pairs of the best schedule
+				tauMax = (float) (1 / (evaporation * bestMakespan));
+				pheromone.evaporate(1 - evaporation);
+				for (int c = 0; c < cloudlets; c++) {
+					pheromone.deposit(c, best[c], (float) (1 / bestMakespan), tauMax);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
+
+		Log.printLine("Ant colony: makespan " + initialMakespan + " -> " + bestMakespan);
+		return best;
+	}
+
+	/**
+	 * Builds the schedule of one ant.
+	 */
+	private int[] construct(SchedulingProblem problem, Pheromone pheromone, int[] order,
+			float tauMin, Random antRandom) {
+		int vms = problem.getVmCount();
+		int[] assign = new int[problem.getCloudletCount()];
+		double[] busy = new double[vms];
+		double[] weights = new double[vms];
+		for (int c : order) {
+			double total = 0;
+			for (int vm = 0; vm < vms; vm++) {
+				double tau = Math.max(tauMin, pheromone.get(c, vm));
+				double eta = 1 / (busy[vm] + problem.getRuntime(c, vm));
+				weights[vm] = (alpha == 1 ? tau : Math.pow(tau, alpha)) * (beta == 2 ? eta * eta : Math.pow(eta, beta));
+				total += weights[vm];
+			}
+			double pick = antRandom.nextDouble() * total;
+			int vm = 0;
+			while (vm < vms - 1 && pick >= weights[vm]) {
+				pick -= weights[vm];
+				vm++;
+			}
+			assign[c] = vm;
+			busy[vm] += problem.getRuntime(c, vm);
+		}
+		return assign;
+	}
+
+
+	/**
+	 * The pheromone of the (cloudlet, vm) pairs. Values are stored divided by a common scale,
+	 * so evaporating every pair only changes the scale.
+	 */
+	private abstract static class Pheromone {
+
+		protected double scale = 1;
+
+		abstract float get(int cloudlet, int vm);
+
+		abstract void deposit(int cloudlet, int vm, float amount, float tauMax);
+
+		abstract void rescale(float factor);
+
+		void evaporate(double factor) {
+			scale *= factor;
+			// keep the stored values in float range
+			if (scale < 1e-20) {
+				rescale((float) scale);
+				scale = 1;
+			}
+		}
+
+	}
+
+	/**
+	 * A float[C*V] pheromone matrix, starting at the upper bound for every pair.
+	 */
+	private static class DensePheromone extends Pheromone {
+
+		private float[] values;
+
+		private int vms;
+
+		DensePheromone(int cloudlets, int vms, float tauMax) {
+			this.vms = vms;
+			values = new float[cloudlets * vms];
+			Arrays.fill(values, tauMax);
+		}
+
+		@Override
+		float get(int cloudlet, int vm) {
+			return (float) (values[cloudlet * vms + vm] * scale);
+		}
+
+		@Override
+		void deposit(int cloudlet, int vm, float amount, float tauMax) {
+			int i = cloudlet * vms + vm;
+			values[i] = (float) (Math.min(tauMax, values[i] * scale + amount) / scale);
+		}
+
+		@Override
+		void rescale(float factor) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] *= factor;
+			}
+		}
+
+	}
+
+	/**
+	 * A pheromone matrix that keeps the pheromone of only a few vms per cloudlet, the ones
+	 * laid most recently or with the most pheromone. Every other pair is at the common base
+	 * level, which evaporates with the rest, so memory grows with C and not with C*V.
+	 */
+	private static class SparsePheromone extends Pheromone {
+
+		private int[] vmIds;
+
+		private float[] values;
+
+		private int[] counts;
+
+		private int entries;
+
+		private float base;
+
+		SparsePheromone(int cloudlets, int entries, float tauMax) {
+			this.entries = entries;
+			vmIds = new int[cloudlets * entries];
+			values = new float[cloudlets * entries];
+			counts = new int[cloudlets];
+			base = tauMax;
+		}
+
+		@Override
+		float get(int cloudlet, int vm) {
+			int start = cloudlet * entries;
+			for (int i = start; i < start + counts[cloudlet]; i++) {
+				if (vmIds[i] == vm) {
+					return (float) (values[i] * scale);
+				}
+			}
+			return (float) (base * scale);
+		}
+
+		@Override
+		void deposit(int cloudlet, int vm, float amount, float tauMax) {
+			int start = cloudlet * entries;
+			int slot = -1;
+			for (int i = start; i < start + counts[cloudlet]; i++) {
+				if (vmIds[i] == vm) {
+					slot = i;
+				}
+			}
+			if (slot < 0) {
+				if (counts[cloudlet] < entries) {
+					slot = start + counts[cloudlet];
+					counts[cloudlet]++;
+				} else {
+					// the vm with the least pheromone goes back to the base level
+					slot = start;
+					for (int i = start + 1; i < start + entries; i++) {
+						if (values[i] < values[slot]) {
+							slot = i;
+						}
+					}
+				}
+				vmIds[slot] = vm;
+				values[slot] = base;
+			}
+			values[slot] = (float) (Math.min(tauMax, values[slot] * scale + amount) / scale);
+		}
+
+		@Override
+		void rescale(float factor) {
+			base *= factor;
+			for (int i = 0; i < values.length; i++) {
+				values[i] *= factor;
+			}
+		}
+
+	}
+
+	/**
+	 * Sets the seed of the random number generator, for repeatable runs.
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Gets the number of ants in an iteration.
+	 *
+	 * @return the ants
+	 */
+	public int getAnts() {
+		return ants;
+	}
+
+	/**
+	 * Sets the number of ants in an iteration.
+	 *
+	 * @param ants the ants
+	 */
+	public void setAnts(int ants) {
+		this.ants = ants;
+	}
+
+	/**
+	 * Gets the number of iterations.
+	 *
+	 * @return the iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets the number of iterations.
+	 *
+	 * @param iterations the iterations
+	 */
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Gets the weight of the pheromone.
+	 *
+	 * @return the alpha
+	 */
+	public double getAlpha() {
+		return alpha;
+	}
+
+	/**
+	 * Sets the weight of the pheromone.
+	 *
+	 * @param alpha the alpha
+	 */
+	public void setAlpha(double alpha) {
+		this.alpha = alpha;
+	}
+
+	/**
+	 * Gets the weight of the desirability.
+	 *
+	 * @return the beta
+	 */
+	public double getBeta() {
+		return beta;
+	}
+
+	/**
+	 * Sets the weight of the desirability.
+	 *
+	 * @param beta the beta
+	 */
+	public void setBeta(double beta) {
+		this.beta = beta;
+	}
+
+	/**
+	 * Gets the share of the pheromone that evaporates in an iteration.
+	 *
+	 * @return the evaporation
+	 */
+	public double getEvaporation() {
+		return evaporation;
+	}
+
+	/**
+	 * Sets the share of the pheromone that evaporates in an iteration.
+	 *
+	 * @param evaporation the evaporation
+	 */
+	public void setEvaporation(double evaporation) {
+		this.evaporation = evaporation;
+	}
+
+	/**
+	 * Gets the number of entries above which the pheromone matrix is kept sparse.
+	 *
+	 * @return the dense limit
+	 */
+	public long getDenseLimit() {
+		return denseLimit;
+	}
+
+	/**
+	 * Sets the number of entries above which the pheromone matrix is kept sparse.
+	 *
+	 * @param denseLimit the dense limit
+	 */
+	public void setDenseLimit(long denseLimit) {
+		this.denseLimit = denseLimit;
+	}
+
+	/**
+	 * Gets the number of vms per cloudlet with their own pheromone in a sparse matrix.
+	 *
+	 * @return the sparse entries
+	 */
+	public int getSparseEntries() {
+		return sparseEntries;
+	}
+
+	/**
+	 * Sets the number of vms per cloudlet with their own pheromone in a sparse matrix.
+	 *
+	 * @param sparseEntries the sparse entries
+	 */
+	public void setSparseEntries(int sparseEntries) {
+		this.sparseEntries = sparseEntries;
+	}
+
+	/**
+	 * Gets the number of threads building schedules.
+	 *
+	 * @return the threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of threads building schedules.
+	 *
+	 * @param threads the threads
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[ants=" + ants + ", iterations=" + iterations + ", alpha=" + alpha + ", beta=" + beta
+				+ ", evaporation=" + evaporation + ", denseLimit=" + denseLimit + ", sparseEntries=" + sparseEntries + "]";
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * BacklogSchedulingProblem is a scheduling problem on vms that already have work queued, as
+ * when cloudlets arrive while earlier ones still run. Only the new cloudlets are scheduled;
+ * each vm starts on them once its backlog is done, so a vm finishes after its backlog plus
+ * the runtimes of the new cloudlets given to it.
+ * <p>
+ * The backlog enters through {@link #computeVmTimes(int[], int, double[])}, so the engines that
+ * evaluate through the problem, the population engines, simulated annealing and tabu search,
+ * schedule around it, and branch and bound starts its vm times from it. MULTIFIT and HEFT keep
+ * their own vm times and do not.
+ */
+public class BacklogSchedulingProblem extends SchedulingProblem {
+
+	/** The time each vm needs to finish the work it already has. */
+	protected double[] backlogs;
+
+	/**
+	 * Creates a new backlog scheduling problem.
+	 *
+	 * @param lengths the length of each new cloudlet
+	 * @param mips the mips of each vm
+	 * @param backlogs the time each vm needs to finish the work it already has
+	 * @pre backlogs.length == mips.length
+	 */
+	public BacklogSchedulingProblem(long[] lengths, double[] mips, double[] backlogs) {
+		super(lengths, mips);
+		this.backlogs = backlogs;
+	}
+
+	/**
+	 * Gets the time a vm needs to finish the work it already has.
+	 *
+	 * @param vm the vm index
+	 * @return the backlog
+	 */
+	public double getBacklog(int vm) {
+		return backlogs[vm];
+	}
+
+	/**
+	 * Gets the assignment putting each cloudlet, longest first, on the vm where it finishes
+	 * first after the backlog and the cloudlets put there before it.
+	 *
+	 * @return the vm of each cloudlet
+	 */
+	public int[] getEarliestFinishAssignment() {
+		int cloudlets = getCloudletCount();
+		Integer[] order = new Integer[cloudlets];
+		for (int c = 0; c < cloudlets; c++) {
+			order[c] = c;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Long.compare(getLength(b), getLength(a));
+			}
+		});
+		double[] times = backlogs.clone();
+		int[] assign = new int[cloudlets];
+		for (int c : order) {
+			int best = 0;
+			for (int vm = 1; vm < times.length; vm++) {
+				if (times[vm] + getRuntime(c, vm) < times[best] + getRuntime(c, best)) {
+					best = vm;
+				}
+			}
+			assign[c] = best;
+			times[best] += getRuntime(c, best);
+		}
+		return assign;
+	}
+
+	@Override
+	protected void computeVmTimes(int[] assigns, int offset, double[] times) {
+		super.computeVmTimes(assigns, offset, times);
+		for (int vm = 0; vm < times.length; vm++) {
+			times[vm] += backlogs[vm];
+		}
+	}
+
+}
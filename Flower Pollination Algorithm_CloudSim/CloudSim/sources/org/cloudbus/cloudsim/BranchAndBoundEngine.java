@@ -0,0 +1,455 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * BranchAndBoundEngine finds a schedule of least makespan by branch and bound. Cloudlets are
+ * placed longest first, one level of the search tree each. A partial schedule is cut off when
+ * its lower bound, the largest of its current makespan, the time the next cloudlet would end
+ * on its best vm and the makespan of the whole load spread evenly over all vms, is not below
+ * the best schedule found. Vms of the same mips and the same time are interchangeable, so
+ * only the first of them is tried.
+ * <p>
+ * Open nodes are expanded best first while there is room for them; once the open list is
+ * full the best open node is searched depth first, which needs no more memory. The search
+ * stops after a number of nodes, so on large instances the result is the best schedule found
+ * rather than an optimum, see {@link #isOptimal()}.
+ * <p>
+ * The vm times of the search are sums of runtimes, starting from the time each vm needs
+ * whatever it is given, as the backlog of a {@link BacklogSchedulingProblem}. A problem whose
+ * cloudlets depend on each other is not additive and is rejected.
+ */
+public class BranchAndBoundEngine implements AdditiveSchedulingEngine {
+
+	/** The number of cloudlets up to which a broker may use this engine on its own. */
+	public static final int EXACT_CLOUDLET_LIMIT = 20;
+
+	/** The largest number of nodes searched. */
+	private long maxNodes;
+
+	/** The largest number of nodes kept open for the best first search. */
+	private int maxOpenNodes;
+
+	/** Whether the last schedule was proved optimal. */
+	private boolean optimal;
+
+	/** The lower bound of the problem of the last schedule. */
+	private double lowerBound;
+
+	// the state of a search
+	private SchedulingProblem problem;
+
+	private int[] order;
+
+	private int[] previousSameMips;
+
+	private double[] baseTimes;
+
+	private int[] best;
+
+	private double bestMakespan;
+
+	private long nodes;
+
+	private boolean stopped;
+
+	/**
+	 * Creates a new engine.
+	 */
+	public BranchAndBoundEngine() {
+		this(5000000L, 100000);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param maxNodes the largest number of nodes searched
+	 * @param maxOpenNodes the largest number of nodes kept open for the best first search
+	 * @pre maxNodes > 0
+	 * @pre maxOpenNodes > 0
+	 */
+	public BranchAndBoundEngine(long maxNodes, int maxOpenNodes) {
+		setMaxNodes(maxNodes);
+		setMaxOpenNodes(maxOpenNodes);
+	}
+
+	/**
+	 * Tells whether an instance is small enough for a broker to solve it exactly.
+	 *
+	 * @param cloudlets the number of cloudlets
+	 * @param vms the number of vms
+	 * @return true if the instance is small enough
+	 */
+	public static boolean isExactSize(int cloudlets, int vms) {
+		return cloudlets <= EXACT_CLOUDLET_LIMIT && vms <= EXACT_CLOUDLET_LIMIT;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException if the problem is not additive
+	 */
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[] initial) {
+		if (!problem.isAdditive()) {
+			throw new IllegalArgumentException("Branch and bound needs a problem of independent cloudlets");
+		}
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		this.problem = problem;
+		nodes = 0;
+		stopped = false;
+
+		// longest cloudlets first, they decide the makespan
+		order = problem.getLongestFirst();
+
+		// for symmetry breaking, the last vm before each vm with the same mips
+		previousSameMips = new int[vms];
+		for (int vm = 0; vm < vms; vm++) {
+			previousSameMips[vm] = -1;
+			for (int other = vm - 1; other >= 0; other--) {
+				if (problem.getMips(other) == problem.getMips(vm)) {
+					previousSameMips[vm] = other;
+					break;
+				}
+			}
+		}
+
+		// the time of each vm before its cloudlets, the backlog of the problem if it has one
+		baseTimes = problem.getVmTimes(initial);
+		for (int c = 0; c < cloudlets; c++) {
+			baseTimes[initial[c]] -= problem.getRuntime(c, initial[c]);
+		}
+
+		// the better of the initial assignment and earliest finish time as first upper bound
+		best = initial.clone();
+		bestMakespan = problem.getMakespan(initial);
+		int[] greedy = earliestFinish();
+		if (problem.getMakespan(greedy) < bestMakespan) {
+			best = greedy;
+			bestMakespan = problem.getMakespan(greedy);
+		}
+
+		// the base times count as work already spread over the vms
+		double totalLength = 0;
+		double totalMips = 0;
+		for (int c = 0; c < cloudlets; c++) {
+			totalLength += problem.getLength(c);
+		}
+		for (int vm = 0; vm < vms; vm++) {
+			totalLength += baseTimes[vm] * problem.getMips(vm);
+			totalMips += problem.getMips(vm);
+		}
+		lowerBound = totalMips > 0 ? totalLength / totalMips : 0;
+		for (int vm = 0; vm < vms; vm++) {
+			lowerBound = Math.max(lowerBound, baseTimes[vm]);
+		}
+		if (cloudlets > 0) {
+			double first = Double.MAX_VALUE;
+			for (int vm = 0; vm < vms; vm++) {
+				first = Math.min(first, baseTimes[vm] + problem.getRuntime(order[0], vm));
+			}
+			lowerBound = Math.max(lowerBound, first);
+		}
+
+		optimal = cloudlets == 0 || search(cloudlets, vms);
+		if (optimal) {
+			lowerBound = bestMakespan;
+		}
+
+		Log.printLine("Branch and bound: makespan " + problem.getMakespan(initial) + " -> " + bestMakespan
+				+ (optimal ? " (optimal)" : " (lower bound " + lowerBound + ")") + " in " + nodes + " nodes");
+		int[] result = best;
+		this.problem = null;
+		best = null;
+		baseTimes = null;
+		return result;
+	}
+
+	/**
+	 * Searches best first and then depth first from the best open node.
+	 *
+	 * @return true if the search space was exhausted
+	 */
+	private boolean search(int cloudlets, int vms) {
+		if (bestMakespan <= lowerBound) {
+			return true;
+		}
+		PriorityQueue<Node> open = new PriorityQueue<Node>(1024, new Comparator<Node>() {
+
+			@Override
+			public int compare(Node a, Node b) {
+				int c = Double.compare(a.bound, b.bound);
+				// among equal bounds the deeper node is closer to a schedule
+				return c != 0 ? c : b.depth - a.depth;
+			}
+		});
+		double base = 0;
+		for (int vm = 0; vm < vms; vm++) {
+			base = Math.max(base, baseTimes[vm]);
+		}
+		open.add(new Node(null, -1, 0, baseTimes.clone(), base, lowerBound));
+
+		while (!open.isEmpty()) {
+			if (isOutOfNodes()) {
+				return false;
+			}
+			Node node = open.poll();
+			if (node.bound >= bestMakespan) {
+				// every other open node has a bound at least as high
+				return true;
+			}
+			if (open.size() >= maxOpenNodes) {
+				int[] assign = node.getAssignment(cloudlets, order);
+				depthFirst(assign, node.times.clone(), node.depth, node.makespan);
+				continue;
+			}
+			nodes++;
+			int cloudlet = order[node.depth];
+			for (int vm = 0; vm < vms; vm++) {
+				if (isSymmetric(node.times, vm)) {
+					continue;
+				}
+				double[] times = node.times.clone();
+				times[vm] += problem.getRuntime(cloudlet, vm);
+				double makespan = Math.max(node.makespan, times[vm]);
+				int depth = node.depth + 1;
+				if (depth == cloudlets) {
+					if (makespan < bestMakespan) {
+						bestMakespan = makespan;
+						best = new Node(node, vm, depth, times, makespan, makespan).getAssignment(cloudlets, order);
+						problem.publish(best, bestMakespan);
+					}
+					continue;
+				}
+				double bound = bound(times, depth, makespan);
+				if (bound < bestMakespan) {
+					open.add(new Node(node, vm, depth, times, makespan, bound));
+				}
+			}
+		}
+		return !isOutOfNodes();
+	}
+
+	/**
+	 * Searches the subtree below a partial schedule depth first.
+	 */
+	private void depthFirst(int[] assign, double[] times, int depth, double makespan) {
+		if (isOutOfNodes()) {
+			return;
+		}
+		nodes++;
+		int cloudlet = order[depth];
+		int vms = times.length;
+
+		// try the vms in order of the time the cloudlet would end on them
+		double[] ends = new double[vms];
+		Integer[] vmOrder = new Integer[vms];
+		for (int vm = 0; vm < vms; vm++) {
+			ends[vm] = times[vm] + problem.getRuntime(cloudlet, vm);
+			vmOrder[vm] = vm;
+		}
+		final double[] e = ends;
+		Arrays.sort(vmOrder, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(e[a], e[b]);
+			}
+		});
+
+		for (int k = 0; k < vms; k++) {
+			int vm = vmOrder[k];
+			double childMakespan = Math.max(makespan, ends[vm]);
+			if (childMakespan >= bestMakespan) {
+				// the vms that follow end even later
+				break;
+			}
+			if (isSymmetric(times, vm)) {
+				continue;
+			}
+			double time = times[vm];
+			times[vm] = ends[vm];
+			assign[cloudlet] = vm;
+			if (depth + 1 == order.length) {
+				bestMakespan = childMakespan;
+				best = assign.clone();
+				problem.publish(best, bestMakespan);
+			} else if (bound(times, depth + 1, childMakespan) < bestMakespan) {
+				depthFirst(assign, times, depth + 1, childMakespan);
+			}
+			times[vm] = time;
+		}
+	}
+
+	/**
+	 * Tells whether the search has used up its nodes or was stopped through the problem.
+	 */
+	private boolean isOutOfNodes() {
+		if (!stopped && (nodes & 1023) == 0 && problem.isStopped()) {
+			stopped = true;
+		}
+		return stopped || nodes >= maxNodes;
+	}
+
+	/**
+	 * Tells whether a vm can be skipped because an earlier vm of the same mips has the same
+	 * time.
+	 */
+	private boolean isSymmetric(double[] times, int vm) {
+		for (int other = previousSameMips[vm]; other >= 0; other = previousSameMips[other]) {
+			if (times[other] == times[vm]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets a lower bound of the makespan of every schedule below a partial schedule.
+	 */
+	private double bound(double[] times, int depth, double makespan) {
+		// the next cloudlet is the longest left and has to end somewhere
+		int cloudlet = order[depth];
+		double next = Double.MAX_VALUE;
+		for (int vm = 0; vm < times.length; vm++) {
+			next = Math.min(next, times[vm] + problem.getRuntime(cloudlet, vm));
+		}
+		return Math.max(Math.max(makespan, next), lowerBound);
+	}
+
+	/**
+	 * Gets the assignment that puts each cloudlet, longest first, on the vm where it ends first.
+	 */
+	private int[] earliestFinish() {
+		int vms = problem.getVmCount();
+		double[] times = baseTimes.clone();
+		int[] assign = new int[order.length];
+		for (int d = 0; d < order.length; d++) {
+			int cloudlet = order[d];
+			int bestVm = 0;
+			for (int vm = 1; vm < vms; vm++) {
+				if (times[vm] + problem.getRuntime(cloudlet, vm) < times[bestVm]
+						+ problem.getRuntime(cloudlet, bestVm)) {
+					bestVm = vm;
+				}
+			}
+			times[bestVm] += problem.getRuntime(cloudlet, bestVm);
+			assign[cloudlet] = bestVm;
+		}
+		return assign;
+	}
+
+	/**
+	 * Node is a partial schedule of the best first search. It keeps its own vm times but only
+	 * the vm of its last cloudlet; the others are found through its parents.
+	 */
+	private static class Node {
+
+		final Node parent;
+
+		final int vm;
+
+		final int depth;
+
+		final double[] times;
+
+		final double makespan;
+
+		final double bound;
+
+		Node(Node parent, int vm, int depth, double[] times, double makespan, double bound) {
+			this.parent = parent;
+			this.vm = vm;
+			this.depth = depth;
+			this.times = times;
+			this.makespan = makespan;
+			this.bound = bound;
+		}
+
+		int[] getAssignment(int cloudlets, int[] order) {
+			int[] assign = new int[cloudlets];
+			for (Node node = this; node.parent != null; node = node.parent) {
+				assign[order[node.depth - 1]] = node.vm;
+			}
+			return assign;
+		}
+
+	}
+
+	/**
+	 * Tells whether the last schedule was proved optimal.
+	 *
+	 * @return true if the last schedule is optimal
+	 */
+	public boolean isOptimal() {
+		return optimal;
+	}
+
+	/**
+	 * Gets the lower bound of the problem of the last schedule, its makespan if it is optimal.
+	 *
+	 * @return the lower bound
+	 */
+	public double getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * Gets the largest number of nodes searched.
+	 *
+	 * @return the max nodes
+	 */
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+
+	/**
+	 * Sets the largest number of nodes searched.
+	 *
+	 * @param maxNodes the max nodes
+	 */
+	public void setMaxNodes(long maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * Gets the largest number of nodes kept open for the best first search.
+	 *
+	 * @return the max open nodes
+	 */
+	public int getMaxOpenNodes() {
+		return maxOpenNodes;
+	}
+
+	/**
+	 * Sets the largest number of nodes kept open for the best first search.
+	 *
+	 * @param maxOpenNodes the max open nodes
+	 */
+	public void setMaxOpenNodes(int maxOpenNodes) {
+		this.maxOpenNodes = maxOpenNodes;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[maxNodes=" + maxNodes + ", maxOpenNodes=" + maxOpenNodes + "]";
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CloudletDag holds the dependencies of a workflow of cloudlets, addressed by cloudlet id. A
+ * cloudlet may only start once all its predecessors have finished. Cloudlets without
+ * dependencies need not be added.
+ */
+public class CloudletDag {
+
+	/** The predecessors of each cloudlet id. */
+	private Map<Integer, List<Integer>> predecessors;
+
+	/** The successors of each cloudlet id. */
+	private Map<Integer, List<Integer>> successors;
+
+	/**
+	 * Creates a new empty dag.
+	 */
+	public CloudletDag() {
+		predecessors = new HashMap<Integer, List<Integer>>();
+		successors = new HashMap<Integer, List<Integer>>();
+	}
+
+	/**
+	 * Makes a cloudlet wait for another.
+	 *
+	 * @param predecessorId the id of the cloudlet that has to finish first
+	 * @param successorId the id of the cloudlet that waits
+	 * @pre predecessorId != successorId
+	 */
+	public void addDependency(int predecessorId, int successorId) {
+		if (predecessorId == successorId) {
+			throw new IllegalArgumentException("Cloudlet " + predecessorId + " cannot depend on itself");
+		}
+		get(predecessors, successorId, true).add(predecessorId);
+		get(successors, predecessorId, true).add(successorId);
+	}
+
+	/**
+	 * Gets the cloudlets a cloudlet waits for.
+	 *
+	 * @param cloudletId the cloudlet id
+	 * @return the ids of its predecessors
+	 */
+	public List<Integer> getPredecessors(int cloudletId) {
+		return get(predecessors, cloudletId, false);
+	}
+
+	/**
+	 * Gets the cloudlets that wait for a cloudlet.
+	 *
+	 * @param cloudletId the cloudlet id
+	 * @return the ids of its successors
+	 */
+	public List<Integer> getSuccessors(int cloudletId) {
+		return get(successors, cloudletId, false);
+	}
+
+	/**
+	 * Tells whether all the predecessors of a cloudlet have finished.
+	 *
+	 * @param cloudletId the cloudlet id
+	 * @param finishedIds the ids of the finished cloudlets
+	 * @return true if the cloudlet can start
+	 */
+	public boolean isReady(int cloudletId, Collection<Integer> finishedIds) {
+		for (int predecessorId : getPredecessors(cloudletId)) {
+			if (!finishedIds.contains(predecessorId)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the predecessors of each cloudlet of a list by position in the list. Dependencies on
+	 * cloudlets that are not in the list are left out.
+	 *
+	 * @param cloudlets the cloudlets
+	 * @return the positions of the predecessors of the cloudlet at each position
+	 */
+	public int[][] getPredecessorPositions(List<? extends Cloudlet> cloudlets) {
+		Map<Integer, Integer> positions = new HashMap<Integer, Integer>();
+		for (int i = 0; i < cloudlets.size(); i++) {
+			positions.put(cloudlets.get(i).getCloudletId(), i);
+		}
+		int[][] result = new int[cloudlets.size()][];
+		for (int i = 0; i < cloudlets.size(); i++) {
+			List<Integer> ids = getPredecessors(cloudlets.get(i).getCloudletId());
+			List<Integer> found = new ArrayList<Integer>(ids.size());
+			for (int id : ids) {
+				Integer position = positions.get(id);
+				if (position != null) {
+					found.add(position);
+				}
+			}
+			result[i] = new int[found.size()];
+			for (int k = 0; k < found.size(); k++) {
+				result[i][k] = found.get(k);
+			}
+		}
+		return result;
+	}
+
+	private static List<Integer> get(Map<Integer, List<Integer>> map, int cloudletId, boolean create) {
+		List<Integer> list = map.get(cloudletId);
+		if (list == null) {
+			if (!create) {
+				return Collections.emptyList();
+			}
+			list = new ArrayList<Integer>();
+			map.put(cloudletId, list);
+		}
+		return list;
+	}
+
+}
@@ -0,0 +1,355 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CloudletQueues keeps the cloudlets a broker has sent to each vm and that have not returned,
+ * in the order they were sent. It is the broker's view of the work the vms still have while
+ * the simulation runs, and builds the problems of the cloudlets scheduled on top of that work.
+ * <p>
+ * The first cloudlets of a queue, one for each pe of the vm, are taken as running and the
+ * others as waiting. Waiting cloudlets can be moved to another vm: a move is recorded when the
+ * broker cancels the cloudlet and finished when the cancellation comes back, and until then
+ * the cloudlet counts on the vm it moves to. The broker sends the events; this class only
+ * records and plans.
+ */
+public class CloudletQueues {
+
+	/** The cloudlets sent to each vm that have not returned, by vm id. */
+	private final Map<Integer, LinkedList<Cloudlet>> queues = new HashMap<Integer, LinkedList<Cloudlet>>();
+
+	/** The id of the vm each cloudlet being moved moves to, by cloudlet id. */
+	private final Map<Integer, Integer> moves = new HashMap<Integer, Integer>();
+
+	/**
+	 * Records a cloudlet sent to a vm, at the end of its queue.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param vmId the id of the vm
+	 */
+	public void add(Cloudlet cloudlet, int vmId) {
+		LinkedList<Cloudlet> queue = queues.get(vmId);
+		if (queue == null) {
+			queue = new LinkedList<Cloudlet>();
+			queues.put(vmId, queue);
+		}
+		queue.add(cloudlet);
+	}
+
+	/**
+	 * Records a cloudlet that left the vm it is bound to. A cloudlet that returns before its
+	 * cancellation is no longer moved.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @return true if the cloudlet was in the queue of its vm
+	 */
+	public boolean remove(Cloudlet cloudlet) {
+		moves.remove(cloudlet.getCloudletId());
+		LinkedList<Cloudlet> queue = queues.get(cloudlet.getVmId());
+		return queue != null && queue.remove(cloudlet);
+	}
+
+	/**
+	 * Records a cloudlet being cancelled on its vm to move it to another.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param vmId the id of the vm it moves to
+	 */
+	public void startMove(Cloudlet cloudlet, int vmId) {
+		moves.put(cloudlet.getCloudletId(), vmId);
+	}
+
+	/**
+	 * Finishes the move of a cancelled cloudlet, taking it off the queue of its vm. The broker
+	 * then sends it to the vm it moves to and adds it there.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @return the id of the vm it moves to, null if it was not being moved
+	 */
+	public Integer finishMove(Cloudlet cloudlet) {
+		Integer vmId = moves.remove(cloudlet.getCloudletId());
+		if (vmId != null) {
+			remove(cloudlet);
+		}
+		return vmId;
+	}
+
+	/**
+	 * Gets the vm a cloudlet is moving to.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @return the id of the vm, null if the cloudlet is not being moved
+	 */
+	public Integer getMove(Cloudlet cloudlet) {
+		return moves.get(cloudlet.getCloudletId());
+	}
+
+	/**
+	 * Gets the cloudlets sent to a vm that have not returned.
+	 *
+	 * @param vmId the id of the vm
+	 * @return the queue in the order the cloudlets were sent, empty if there are none
+	 */
+	public List<Cloudlet> getQueue(int vmId) {
+		LinkedList<Cloudlet> queue = queues.get(vmId);
+		if (queue == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(queue);
+	}
+
+	/**
+	 * Creates the problem of scheduling new cloudlets on vms that still have the queued ones
+	 * to run. The backlog of a vm is the runtime of its queue, priced by the runtime model as it
+	 * stands now, and the problem is in effective lengths and mips.
+	 *
+	 * @param cloudlets the new cloudlets
+	 * @param vms the vms, in the order of the vm indexes of the problem
+	 * @param model the runtime model pricing the cloudlets on the vms
+	 * @return the problem
+	 */
+	public BacklogSchedulingProblem createBacklogProblem(List<? extends Cloudlet> cloudlets, List<? extends Vm> vms,
+			RuntimeModel model) {
+		long[] lengths = new long[cloudlets.size()];
+		for (int c = 0; c < lengths.length; c++) {
+			lengths[c] = model.getEffectiveLength(cloudlets.get(c).getCloudletLength());
+		}
+		double[] mips = getMips(vms, model);
+		double[] backlogs = new double[mips.length];
+		for (int vm = 0; vm < mips.length; vm++) {
+			for (Cloudlet cloudlet : getQueue(vms.get(vm).getId())) {
+				int index = getIndex(vms, getMove(cloudlet), vm);
+				backlogs[index] += model.getEffectiveLength(cloudlet.getCloudletLength()) / mips[index];
+			}
+		}
+		return new BacklogSchedulingProblem(lengths, mips, backlogs);
+	}
+
+	/**
+	 * Plans moving the waiting cloudlets to where they finish earlier. The engine starts from
+	 * where they wait, on top of the running cloudlets, so that only the cloudlets that gain
+	 * move. Nothing moves unless the makespan of the queues gets shorter.
+	 *
+	 * @param vms the vms the cloudlets can move to
+	 * @param model the runtime model pricing the cloudlets on the vms
+	 * @param engine the engine, null to put the waiting cloudlets where they finish first
+	 * @return the moves
+	 */
+	public Moves planRebalance(List<? extends Vm> vms, RuntimeModel model, SchedulingEngine engine) {
+		double[] mips = getMips(vms, model);
+		double[] backlogs = new double[mips.length];
+		List<Cloudlet> waiting = new ArrayList<Cloudlet>();
+		List<Integer> current = new ArrayList<Integer>();
+		for (int vm = 0; vm < mips.length; vm++) {
+			int running = 0;
+			for (Cloudlet cloudlet : getQueue(vms.get(vm).getId())) {
+				Integer target = getMove(cloudlet);
+				if (target != null) {
+					int index = getIndex(vms, target, vm);
+					backlogs[index] += model.getEffectiveLength(cloudlet.getCloudletLength()) / mips[index];
+				} else if (running++ < vms.get(vm).getNumberOfPes()) {
+					backlogs[vm] += model.getEffectiveLength(cloudlet.getCloudletLength()) / mips[vm];
+				} else {
+					waiting.add(cloudlet);
+					current.add(vm);
+				}
+			}
+		}
+		Moves result = new Moves();
+		if (waiting.isEmpty()) {
+			return result;
+		}
+
+		long[] lengths = new long[waiting.size()];
+		int[] initial = new int[waiting.size()];
+		for (int c = 0; c < lengths.length; c++) {
+			lengths[c] = model.getEffectiveLength(waiting.get(c).getCloudletLength());
+			initial[c] = current.get(c);
+		}
+		BacklogSchedulingProblem problem = new BacklogSchedulingProblem(lengths, mips, backlogs);
+		int[] assign = engine != null ? engine.schedule(problem, initial) : problem.getEarliestFinishAssignment();
+		result.makespanBefore = problem.getMakespan(initial);
+		result.makespanAfter = problem.getMakespan(assign);
+		if (result.makespanAfter < result.makespanBefore) {
+			for (int c = 0; c < lengths.length; c++) {
+				if (assign[c] != initial[c]) {
+					result.vmIds.put(waiting.get(c), vms.get(assign[c]).getId());
+				}
+			}
+		} else {
+			result.makespanAfter = result.makespanBefore;
+		}
+		return result;
+	}
+
+	/**
+	 * Plans the steals of the vms that are idle or about to be. The time each vm needs to
+	 * finish its queue is estimated from what is left of its running cloudlets. The vm
+	 * finishing first takes the cloudlet at the tail of the vm finishing last, one at a time,
+	 * while it is within the idle time of finishing and the vm it takes from then finishes
+	 * earlier. Each call is one pass over the queues.
+	 *
+	 * @param vms the vms
+	 * @param model the runtime model pricing the cloudlets on the vms
+	 * @param now the simulation time
+	 * @param idleTime the time before a vm finishes its queue from which it counts as idle
+	 * @return the moves, with the time the last vm needs to finish before and after them
+	 */
+	public Moves planSteal(List<? extends Vm> vms, RuntimeModel model, double now, double idleTime) {
+		double[] mips = getMips(vms, model);
+		double[] finish = new double[mips.length];
+		List<LinkedList<Cloudlet>> waiting = new ArrayList<LinkedList<Cloudlet>>();
+		for (int vm = 0; vm < mips.length; vm++) {
+			waiting.add(new LinkedList<Cloudlet>());
+		}
+		for (int vm = 0; vm < mips.length; vm++) {
+			int running = 0;
+			for (Cloudlet cloudlet : getQueue(vms.get(vm).getId())) {
+				Integer target = getMove(cloudlet);
+				if (target != null) {
+					int index = getIndex(vms, target, vm);
+					finish[index] += model.getEffectiveLength(cloudlet.getCloudletLength()) / mips[index];
+				} else if (running++ < vms.get(vm).getNumberOfPes()) {
+					double done = cloudlet.getCloudletStatus() == Cloudlet.INEXEC
+							? (now - cloudlet.getExecStartTime()) * mips[vm] : 0;
+					finish[vm] += Math.max(0, model.getEffectiveLength(cloudlet.getCloudletLength()) - done) / mips[vm];
+				} else {
+					finish[vm] += model.getEffectiveLength(cloudlet.getCloudletLength()) / mips[vm];
+					waiting.get(vm).add(cloudlet);
+				}
+			}
+		}
+
+		Moves result = new Moves();
+		result.makespanBefore = max(finish);
+		while (true) {
+			int target = 0;
+			int source = -1;
+			for (int vm = 0; vm < mips.length; vm++) {
+				if (finish[vm] < finish[target]) {
+					target = vm;
+				}
+				if (!waiting.get(vm).isEmpty() && (source < 0 || finish[vm] > finish[source])) {
+					source = vm;
+				}
+			}
+			if (source < 0 || finish[target] > idleTime) {
+				break;
+			}
+			Cloudlet cloudlet = waiting.get(source).getLast();
+			double time = finish[target] + model.getEffectiveLength(cloudlet.getCloudletLength()) / mips[target];
+			if (time >= finish[source]) {
+				break;
+			}
+			waiting.get(source).removeLast();
+			finish[source] -= model.getEffectiveLength(cloudlet.getCloudletLength()) / mips[source];
+			finish[target] = time;
+			result.vmIds.put(cloudlet, vms.get(target).getId());
+		}
+		result.makespanAfter = max(finish);
+		return result;
+	}
+
+	/**
+	 * Gets the largest of the times, 0 if there are none.
+	 */
+	private static double max(double[] times) {
+		double max = 0;
+		for (double time : times) {
+			max = Math.max(max, time);
+		}
+		return max;
+	}
+
+	/**
+	 * Gets the effective mips of each vm.
+	 */
+	private static double[] getMips(List<? extends Vm> vms, RuntimeModel model) {
+		double[] mips = new double[vms.size()];
+		for (int vm = 0; vm < mips.length; vm++) {
+			mips[vm] = model.getEffectiveMips(vms.get(vm));
+		}
+		return mips;
+	}
+
+	/**
+	 * Gets the index of a vm in the list by its id, or the given index if the id is null or
+	 * not in the list.
+	 */
+	private static int getIndex(List<? extends Vm> vms, Integer vmId, int index) {
+		if (vmId != null) {
+			for (int vm = 0; vm < vms.size(); vm++) {
+				if (vms.get(vm).getId() == vmId) {
+					return vm;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Moves is a plan of waiting cloudlets to move to other vms, with the makespan of the vm
+	 * queues before and after it.
+	 */
+	public static class Moves {
+
+		/** The id of the vm each cloudlet moves to, in the order they are planned. */
+		private final Map<Cloudlet, Integer> vmIds = new LinkedHashMap<Cloudlet, Integer>();
+
+		private double makespanBefore;
+
+		private double makespanAfter;
+
+		/**
+		 * Gets the vm each cloudlet moves to.
+		 *
+		 * @return the id of the vm by cloudlet
+		 */
+		public Map<Cloudlet, Integer> getVmIds() {
+			return Collections.unmodifiableMap(vmIds);
+		}
+
+		/**
+		 * Checks if no cloudlet moves.
+		 *
+		 * @return true if the plan is empty
+		 */
+		public boolean isEmpty() {
+			return vmIds.isEmpty();
+		}
+
+		/**
+		 * Gets the makespan of the vm queues without the moves.
+		 *
+		 * @return the makespan before
+		 */
+		public double getMakespanBefore() {
+			return makespanBefore;
+		}
+
+		/**
+		 * Gets the makespan of the vm queues after the moves.
+		 *
+		 * @return the makespan after
+		 */
+		public double getMakespanAfter() {
+			return makespanAfter;
+		}
+
+	}
+
+}
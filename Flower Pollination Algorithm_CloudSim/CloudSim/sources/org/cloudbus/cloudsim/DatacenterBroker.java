@@ -15,11 +15,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
@@ -94,6 +101,93 @@ public class DatacenterBroker extends SimEntity {
 	
 	//no of initial solutions
 	protected int solutioncount=20;
+	//bounds of the population size,the upper bound grows with the available cores
+	protected int minSolutionCount=10;
+	protected int maxSolutionCount=Math.max(40,8*Runtime.getRuntime().availableProcessors());
+	//population grows below the low diversity and shrinks above the high diversity
+	protected double lowDiversity=0.005;
+	protected double highDiversity=0.05;
+	//probability of local pollination,adapted to the success of local and global pollination
+	protected double switchProbability=0.8;
+	//engine used instead of fpa when it is set
+	protected SchedulingEngine schedulingEngine;
+	//solve tiny instances exactly by branch and bound when no engine is set
+	protected boolean exactMode=true;
+	//let the engine schedule without the population,for large batches
+	protected boolean standaloneMode=false;
+	//hand the population over to ga when fpa stops improving
+	protected boolean hybridMode=false;
+	//fpa hands over when the best fitness improves less than this fraction over the window of cycles
+	protected double handoverImprovement=0.001;
+	protected int handoverWindow=5;
+	//operators the bandit chooses from
+	protected static final int LOCAL_POLLINATION=0,GLOBAL_POLLINATION=1,CROSSOVER=2,SWAP_MUTATION=3,LOCAL_SEARCH=4;
+	protected static final String []OPERATOR_NAMES={"local pollination","global pollination","crossover","swap mutation","local search"};
+	//policy of the bandit choosing the operator of each new solution,null for the fixed switch probability
+	protected OperatorBandit.Policy operatorPolicy;
+	//bandit of the current run
+	protected OperatorBandit operatorBandit;
+	//monitor of the pollination while it races in a portfolio,null otherwise
+	protected SearchMonitor searchMonitor;
+	//tag of the event bringing cloudlets that arrive during the simulation
+	public static final int CLOUDLET_ARRIVAL=9001;
+	//arrivals submitted before the simulation started,scheduled when the broker starts
+	protected List<List<Cloudlet>> futureArrivals=new ArrayList<List<Cloudlet>>();
+	protected List<Double> futureArrivalTimes=new ArrayList<Double>();
+	//arrivals scheduled that have not arrived yet,the broker waits for them before finishing
+	protected int pendingArrivals=0;
+	//whether the first batch was scheduled,later arrivals are scheduled on their own
+	protected boolean batchSubmitted=false;
+	//cloudlets sent to each vm that have not returned and the cloudlets being moved,the backlog of the arrivals
+	protected CloudletQueues cloudletQueues=new CloudletQueues();
+	//tag of the event closing a window of arrivals
+	public static final int WINDOW_CLOSE=9002;
+	//micro-batch windows:arrivals are buffered until the window is full or has been open for the window length,0 for no bound
+	protected int windowSize=0;
+	protected double windowLength=0;
+	//arrivals buffered in the open window and the number of windows scheduled
+	protected List<Cloudlet> arrivalWindow=new ArrayList<Cloudlet>();
+	protected int windowCount=0;
+	//engine scheduling each window,with the population carried over from the window before
+	protected PopulationSchedulingEngine windowEngine=new GeneticEngine();
+	//population the last window started from,with its schedule in place of the first solution,
+	//and the lengths of its cloudlets
+	protected int [][]windowPopulation;
+	protected long []windowLengths;
+	//tag of the event trying the vms that failed creation again
+	public static final int VM_RETRY=9003;
+	//time after which the vms that failed creation are tried again,0 for never,and how often
+	protected double vmRetryDelay=0;
+	protected int maxVmRetries=3;
+	protected int vmRetries=0;
+	//number of vms the cloudlets have been scheduled on,vms created after them came up late
+	protected int batchVmCount=0;
+	//whether the vms that drain early take waiting cloudlets off the tail of the others
+	protected boolean runtimeRebalancing=false;
+	//time before a vm finishes its queue from which it counts as idle
+	protected double idleTime=0;
+	//whether the schedule is searched on the requested vms while they are being created
+	protected boolean earlyStart=false;
+	//the schedule searched while the vms are being created,null if there is none
+	protected Future<int[]> earlySchedule;
+	//schedules of past batches on disk,null to optimise every batch
+	protected ScheduleCache scheduleCache;
+	//what the batch was looked up in the cache for,the schedule is stored for the same
+	protected String cacheObjective;
+	//best schedules of past batches,seeding the population of close batches,null for none
+	protected EliteLibrary eliteLibrary;
+	//number of schedules of a batch kept in the elite library
+	protected int eliteCount=5;
+	//runtimes learned from the returned cloudlets,correcting length/mips in the fitness
+	protected RuntimeModel runtimeModel=new RuntimeModel();
+	//engine improving the schedule of the arrivals,null to keep the earliest finish schedule
+	protected SchedulingEngine onlineEngine=new SimulatedAnnealingEngine(100000,0.05,0.0001,SimulatedAnnealingEngine.Cooling.GEOMETRIC);
+	//dependencies between the cloudlets,null if they are independent
+	protected CloudletDag cloudletDag;
+	//ids of the cloudlets that came back,to release the cloudlets waiting for them
+	protected Set<Integer> finishedCloudletIds=new HashSet<Integer>();
+	//workflow problem used as fitness while a dag is set
+	protected SchedulingProblem workflowProblem;
 	//fitness of solutions in population
 	protected double [][] fitness=new double[solutioncount][2];
 	
@@ -102,7 +196,8 @@ public class DatacenterBroker extends SimEntity {
 	
 	//to store vmexecution time of each vm in new solution
 	protected double vmTimes[][];
-	protected int avg;
+	//capacity of each vm in cloudlet length,in proportion to its mips
+	protected double vmCapacity[];
 	
 	public DatacenterBroker(String name) throws Exception {
 		super(name);
@@ -147,6 +242,45 @@ public class DatacenterBroker extends SimEntity {
 		getCloudletList().addAll(list);
 	}
 
+	/**
+	 * This method is used to send to the broker cloudlets that arrive during the simulation.
+	 * Cloudlets arriving before the vms are created join the first batch. Later ones are
+	 * scheduled on their own against the work the vms already have, without changing where
+	 * the cloudlets sent before them run. The broker does not finish before they arrive.
+	 * 
+	 * @param list the list
+	 * @param arrivalTime the simulation time at which the cloudlets arrive
+	 * @pre list !=null
+	 * @pre arrivalTime >= 0
+	 * @post $none
+	 */
+	public void submitCloudletList(List<? extends Cloudlet> list, double arrivalTime) {
+		List<Cloudlet> arrivals = new ArrayList<Cloudlet>(list);
+		pendingArrivals++;
+		if (CloudSim.running()) {
+			schedule(getId(), Math.max(0, arrivalTime - CloudSim.clock()), CLOUDLET_ARRIVAL, arrivals);
+		} else {
+			futureArrivals.add(arrivals);
+			futureArrivalTimes.add(arrivalTime);
+		}
+	}
+
+	/**
+	 * This method is used to send to the broker a workflow of cloudlets. A cloudlet is sent to
+	 * its vm only once all its predecessors in the dag have returned, and the makespan of the
+	 * workflow is used as fitness.
+	 * 
+	 * @param list the list
+	 * @param dag the dependencies between the cloudlets
+	 * @pre list !=null
+	 * @pre dag != null
+	 * @post $none
+	 */
+	public void submitCloudletList(List<? extends Cloudlet> list, CloudletDag dag) {
+		submitCloudletList(list);
+		setCloudletDag(dag);
+	}
+
 	/**
 	 * Specifies that a given cloudlet must run in a specific virtual machine.
 	 * 
@@ -209,6 +343,9 @@ public class DatacenterBroker extends SimEntity {
 		getDatacenterCharacteristicsList().put(characteristics.getId(), characteristics);
 
 		if (getDatacenterCharacteristicsList().size() == getDatacenterIdsList().size()) {
+			if (isEarlyStart()) {
+				startEarlySchedule();
+			}
 			setDatacenterRequestedIdsList(new ArrayList<Integer>());
 			createVmsInDatacenter(getDatacenterIdsList().get(0));
 		}
@@ -259,6 +396,20 @@ public class DatacenterBroker extends SimEntity {
 
 		incrementVmsAcks();
 
+		if (batchSubmitted) {
+			// the acks of a retry of the vms that failed
+			if (getVmsRequested() == getVmsAcks()) {
+				for (int nextDatacenterId : getDatacenterIdsList()) {
+					if (!getDatacenterRequestedIdsList().contains(nextDatacenterId)) {
+						createVmsInDatacenter(nextDatacenterId);
+						return;
+					}
+				}
+				submitLateVms();
+			}
+			return;
+		}
+
 		// all the requested VMs have been created
 		if (getVmsCreatedList().size() == getVmList().size() - getVmsDestroyed()) {
 			submitCloudlets();
@@ -276,6 +427,7 @@ public class DatacenterBroker extends SimEntity {
 				// all datacenters already queried
 				if (getVmsCreatedList().size() > 0) { // if some vm were created
 					submitCloudlets();
+					scheduleVmRetry();
 				} else { // no vms created. abort
 					Log.printLine(CloudSim.clock() + ": " + getName()
 							+ ": none of the required VMs could be created. Aborting");
@@ -298,11 +450,24 @@ public class DatacenterBroker extends SimEntity {
 		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
 				+ " received");
 		cloudletsSubmitted--;
-		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
+		Vm vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
+		if (vm != null) {
+			runtimeModel.record(cloudlet, vm);
+		}
+		finishedCloudletIds.add(cloudlet.getCloudletId());
+		cloudletQueues.remove(cloudlet);
+		if (getCloudletDag() != null) {
+			submitReadyCloudlets();
+		}
+		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && pendingArrivals == 0
+				&& arrivalWindow.isEmpty()) { // all cloudlets executed
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
 			clearDatacenters();
 			finishExecution();
 		} else { // some cloudlets haven't finished yet
+			if (isRuntimeRebalancing() && cloudletsSubmitted > 0) {
+				stealWaitingCloudlets();
+			}
 			if (getCloudletList().size() > 0 && cloudletsSubmitted == 0) {
 				// all the cloudlets sent finished. It means that some bount
 				// cloudlet is waiting its VM be created
@@ -313,6 +478,32 @@ public class DatacenterBroker extends SimEntity {
 		}
 	}
 
+	/**
+	 * Sends the waiting cloudlets whose predecessors have all returned to the vms they were
+	 * bound to.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void submitReadyCloudlets() {
+		List<Cloudlet> ready = new ArrayList<Cloudlet>();
+		for (Cloudlet cloudlet : getCloudletList()) {
+			if (cloudlet.getVmId() != -1
+					&& getCloudletDag().isReady(cloudlet.getCloudletId(), finishedCloudletIds)) {
+				ready.add(cloudlet);
+			}
+		}
+		for (Cloudlet cloudlet : ready) {
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
+					+ cloudlet.getCloudletId() + " to VM #" + cloudlet.getVmId());
+			sendNow(getVmsToDatacentersMap().get(cloudlet.getVmId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			cloudletsSubmitted++;
+			cloudletQueues.add(cloudlet, cloudlet.getVmId());
+			getCloudletSubmittedList().add(cloudlet);
+			getCloudletList().remove(cloudlet);
+		}
+	}
+
 	/**
 	 * Overrides this method when making a new and different type of Broker. This method is called
 	 * by {@link #body()} for incoming unknown tags.
@@ -326,11 +517,115 @@ public class DatacenterBroker extends SimEntity {
 			Log.printLine(getName() + ".processOtherEvent(): " + "Error - an event is null.");
 			return;
 		}
+		if (ev.getTag() == CLOUDLET_ARRIVAL) {
+			processCloudletArrival(ev);
+			return;
+		}
+		if (ev.getTag() == WINDOW_CLOSE) {
+			processWindowClose(ev);
+			return;
+		}
+		if (ev.getTag() == VM_RETRY) {
+			processVmRetry(ev);
+			return;
+		}
+		if (ev.getTag() == CloudSimTags.CLOUDLET_CANCEL) {
+			processCloudletCancel(ev);
+			return;
+		}
 
 		Log.printLine(getName() + ".processOtherEvent(): "
 				+ "Error - event unknown by this DatacenterBroker.");
 	}
 
+	/**
+	 * Process the arrival of cloudlets during the simulation.
+	 * 
+	 * @param ev a SimEvent object with the list of cloudlets
+	 * @pre ev != null
+	 * @post $none
+	 */
+	@SuppressWarnings("unchecked")
+	protected void processCloudletArrival(SimEvent ev) {
+		List<Cloudlet> arrivals = (List<Cloudlet>) ev.getData();
+		pendingArrivals--;
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": " + arrivals.size() + " cloudlet(s) arrived");
+		if (!batchSubmitted) {
+			// the first batch has not been scheduled yet, it takes them
+			getCloudletList().addAll(arrivals);
+			return;
+		}
+		if (getWindowSize() <= 0 && getWindowLength() <= 0) {
+			submitArrivals(arrivals);
+			return;
+		}
+		if (arrivalWindow.isEmpty() && getWindowLength() > 0) {
+			// the window closes a window length after its first arrival
+			schedule(getId(), getWindowLength(), WINDOW_CLOSE, windowCount);
+		}
+		arrivalWindow.addAll(arrivals);
+		// a window is also scheduled when no more arrivals are coming
+		if (getWindowSize() > 0 && arrivalWindow.size() >= getWindowSize() || pendingArrivals == 0) {
+			submitWindow();
+		}
+	}
+
+	/**
+	 * Process the closing of a window of arrivals. The window is scheduled unless it was
+	 * already scheduled because it was full.
+	 * 
+	 * @param ev a SimEvent object with the number of the window
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processWindowClose(SimEvent ev) {
+		if ((Integer) ev.getData() == windowCount) {
+			submitWindow();
+		}
+	}
+
+	/**
+	 * Process a retry of the creation of the vms that failed. Nothing is tried once all the
+	 * cloudlets have been executed.
+	 * 
+	 * @param ev a SimEvent object
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processVmRetry(SimEvent ev) {
+		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && pendingArrivals == 0
+				&& arrivalWindow.isEmpty()) {
+			return;
+		}
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying the failed VMs again");
+		setDatacenterRequestedIdsList(new ArrayList<Integer>());
+		createVmsInDatacenter(getDatacenterIdsList().get(0));
+	}
+
+	/**
+	 * Process a cancelled cloudlet, sending it to the vm it was moved to. A cloudlet that had
+	 * already finished when the cancellation arrived comes back as null and returns on its own.
+	 * 
+	 * @param ev a SimEvent object with the cloudlet
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processCloudletCancel(SimEvent ev) {
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		if (cloudlet == null) {
+			return;
+		}
+		Integer vmId = cloudletQueues.finishMove(cloudlet);
+		if (vmId == null) {
+			return;
+		}
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": Moving cloudlet " + cloudlet.getCloudletId()
+				+ " from VM #" + cloudlet.getVmId() + " to VM #" + vmId);
+		cloudlet.setVmId(vmId);
+		sendNow(getVmsToDatacentersMap().get(vmId), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+		cloudletQueues.add(cloudlet, vmId);
+	}
+
 	/**
 	 * Create the virtual machines in a datacenter.
 	 * 
@@ -403,112 +698,40 @@ public class DatacenterBroker extends SimEntity {
 	//fpa
 	protected void submitCloudlets()
 	{
-	    double newsolfitness=0;
-	    double fit=0;
 	    //to store the final cloudlet assigning order
 	    List<ArrayList<Integer>> cAssign=new ArrayList<ArrayList<Integer>>();
 	    
-		createPopulation();
-		writeFile();
-		
-		//initialize fitness of each solution in initial population
-	    for(int i=0;i<solutioncount;i++)
+	    if(getCloudletList().isEmpty())
+	    {
+	    	//every cloudlet arrives during the simulation
+	    	batchSubmitted=true;
+	    	batchVmCount=getVmsCreatedList().size();
+	    	return;
+	    }
+	    
+	    //with a dag the fitness is the makespan of the workflow
+	    workflowProblem=getCloudletDag()!=null?createSchedulingProblem():null;
+	    
+		//a batch scheduled before is submitted at once,without optimising it again
+		boolean cached=lookupCachedSchedule();
+		if(!cached&&earlySchedule!=null)
 		{
-			fitness[i][0]=0;
-			fitness[i][1]=0;
+			//the schedule was searched while the vms were being created
+			reconcileEarlySchedule();
 		}
-		
-		//find fitness of each solution in initial population
-		for(int i=0;i<solutioncount;i++)
+		else if(!cached&&isStandaloneMode()&&getSchedulingEngine()!=null&&canSchedule(getSchedulingEngine()))
 		{
-			fitness[i][0]=i;
-			fitness[i][1]=checkFitness(Population.get(i));
+			//the engine schedules on its own,without the population
+			runStandaloneEngine();
 		}
-		
-		System.out.println("\nFITNESS OF INITIAL SOLUTIONS-");
-		//display fitness of initial population
-		for(int i=0;i<solutioncount;i++)
+		else if(!cached)
 		{
-			System.out.println("Solution-"+i+" "+fitness[i][1]);
+			findBestSolution();
 		}
-		 
-		//find best solution no
-		int bestsolutionno=getBestSolutionNo(fitness);
-		bestSoln.addAll(Population.get(bestsolutionno));
-		 
-		//display initial best solution
-		System.out.println("\nINITIAL BEST SOLUTION-");
-		System.out.println(bestSoln);
-		 
-		//run the iterations for 15 times
-		for(int m=0;m<100;m++)
+		if(!cached)
 		{
-		 //to generate new solutions
-		 for(int i=0;i<solutioncount;i++)
-		 {
-			 //generate a random number between 0 to 1
-			 double rand=Math.random();
-		     if(rand<=0.8)
-		     {
-		    	 //get an another solution randomly from population
-		    	 int othersol=new Random().nextInt(20);
-		    	 //if both solutions are different
-		    	 if(othersol!=i)
-		    	 {
-		    		 //call local pollination
-		    		 newsol=localPollination(Population.get(i),Population.get(othersol));
-		    		 
-		         }
-		    	 else if(othersol==i&&othersol!=0)
-		    	 {
-		    		 i--;
-		    	 }
-		    	 else if(othersol==i&&othersol==0)
-		    	 {
-		    		 othersol+=1;
-		    		 //call local pollination
-		    		 newsol=localPollination(Population.get(i),Population.get(othersol));
-		    	 }
-		     }
-		     else
-		     {
-		    	 //call global pollination
-		    	 newsol=globalPollination(Population.get(i),bestSoln);
-		     }
-		     
-		     //check whether the newly generated solution is correct or not
-		     checkNewSol();
-		     
-		     //find fitness of new solution
-		     newsolfitness=checkFitness(newsol);
-		     
-		     //check whether the new solution is better than previous solution
-		     if(newsolfitness<fitness[i][1])
-		     {
-		    	 Population.get(i).clear();
-		    	 Population.get(i).addAll(newsol);
-		    	 fitness[i][1]=newsolfitness;
-		     }
-		     //check whether the new solution is better than best solution
-		     fit=checkFitness(bestSoln);
-		     if(newsolfitness<fit)
-		     {
-		    	 bestsolutionno=i;
-		    	 bestSoln.clear();
-		    	 bestSoln.addAll(newsol);	 
-		     }
-		 }
-		 fit=checkFitness(bestSoln);
-		 if(m<99)
-		  {
-		     System.out.println("\nFitness of Best Solution in cycle "+m+" is-"+fit);
-	         System.out.println(bestSoln);
-		  }
-		 else
-		 {
-			 System.out.println("\nFinal fitness is-"+fit);
-	         System.out.println(bestSoln);
-		 }
+			storeCachedSchedule();
+			storeElites();
 		}
 		
 		//initialize the list
@@ -537,93 +760,956 @@ public class DatacenterBroker extends SimEntity {
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
 					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
 	        bindCloudletToVm(cloudlet.getCloudletId(),vm.getId());
+	        vmIndex = (vmIndex + 1);
+	        //cloudlets waiting for others are sent when those return
+	        if(getCloudletDag()!=null&&!getCloudletDag().isReady(cloudlet.getCloudletId(),finishedCloudletIds))
+	        {
+	        	continue;
+	        }
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
 			cloudletsSubmitted++;
-			vmIndex = (vmIndex + 1);
+			cloudletQueues.add(cloudlet,vm.getId());
 			getCloudletSubmittedList().add(cloudlet);
 		}
 
 		// remove submitted cloudlets from waiting list
 		for (Cloudlet cloudlet : getCloudletSubmittedList()) {
 			getCloudletList().remove(cloudlet);
-		}				
+		}
+		batchSubmitted=true;
+		batchVmCount=getVmsCreatedList().size();
 	}
 	
-	//create intial population
-	protected void createPopulation()
+	//online:schedule only the arrivals,on top of what the vms already have to do
+	protected void submitArrivals(List<Cloudlet> arrivals)
 	{
-		this.avg=(getCloudletList().size()/getVmsCreatedList().size())+1;
-		int []cloudletCount=new int[getVmsCreatedList().size()];
+		BacklogSchedulingProblem problem=cloudletQueues.createBacklogProblem(arrivals,getVmsCreatedList(),runtimeModel);
 		
-		//loop to generate initial solutions
-		for(int i=0;i<solutioncount;i++)
+		//warm start from the current plan:each arrival goes where it finishes first after the backlog
+		int []assign=problem.getEarliestFinishAssignment();
+		if(getOnlineEngine()!=null)
 		{
-			//add a new row to the 3d list
-			Population.add(new ArrayList<ArrayList<Integer>>());
-			for(int j=0;j<getVmsCreatedList().size();j++)
-			{
-			    //add a new row to the 2d list.
-				Population.get(i).add(new ArrayList<Integer>());
-		    }
+			assign=getOnlineEngine().schedule(problem,assign);
 		}
-			
-			//to read from a file
-			readFile();
-			
-//			//initialize the cloudletcount array to 0
-//			Arrays.fill(cloudletCount,0);
-//			for(int j=0;j<getCloudletList().size();j++)
-//			{
-//				int cloudletid=getCloudletList().get(j).getCloudletId();
-//						
-//				//randomly generating a vm from vmcreatedlist
-//				int n=(int)(Math.random()*(getVmsCreatedList().size()));
-//						
-//				if(cloudletCount[n]<avg)
-//				{
-//				    //assigning cloudlet to selected vm
-//				    Population.get(i).get(n).add(cloudletCount[n],cloudletid);
-//				    cloudletCount[n]+=1;
-//				}
-//				else
-//				{
-//					j--;
-//				}
-//			  }
-//		 }
-		//display the initial poplulation
-		System.out.println("\nINITIAL POPULATION-");
-		for(int i=0;i<solutioncount;i++)
+		System.out.println("\nONLINE ALLOCATIONS OF "+arrivals.size()+" ARRIVALS,makespan "+problem.getMakespan(assign));
+		sendArrivals(arrivals,assign);
+	}
+	
+	//schedule the buffered arrivals of a window,starting from the population of the window before
+	protected void submitWindow()
+	{
+		List<Cloudlet> arrivals=new ArrayList<Cloudlet>(arrivalWindow);
+		arrivalWindow.clear();
+		windowCount++;
+		if(arrivals.isEmpty())
 		{
-			System.out.println("SOLUTION-"+i+" "+Population.get(i));
+			return;
+		}
+		BacklogSchedulingProblem problem=cloudletQueues.createBacklogProblem(arrivals,getVmsCreatedList(),runtimeModel);
+		long []lengths=new long[arrivals.size()];
+		for(int i=0;i<arrivals.size();i++)
+		{
+			lengths[i]=problem.getLength(i);
+		}
+		
+		int [][]population;
+		if(windowPopulation==null)
+		{
+			//first window:perturbed copies of the earliest finish schedule,from the engine's own random numbers
+			population=getWindowEngine().createPopulation(problem.getEarliestFinishAssignment(),problem.getVmCount());
+		}
+		else
+		{
+			//carry the population of the window before over to these cloudlets,no createPopulation
+			population=PopulationRemapper.remapCloudlets(windowPopulation,windowLengths,lengths);
+			population[population.length-1]=problem.getEarliestFinishAssignment();
 		}
+		int []assign=getWindowEngine().schedule(problem,population);
+		//the engines leave the population as it is and keep what they evolved to themselves,so the
+		//next window starts from this window's starting points and its schedule
+		population[0]=assign;
+		windowPopulation=population;
+		windowLengths=lengths;
+		
+		System.out.println("\nWINDOW "+windowCount+" ALLOCATIONS OF "+arrivals.size()+" ARRIVALS,makespan "+problem.getMakespan(assign));
+		sendArrivals(arrivals,assign);
 	}
 	
-	//read population from the file
-		protected void readFile() 
+	//send the arrivals to the vms at the positions of the assignment
+	protected void sendArrivals(List<Cloudlet> arrivals,int []assign)
+	{
+		for(int i=0;i<arrivals.size();i++)
 		{
-			try 
-			{	
-				File myObj = new File("InitialPopulation.txt");
-				Scanner myReader = new Scanner(myObj);
-				int q = 0 ;int w =0;
-				while (myReader.hasNextLine()) 
-				{
-					String data = myReader.nextLine();
-					String[] dataSplit = data.trim().split(" ");
-					if(dataSplit.length == 1)
-					{
-						if(dataSplit[0].equals("NEW")) {
-							q++;
-						    w = 0 ;
-						}
-						else if(dataSplit[0].equals(""))
-						{
-							w++;
-						}
+			Cloudlet cloudlet=arrivals.get(i);
+			Vm vm=getVmsCreatedList().get(assign[i]);
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
+					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+			cloudlet.setVmId(vm.getId());
+			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			cloudletsSubmitted++;
+			cloudletQueues.add(cloudlet,vm.getId());
+			getCloudletSubmittedList().add(cloudlet);
+		}
+	}
+	
+	//online:the vms that came up after the batch take over waiting cloudlets from the others
+	protected void submitLateVms()
+	{
+		if(getVmsCreatedList().size()>batchVmCount)
+		{
+			System.out.println("\n"+(getVmsCreatedList().size()-batchVmCount)+" MORE VMS CAME UP");
+			batchVmCount=getVmsCreatedList().size();
+			rebalanceWaitingCloudlets();
+		}
+		scheduleVmRetry();
+	}
+	
+	//try the vms that failed creation again later,while some are missing and retries are left
+	protected void scheduleVmRetry()
+	{
+		if(getVmRetryDelay()>0&&vmRetries<getMaxVmRetries()&&getVmsCreatedList().size()<getVmList().size()-getVmsDestroyed())
+		{
+			vmRetries++;
+			schedule(getId(),getVmRetryDelay(),VM_RETRY);
+		}
+	}
+	
+	//move the cloudlets still waiting in the vm queues to where they finish earlier,starting from
+	//where they are,so only the cloudlets that gain are cancelled and sent again
+	protected void rebalanceWaitingCloudlets()
+	{
+		CloudletQueues.Moves moves=cloudletQueues.planRebalance(getVmsCreatedList(),runtimeModel,getOnlineEngine());
+		if(moves.isEmpty())
+		{
+			return;
+		}
+		for(Map.Entry<Cloudlet,Integer> move:moves.getVmIds().entrySet())
+		{
+			migrateCloudlet(move.getKey(),move.getValue());
+		}
+		System.out.println("\nMOVING "+moves.getVmIds().size()+" WAITING CLOUDLETS,makespan "+moves.getMakespanBefore()+" -> "+moves.getMakespanAfter());
+	}
+	
+	//the vms that are idle or about to be take the waiting cloudlets off the tail of the vms
+	//that finish last,one at a time while the vm finishing last gets done earlier
+	protected void stealWaitingCloudlets()
+	{
+		CloudletQueues.Moves moves=cloudletQueues.planSteal(getVmsCreatedList(),runtimeModel,CloudSim.clock(),getIdleTime());
+		if(moves.isEmpty())
+		{
+			return;
+		}
+		for(Map.Entry<Cloudlet,Integer> move:moves.getVmIds().entrySet())
+		{
+			migrateCloudlet(move.getKey(),move.getValue());
+		}
+		System.out.println("\nSTEALING "+moves.getVmIds().size()+" WAITING CLOUDLETS AT "+CloudSim.clock()+",estimated makespan "+moves.getMakespanBefore()+" -> "+moves.getMakespanAfter());
+	}
+	
+	//cancel a cloudlet on its vm,it is sent to the other vm when the cancellation comes back
+	protected void migrateCloudlet(Cloudlet cloudlet,int vmId)
+	{
+		cloudletQueues.startMove(cloudlet,vmId);
+		sendNow(getVmsToDatacentersMap().get(cloudlet.getVmId()),CloudSimTags.CLOUDLET_CANCEL,new int[]{cloudlet.getCloudletId(),getId(),cloudlet.getVmId()});
+	}
+	
+	//create the population and improve its best solution by the engine,branch and bound or fpa
+	protected void findBestSolution()
+	{
+		createPopulation();
+		writeFile();
+		
+		//initialize fitness of each solution in initial population
+	    for(int i=0;i<solutioncount;i++)
+		{
+			fitness[i][0]=0;
+			fitness[i][1]=0;
+		}
+		
+		//find fitness of each solution in initial population
+		for(int i=0;i<solutioncount;i++)
+		{
+			fitness[i][0]=i;
+			fitness[i][1]=checkFitness(Population.get(i));
+		}
+		
+		System.out.println("\nFITNESS OF INITIAL SOLUTIONS-");
+		//display fitness of initial population
+		for(int i=0;i<solutioncount;i++)
+		{
+			System.out.println("Solution-"+i+" "+fitness[i][1]);
+		}
+		 
+		//find best solution no
+		int bestsolutionno=getBestSolutionNo(fitness);
+		bestSoln.addAll(Population.get(bestsolutionno));
+		 
+		//display initial best solution
+		System.out.println("\nINITIAL BEST SOLUTION-");
+		System.out.println(bestSoln);
+		 
+		if(getSchedulingEngine() instanceof PortfolioEngine)
+		{
+			//fpa races the engines of the portfolio
+			runPortfolio((PortfolioEngine)getSchedulingEngine());
+		}
+		else if(getSchedulingEngine()!=null&&canSchedule(getSchedulingEngine()))
+		{
+			//let the selected engine improve the best initial solution instead of fpa
+			runSchedulingEngine(getSchedulingEngine());
+		}
+		else if(isExactMode()&&getCloudletDag()==null&&BranchAndBoundEngine.isExactSize(getCloudletList().size(),getVmsCreatedList().size()))
+		{
+			//tiny instances of independent cloudlets are solved to optimality instead
+			runSchedulingEngine(new BranchAndBoundEngine());
+		}
+		else
+		{
+			if(getSchedulingEngine()!=null)
+			{
+				System.out.println("\n"+getSchedulingEngine().getClass().getSimpleName()+" cannot schedule dependent cloudlets,pollinating instead");
+			}
+			pollinate();
+		}
+	}
+	
+	//take the schedule of the batch from the cache,if it was scheduled before
+	protected boolean lookupCachedSchedule()
+	{
+		if(getScheduleCache()==null||getCloudletDag()!=null)
+		{
+			return false;
+		}
+		SchedulingProblem problem=createSchedulingProblem();
+		//taken before the run,which adapts the switch probability
+		cacheObjective=getCacheObjective();
+		int []assign=getScheduleCache().get(getProblemLengths(problem),getProblemMips(problem),cacheObjective);
+		if(assign==null)
+		{
+			return false;
+		}
+		if(earlySchedule!=null)
+		{
+			earlySchedule.cancel(true);
+			earlySchedule=null;
+		}
+		bestSoln.clear();
+		bestSoln.addAll(toSolution(assign));
+		
+		System.out.println("\nCACHED SCHEDULE-");
+		System.out.println("\nFinal fitness is-"+checkFitness(bestSoln));
+		System.out.println(bestSoln);
+		return true;
+	}
+	
+	//keep the schedule of the batch in the cache
+	protected void storeCachedSchedule()
+	{
+		if(getScheduleCache()==null||getCloudletDag()!=null)
+		{
+			return;
+		}
+		SchedulingProblem problem=createSchedulingProblem();
+		getScheduleCache().put(getProblemLengths(problem),getProblemMips(problem),cacheObjective,toAssignment(bestSoln));
+	}
+	
+	//what the schedules are optimised for and how,a cached schedule is only taken for the same:
+	//the engine with the settings its toString gives,the modes choosing what runs and the
+	//settings of fpa
+	protected String getCacheObjective()
+	{
+		return "makespan engine="+(getSchedulingEngine()!=null?getSchedulingEngine().toString():"fpa")+" exact="+isExactMode()+" standalone="+isStandaloneMode()
+				+" early="+isEarlyStart()+" hybrid="+isHybridMode()+" handover="+handoverImprovement+"/"+handoverWindow
+				+" policy="+getOperatorPolicy()+" population="+minSolutionCount+"-"+maxSolutionCount
+				+" diversity="+lowDiversity+"-"+highDiversity+" switch="+switchProbability;
+	}
+	
+	//the lengths of the cloudlets of a problem,as the cache key
+	protected long[] getProblemLengths(SchedulingProblem problem)
+	{
+		long []lengths=new long[problem.getCloudletCount()];
+		for(int i=0;i<lengths.length;i++)
+		{
+			lengths[i]=problem.getLength(i);
+		}
+		return lengths;
+	}
+	
+	//the mips of the vms of a problem,as the cache key
+	protected double[] getProblemMips(SchedulingProblem problem)
+	{
+		double []mips=new double[problem.getVmCount()];
+		for(int i=0;i<mips.length;i++)
+		{
+			mips[i]=problem.getMips(i);
+		}
+		return mips;
+	}
+	
+	//replace the last solutions of the population by the elites of the past batches closest to this one
+	protected void seedFromEliteLibrary()
+	{
+		if(getEliteLibrary()==null||getCloudletDag()!=null)
+		{
+			return;
+		}
+		SchedulingProblem problem=createSchedulingProblem();
+		List<int[]> elites=getEliteLibrary().getNearest(getProblemLengths(problem),getProblemMips(problem),solutioncount/2);
+		for(int k=0;k<elites.size();k++)
+		{
+			newsol=toSolution(elites.get(k));
+			checkNewSol();
+			Population.get(solutioncount-1-k).clear();
+			Population.get(solutioncount-1-k).addAll(newsol);
+		}
+		if(!elites.isEmpty())
+		{
+			System.out.println("\nSEEDED "+elites.size()+" SOLUTIONS FROM THE ELITE LIBRARY");
+		}
+	}
+	
+	//keep the best solution and the best of the population in the elite library
+	protected void storeElites()
+	{
+		if(getEliteLibrary()==null||getCloudletDag()!=null)
+		{
+			return;
+		}
+		List<int[]> elites=new ArrayList<int[]>();
+		elites.add(toAssignment(bestSoln));
+		if(Population.size()>=solutioncount)
+		{
+			double []ranked=new double[solutioncount];
+			for(int i=0;i<solutioncount;i++)
+			{
+				ranked[i]=checkFitness(Population.get(i));
+			}
+			int []order=ScheduleUtil.increasingOrder(ranked);
+			for(int i=0;i<solutioncount&&elites.size()<eliteCount;i++)
+			{
+				int []assign=toAssignment(Population.get(order[i]));
+				if(!Arrays.equals(assign,elites.get(0)))
+				{
+					elites.add(assign);
+				}
+			}
+		}
+		SchedulingProblem problem=createSchedulingProblem();
+		getEliteLibrary().add(getProblemLengths(problem),getProblemMips(problem),elites);
+	}
+	
+	//search the schedule on the requested vms in the background,while the datacenters create them
+	protected void startEarlySchedule()
+	{
+		if(getCloudletList().isEmpty()||getVmList().isEmpty())
+		{
+			return;
+		}
+		final SchedulingProblem problem=createSchedulingProblem(getVmList());
+		final int []initial=new int[getCloudletList().size()];
+		for(int i=0;i<initial.length;i++)
+		{
+			initial[i]=i%getVmList().size();
+		}
+		//pollination works on the broker's own lists and engines that add up runtimes cannot take a dag,
+		//so those are replaced by the genetic algorithm
+		final SchedulingEngine engine=getSchedulingEngine()!=null&&canSchedule(getSchedulingEngine())?getSchedulingEngine():new GeneticEngine();
+		ExecutorService executor=Executors.newSingleThreadExecutor();
+		earlySchedule=executor.submit(new Callable<int[]>()
+		{
+			@Override
+			public int[] call()
+			{
+				return engine.schedule(problem,initial);
+			}
+		});
+		//the thread ends with the search
+		executor.shutdown();
+	}
+	
+	//take the schedule searched in the background onto the vms that were actually created,the
+	//cloudlets of the vms that failed go where they finish first
+	protected void reconcileEarlySchedule()
+	{
+		int []assign;
+		try
+		{
+			assign=earlySchedule.get();
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return;
+		}
+		catch(ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+		finally
+		{
+			earlySchedule=null;
+		}
+		
+		List<ArrayList<Integer>> sol=new ArrayList<ArrayList<Integer>>();
+		int []positions=new int[getVmList().size()];
+		for(int k=0;k<getVmList().size();k++)
+		{
+			sol.add(new ArrayList<Integer>());
+			positions[k]=getVmsCreatedList().indexOf(getVmList().get(k));
+		}
+		for(int i=0;i<assign.length;i++)
+		{
+			sol.get(assign[i]).add(getCloudletList().get(i).getCloudletId());
+		}
+		computeVmCapacity();
+		newsol=PopulationRemapper.remapVms(sol,positions,getVmsCreatedList().size());
+		checkNewSol();
+		bestSoln.clear();
+		bestSoln.addAll(newsol);
+		
+		System.out.println("\nEARLY SCHEDULE ON "+getVmsCreatedList().size()+" OF "+getVmList().size()+" VMS-");
+		System.out.println("\nFinal fitness is-"+checkFitness(bestSoln));
+		System.out.println(bestSoln);
+	}
+	
+	//engines that add up runtimes themselves cannot schedule dependent cloudlets
+	protected boolean canSchedule(SchedulingEngine engine)
+	{
+		return getCloudletDag()==null||!(engine instanceof AdditiveSchedulingEngine);
+	}
+	
+	//run the engine from round robin,as the default broker would assign the cloudlets
+	protected void runStandaloneEngine()
+	{
+		int []assign=new int[getCloudletList().size()];
+		for(int i=0;i<assign.length;i++)
+		{
+			assign[i]=i%getVmsCreatedList().size();
+		}
+		assign=getSchedulingEngine().schedule(createSchedulingProblem(),assign);
+		bestSoln.clear();
+		bestSoln.addAll(toSolution(assign));
+		
+		System.out.println("\nFinal fitness is-"+checkFitness(bestSoln));
+	}
+	
+	//run the flower pollination cycles on the population
+	protected void pollinate()
+	{
+	    double newsolfitness=0;
+	    double fit=0;
+	    int bestsolutionno=getBestSolutionNo(fitness);
+	    //best fitness after each cycle,to measure the improvement rate
+	    double []history=new double[100];
+	    //a fresh bandit for each run,what pays off depends on the instance
+	    operatorBandit=operatorPolicy==null?null:new OperatorBandit(operatorPolicy,OPERATOR_NAMES);
+	    
+		//run the iterations for 100 times
+		for(int m=0;m<100;m++)
+		{
+		 //success counts of local and global pollination in this cycle
+		 int localtries=0,localsuccess=0,globaltries=0,globalsuccess=0;
+		 int operator;
+		 
+		 //to generate new solutions
+		 for(int i=0;i<solutioncount;i++)
+		 {
+			 long start=System.nanoTime();
+			 if(operatorBandit!=null)
+			 {
+				 //the bandit picks the operator that paid off most on this instance
+				 operator=operatorBandit.select();
+			 }
+			 else
+			 {
+				 //generate a random number between 0 to 1
+				 double rand=Math.random();
+				 operator=rand<=switchProbability?LOCAL_POLLINATION:GLOBAL_POLLINATION;
+			 }
+			 if(operator==LOCAL_POLLINATION)
+			 {
+				 localtries++;
+			 }
+			 else if(operator==GLOBAL_POLLINATION)
+			 {
+				 globaltries++;
+			 }
+			 newsol=applyOperator(operator,i);
+		     
+		     //check whether the newly generated solution is correct or not
+		     checkNewSol();
+		     
+		     //find fitness of new solution
+		     newsolfitness=checkFitness(newsol);
+		     if(operatorBandit!=null)
+		     {
+		    	 operatorBandit.update(operator,(fitness[i][1]-newsolfitness)/fitness[i][1],(System.nanoTime()-start)/1e6);
+		     }
+		     
+		     //check whether the new solution is better than previous solution
+		     if(newsolfitness<fitness[i][1])
+		     {
+		    	 Population.get(i).clear();
+		    	 Population.get(i).addAll(newsol);
+		    	 fitness[i][1]=newsolfitness;
+		    	 if(operator==LOCAL_POLLINATION)
+		    	 {
+		    		 localsuccess++;
+		    	 }
+		    	 else if(operator==GLOBAL_POLLINATION)
+		    	 {
+		    		 globalsuccess++;
+		    	 }
+		     }
+		     //check whether the new solution is better than best solution
+		     fit=checkFitness(bestSoln);
+		     if(newsolfitness<fit)
+		     {
+		    	 bestsolutionno=i;
+		    	 bestSoln.clear();
+		    	 bestSoln.addAll(newsol);	 
+		     }
+		 }
+		 
+		 //adapt the switch probability and the population size for the next cycle
+		 adaptSwitchProbability(localtries,localsuccess,globaltries,globalsuccess);
+		 adaptPopulationSize();
+		 
+		 fit=checkFitness(bestSoln);
+		 history[m]=fit;
+		 if(isStoppedBySearchMonitor(fit))
+		 {
+			 System.out.println("\nFitness of Best Solution in cycle "+m+" is-"+fit+",stopped by the portfolio");
+			 return;
+		 }
+		 if(isHybridMode()&&m<99&&m>=handoverWindow&&history[m-handoverWindow]-fit<handoverImprovement*history[m-handoverWindow])
+		 {
+			 //fpa has stopped improving,ga exploits the population for the remaining cycles
+			 System.out.println("\nFitness of Best Solution in cycle "+m+" is-"+fit+",handing over to ga");
+			 evolve(99-m);
+			 return;
+		 }
+		 if(m<99)
+		  {
+		     System.out.println("\nFitness of Best Solution in cycle "+m+" is-"+fit);
+	         System.out.println(bestSoln);
+		  }
+		 else
+		 {
+			 System.out.println("\nFinal fitness is-"+fit);
+	         System.out.println(bestSoln);
+		 }
+		}
+		if(operatorBandit!=null)
+		{
+			System.out.println("\nOperators used-"+operatorBandit);
+		}
+	}
+	
+	//generate a new solution from solution i by one of the operators
+	protected ArrayList<ArrayList<Integer>> applyOperator(int operator,int i)
+	{
+		if(operator==GLOBAL_POLLINATION)
+		{
+			//call global pollination
+			return globalPollination(Population.get(i),bestSoln);
+		}
+		if(operator==SWAP_MUTATION)
+		{
+			ArrayList<ArrayList<Integer>> sol=copySolution(Population.get(i));
+			GeneticOperators.swapMutation(sol,new Random());
+			return sol;
+		}
+		if(operator==LOCAL_SEARCH)
+		{
+			return localSearch(Population.get(i));
+		}
+		
+		//get an another solution randomly from population
+		int othersol=new Random().nextInt(solutioncount-1);
+		if(othersol>=i)
+		{
+			othersol++;
+		}
+		if(operator==CROSSOVER)
+		{
+			return GeneticOperators.crossover(Population.get(i),Population.get(othersol),new Random().nextInt(getVmsCreatedList().size()));
+		}
+		//call local pollination
+		return localPollination(Population.get(i),Population.get(othersol));
+	}
+	
+	//move the cloudlet of the most loaded vm that lowers the later finish of the two vms most,to the vm where it finishes first
+	protected ArrayList<ArrayList<Integer>> localSearch(ArrayList<ArrayList<Integer>> sol)
+	{
+		ArrayList<ArrayList<Integer>> newsol=copySolution(sol);
+		double []times=new double[newsol.size()];
+		for(int i=0;i<newsol.size();i++)
+		{
+			for(int id:newsol.get(i))
+			{
+				times[i]+=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),id).getCloudletLength())/runtimeModel.getEffectiveMips(getVmsCreatedList().get(i));
+			}
+		}
+		int from=0;
+		for(int i=1;i<times.length;i++)
+		{
+			if(times[i]>times[from])
+			{
+				from=i;
+			}
+		}
+		int bestplace=-1,bestto=-1;
+		double bestfinish=times[from];
+		for(int j=0;j<newsol.get(from).size();j++)
+		{
+			long length=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),newsol.get(from).get(j)).getCloudletLength());
+			for(int to=0;to<times.length;to++)
+			{
+				if(to==from)
+				{
+					continue;
+				}
+				double finish=Math.max(times[from]-length/runtimeModel.getEffectiveMips(getVmsCreatedList().get(from)),times[to]+length/runtimeModel.getEffectiveMips(getVmsCreatedList().get(to)));
+				if(finish<bestfinish)
+				{
+					bestfinish=finish;
+					bestplace=j;
+					bestto=to;
+				}
+			}
+		}
+		if(bestplace>=0)
+		{
+			newsol.get(bestto).add(newsol.get(from).remove(bestplace));
+		}
+		return newsol;
+	}
+	
+	//copy of a solution whose vm lists can be changed
+	protected ArrayList<ArrayList<Integer>> copySolution(ArrayList<ArrayList<Integer>> sol)
+	{
+		ArrayList<ArrayList<Integer>> copy=new ArrayList<ArrayList<Integer>>();
+		for(int i=0;i<sol.size();i++)
+		{
+			copy.add(new ArrayList<Integer>(sol.get(i)));
+		}
+		return copy;
+	}
+	
+	//run ga generations on the fpa population,the solutions are handed over as they are
+	protected void evolve(int generations)
+	{
+		Random random=new Random();
+		double []generation=new double[solutioncount];
+		for(int i=0;i<solutioncount;i++)
+		{
+			generation[i]=fitness[i][1];
+		}
+		for(int g=0;g<generations;g++)
+		{
+			//the generation of the ga broker,repaired and evaluated as fpa does
+			GeneticOperators.nextGeneration(Population,generation,getVmsCreatedList().size(),createBreeder(),random);
+			for(int i=0;i<solutioncount;i++)
+			{
+				fitness[i][0]=i;
+				fitness[i][1]=generation[i];
+			}
+			bestSoln.clear();
+			bestSoln.addAll(Population.get(0));
+			if(isStoppedBySearchMonitor(fitness[0][1]))
+			{
+				System.out.println("\nFitness of Best Solution in ga generation "+g+" is-"+fitness[0][1]+",stopped by the portfolio");
+				return;
+			}
+			
+			if(g<generations-1)
+			{
+				System.out.println("\nFitness of Best Solution in ga generation "+g+" is-"+fitness[0][1]);
+			}
+			else
+			{
+				System.out.println("\nFinal fitness is-"+fitness[0][1]);
+				System.out.println(bestSoln);
+			}
+		}
+	}
+	
+	//crossover and mutation of the ga,with the repair and fitness of fpa
+	protected GeneticOperators.Breeder<ArrayList<ArrayList<Integer>>> createBreeder()
+	{
+		return new GeneticOperators.Breeder<ArrayList<ArrayList<Integer>>>()
+		{
+			@Override
+			public ArrayList<ArrayList<Integer>> crossover(ArrayList<ArrayList<Integer>> first,ArrayList<ArrayList<Integer>> second,int point)
+			{
+				newsol=GeneticOperators.crossover(first,second,point);
+				checkNewSol();
+				return newsol;
+			}
+			
+			@Override
+			public void mutate(ArrayList<ArrayList<Integer>> child,Random random)
+			{
+				GeneticOperators.swapMutation(child,random);
+			}
+			
+			@Override
+			public double getFitness(ArrayList<ArrayList<Integer>> solution)
+			{
+				return checkFitness(solution);
+			}
+		};
+	}
+	
+	//publish the best solution to the portfolio,and tell whether the portfolio stopped the search
+	protected boolean isStoppedBySearchMonitor(double fit)
+	{
+		if(searchMonitor==null)
+		{
+			return false;
+		}
+		searchMonitor.publish(toAssignment(bestSoln),fit);
+		return searchMonitor.isStopped();
+	}
+	
+	//run the portfolio on another thread while fpa races it here,and keep the best solution of both
+	protected void runPortfolio(final PortfolioEngine portfolio)
+	{
+		final SchedulingProblem problem=createSchedulingProblem();
+		final int [][]population=new int[solutioncount][];
+		for(int i=0;i<solutioncount;i++)
+		{
+			population[i]=toAssignment(Population.get(i));
+		}
+		searchMonitor=portfolio.createExternalMonitor("fpa");
+		ExecutorService executor=Executors.newSingleThreadExecutor();
+		try
+		{
+			Future<int[]> result=executor.submit(new Callable<int[]>()
+			{
+				@Override
+				public int[] call()
+				{
+					return portfolio.schedule(problem,population);
+				}
+			});
+			try
+			{
+				pollinate();
+			}
+			finally
+			{
+				searchMonitor.finish();
+			}
+			int []assign=result.get();
+			bestSoln.clear();
+			bestSoln.addAll(toSolution(assign));
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch(ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+		finally
+		{
+			searchMonitor=null;
+			executor.shutdown();
+		}
+		
+		System.out.println("\nFinal fitness is-"+checkFitness(bestSoln));
+		System.out.println(bestSoln);
+	}
+	
+	//run the scheduling engine from the best solution (or the population) and keep its result as the best solution
+	protected void runSchedulingEngine(SchedulingEngine engine)
+	{
+		SchedulingProblem problem=createSchedulingProblem();
+		int []assign;
+		if(engine instanceof HierarchicalEngine)
+		{
+			//the groups of the engine are the datacenters of the vms
+			((HierarchicalEngine)engine).setGroups(getDatacenterGroups());
+		}
+		if(engine instanceof PopulationSchedulingEngine)
+		{
+			//population based engines start from the whole initial population
+			int [][]population=new int[solutioncount][];
+			for(int i=0;i<solutioncount;i++)
+			{
+				population[i]=toAssignment(Population.get(i));
+			}
+			assign=((PopulationSchedulingEngine)engine).schedule(problem,population);
+		}
+		else
+		{
+			assign=engine.schedule(problem,toAssignment(bestSoln));
+		}
+		bestSoln.clear();
+		bestSoln.addAll(toSolution(assign));
+		
+		System.out.println("\nFinal fitness is-"+checkFitness(bestSoln));
+		System.out.println(bestSoln);
+	}
+	
+	//number the datacenters of the created vms from 0,in the order of their first vm
+	protected int[] getDatacenterGroups()
+	{
+		List<Integer> datacenters=new ArrayList<Integer>();
+		int []groups=new int[getVmsCreatedList().size()];
+		for(int i=0;i<groups.length;i++)
+		{
+			int datacenterId=getVmsToDatacentersMap().get(getVmsCreatedList().get(i).getId());
+			if(!datacenters.contains(datacenterId))
+			{
+				datacenters.add(datacenterId);
+			}
+			groups[i]=datacenters.indexOf(datacenterId);
+		}
+		return groups;
+	}
+	
+	//dense copy of the cloudlet lengths and vm mips for the scheduling engines
+	protected SchedulingProblem createSchedulingProblem()
+	{
+		return createSchedulingProblem(getVmsCreatedList());
+	}
+	
+	//dense copy of the cloudlet lengths and the mips of the given vms
+	protected SchedulingProblem createSchedulingProblem(List<? extends Vm> vms)
+	{
+		long []lengths=new long[getCloudletList().size()];
+		for(int i=0;i<getCloudletList().size();i++)
+		{
+			lengths[i]=runtimeModel.getEffectiveLength(getCloudletList().get(i).getCloudletLength());
+		}
+		double []mips=new double[vms.size()];
+		for(int i=0;i<vms.size();i++)
+		{
+			mips[i]=runtimeModel.getEffectiveMips(vms.get(i));
+		}
+		if(getCloudletDag()!=null)
+		{
+			return new WorkflowSchedulingProblem(lengths,mips,getCloudletDag().getPredecessorPositions(getCloudletList()));
+		}
+		return new SchedulingProblem(lengths,mips);
+	}
+	
+	//convert a solution (cloudlet ids of each vm) to the vm of each cloudlet position
+	protected int[] toAssignment(ArrayList<ArrayList<Integer>> sol)
+	{
+		Map<Integer,Integer> positions=new HashMap<Integer,Integer>();
+		for(int i=0;i<getCloudletList().size();i++)
+		{
+			positions.put(getCloudletList().get(i).getCloudletId(),i);
+		}
+		int []assign=new int[getCloudletList().size()];
+		for(int i=0;i<sol.size();i++)
+		{
+			for(int j=0;j<sol.get(i).size();j++)
+			{
+				assign[positions.get(sol.get(i).get(j))]=i;
+			}
+		}
+		return assign;
+	}
+	
+	//convert the vm of each cloudlet position back to a solution
+	protected ArrayList<ArrayList<Integer>> toSolution(int[] assign)
+	{
+		ArrayList<ArrayList<Integer>> sol=new ArrayList<ArrayList<Integer>>();
+		for(int i=0;i<getVmsCreatedList().size();i++)
+		{
+			sol.add(new ArrayList<Integer>());
+		}
+		for(int i=0;i<assign.length;i++)
+		{
+			sol.get(assign[i]).add(getCloudletList().get(i).getCloudletId());
+		}
+		return sol;
+	}
+	
+	//create intial population
+	protected void createPopulation()
+	{
+		computeVmCapacity();
+		int []cloudletCount=new int[getVmsCreatedList().size()];
+		
+		//loop to generate initial solutions
+		for(int i=0;i<solutioncount;i++)
+		{
+			//add a new row to the 3d list
+			Population.add(new ArrayList<ArrayList<Integer>>());
+			for(int j=0;j<getVmsCreatedList().size();j++)
+			{
+			    //add a new row to the 2d list.
+				Population.get(i).add(new ArrayList<Integer>());
+		    }
+		}
+			
+			//to read from a file
+			readFile();
+			remapToCreatedVms();
+			seedFromEliteLibrary();
+			
+//			//initialize the cloudletcount array to 0
+//			Arrays.fill(cloudletCount,0);
+//			for(int j=0;j<getCloudletList().size();j++)
+//			{
+//				int cloudletid=getCloudletList().get(j).getCloudletId();
+//						
+//				//randomly generating a vm from vmcreatedlist
+//				int n=(int)(Math.random()*(getVmsCreatedList().size()));
+//						
+//				if(cloudletCount[n]<avg)
+//				{
+//				    //assigning cloudlet to selected vm
+//				    Population.get(i).get(n).add(cloudletCount[n],cloudletid);
+//				    cloudletCount[n]+=1;
+//				}
+//				else
+//				{
+//					j--;
+//				}
+//			  }
+//		 }
+		//display the initial poplulation
+		System.out.println("\nINITIAL POPULATION-");
+		for(int i=0;i<solutioncount;i++)
+		{
+			System.out.println("SOLUTION-"+i+" "+Population.get(i));
+		}
+	}
+	
+	//read population from the file
+		protected void readFile() 
+		{
+			try 
+			{	
+				File myObj = new File("InitialPopulation.txt");
+				Scanner myReader = new Scanner(myObj);
+				int q = 0 ;int w =0;
+				while (myReader.hasNextLine()) 
+				{
+					String data = myReader.nextLine();
+					String[] dataSplit = data.trim().split(" ");
+					if(dataSplit.length == 1)
+					{
+						if(dataSplit[0].equals("NEW")) {
+							q++;
+						    w = 0 ;
+						}
+						else if(dataSplit[0].equals(""))
+						{
+							populationRow(q,w);
+							w++;
+						}
 						else
 						{
-							Population.get(q).get(w).add(Integer.parseInt(dataSplit[0].trim()));
+							populationRow(q,w).add(Integer.parseInt(dataSplit[0].trim()));
 							w++;
 						}
 					}
@@ -633,7 +1719,7 @@ public class DatacenterBroker extends SimEntity {
 					{
 						String var1 = dataSplit[i].trim();
 						dataSplitInt[i] = Integer.parseInt(var1);
-						Population.get(q).get(w).add(dataSplitInt[i]);
+						populationRow(q,w).add(dataSplitInt[i]);
 					}
 					w++;
 					}
@@ -647,6 +1733,47 @@ public class DatacenterBroker extends SimEntity {
 			}
 		}
 	
+	//row w of solution q read from the file,added when the file has more vms than were created
+	protected ArrayList<Integer> populationRow(int q,int w)
+	{
+		while(Population.get(q).size()<=w)
+		{
+			Population.get(q).add(new ArrayList<Integer>());
+		}
+		return Population.get(q).get(w);
+	}
+	
+	//the file has a row for each vm it was written for,which may not be the vms that were created:
+	//rows of the requested vms go to the same vms,other rows in order,and the cloudlets of
+	//vms that were not created are repaired onto the created ones instead of starting over
+	protected void remapToCreatedVms()
+	{
+		int vms=getVmsCreatedList().size();
+		for(int i=0;i<solutioncount;i++)
+		{
+			int rows=Population.get(i).size();
+			if(rows==vms)
+			{
+				continue;
+			}
+			int []positions=new int[rows];
+			for(int k=0;k<rows;k++)
+			{
+				if(rows==getVmList().size())
+				{
+					positions[k]=getVmsCreatedList().indexOf(getVmList().get(k));
+				}
+				else
+				{
+					positions[k]=k<vms?k:-1;
+				}
+			}
+			newsol=PopulationRemapper.remapVms(Population.get(i),positions,vms);
+			checkNewSol();
+			Population.set(i,newsol);
+		}
+	}
+	
 	//write population to a file
 		protected void writeFile() {
 			try{    
@@ -673,9 +1800,43 @@ public class DatacenterBroker extends SimEntity {
 				catch(Exception e){System.out.println(e);}
 		}
 	
+	//capacity of each vm,a share of the total cloudlet length in proportion to its mips
+	//plus room for one more cloudlet,so faster vms can take more work than slower ones
+	protected void computeVmCapacity()
+	{
+		long totalcloudletlength=0;
+		long maxcloudletlength=0;
+		double totalmips=0;
+		//in the lengths and mips the returned cloudlets showed,as checkFitness counts them
+		for(Cloudlet cloudlet:getCloudletList())
+		{
+			long length=runtimeModel.getEffectiveLength(cloudlet.getCloudletLength());
+			totalcloudletlength+=length;
+			maxcloudletlength=Math.max(maxcloudletlength,length);
+		}
+		for(Vm vm:getVmsCreatedList())
+		{
+			totalmips+=runtimeModel.getEffectiveMips(vm);
+		}
+		
+		//makespan of a perfectly balanced schedule
+		double idealtime=(double)totalcloudletlength/totalmips;
+		this.vmCapacity=new double[getVmsCreatedList().size()];
+		for(int i=0;i<getVmsCreatedList().size();i++)
+		{
+			vmCapacity[i]=idealtime*runtimeModel.getEffectiveMips(getVmsCreatedList().get(i))+maxcloudletlength;
+		}
+	}
+	
 	//fitness of any solution
 	protected double checkFitness(ArrayList<ArrayList<Integer>> arr)
 	{
+		if(workflowProblem!=null)
+		{
+			//cloudlets of a workflow also wait for their predecessors
+			return workflowProblem.getMakespan(toAssignment(arr));
+		}
+		
 		//exec time for each vm of a solution
 	    double [] vmexectime=new double[getVmsCreatedList().size()];
 	    
@@ -686,14 +1847,14 @@ public class DatacenterBroker extends SimEntity {
 		Arrays.fill(vmexectime, 0);
 		for(int i=0;i<getVmsCreatedList().size();i++)
 		{
-			//get a vm object to find its mips.
+			//get a vm object to find its mips,as the returned cloudlets showed it runs
 			Vm vm=getVmsCreatedList().get(i);
-			double vmmips=vm.getMips();
+			double vmmips=runtimeModel.getEffectiveMips(vm);
 			totalcloudletlength=0;
 			for(int j=0;j<arr.get(i).size();j++)
 			{
 				//add all the cloudletlengths for a particular vm
-				totalcloudletlength+=CloudletList.getById(getCloudletList(),arr.get(i).get(j)).getCloudletLength();
+				totalcloudletlength+=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),arr.get(i).get(j)).getCloudletLength());
 			}
 				 
 			//calculate time duration for each vm
@@ -735,6 +1896,89 @@ public class DatacenterBroker extends SimEntity {
 		return bestsolno;
 	}
 	
+	//move the switch probability towards the pollination that improved more solutions
+	protected void adaptSwitchProbability(int localtries,int localsuccess,int globaltries,int globalsuccess)
+	{
+		//success rates with one pseudo try each,so an unused pollination is not ruled out
+		double localrate=(localsuccess+1.0)/(localtries+2.0);
+		double globalrate=(globalsuccess+1.0)/(globaltries+2.0);
+		double target=localrate/(localrate+globalrate);
+		
+		switchProbability+=0.2*(target-switchProbability);
+		switchProbability=Math.min(0.95,Math.max(0.2,switchProbability));
+	}
+	
+	//grow the population when it has converged and shrink it while it is still diverse
+	protected void adaptPopulationSize()
+	{
+		//diversity as the coefficient of variation of the fitnesses
+		double mean=0,variance=0;
+		for(int i=0;i<solutioncount;i++)
+		{
+			mean+=fitness[i][1];
+		}
+		mean/=solutioncount;
+		for(int i=0;i<solutioncount;i++)
+		{
+			variance+=(fitness[i][1]-mean)*(fitness[i][1]-mean);
+		}
+		double diversity=Math.sqrt(variance/solutioncount)/mean;
+		
+		if(diversity<lowDiversity&&solutioncount<maxSolutionCount)
+		{
+			//add mutated copies of the best solution
+			int count=Math.min(2,maxSolutionCount-solutioncount);
+			fitness=Arrays.copyOf(fitness,solutioncount+count);
+			for(int k=0;k<count;k++)
+			{
+				newsol=mutateSolution(bestSoln);
+				checkNewSol();
+				Population.add(newsol);
+				fitness[solutioncount]=new double[]{solutioncount,checkFitness(newsol)};
+				solutioncount++;
+			}
+		}
+		else if(diversity>highDiversity&&solutioncount>minSolutionCount)
+		{
+			//drop the worst solution
+			int worst=0;
+			for(int i=1;i<solutioncount;i++)
+			{
+				if(fitness[i][1]>fitness[worst][1])
+				{
+					worst=i;
+				}
+			}
+			Population.remove(worst);
+			for(int i=worst;i<solutioncount-1;i++)
+			{
+				fitness[i][0]=i;
+				fitness[i][1]=fitness[i+1][1];
+			}
+			solutioncount--;
+			fitness=Arrays.copyOf(fitness,solutioncount);
+		}
+	}
+	
+	//to generate new solution by moving a random cloudlet to a random vm
+	protected ArrayList<ArrayList<Integer>> mutateSolution(ArrayList<ArrayList<Integer>> sol)
+	{
+		ArrayList<ArrayList<Integer>> newsol=new ArrayList<ArrayList<Integer>>();
+		for(int i=0;i<sol.size();i++)
+		{
+			newsol.add(new ArrayList<Integer>(sol.get(i)));
+		}
+		
+		int from=new Random().nextInt(newsol.size());
+		int to=new Random().nextInt(newsol.size());
+		if(from!=to&&newsol.get(from).size()>0)
+		{
+			int cloudlet=newsol.get(from).remove(new Random().nextInt(newsol.get(from).size()));
+			newsol.get(to).add(cloudlet);
+		}
+		return newsol;
+	}
+	
 	//to generate new solution by local pollination
 	
 	protected ArrayList localPollination(ArrayList<ArrayList<Integer>> sol1,ArrayList<ArrayList<Integer>> sol2)
@@ -820,6 +2064,9 @@ public class DatacenterBroker extends SimEntity {
 			}
 		}
 		
+		//vm execution times are found once and kept up to date for the rest of the repair
+		getVmExecutionTimes();
+		
 		//check the count of vms on which clouldlet is assigned and correct the solution
 		for(int i=0;i<getCloudletList().size();i++)
 		{
@@ -829,61 +2076,73 @@ public class DatacenterBroker extends SimEntity {
 			}
 		}
 		
+		//queue of vm finish times,so each unassigned cloudlet finds the least loaded vm in log time
+		VmLoadQueue queue=new VmLoadQueue(getVmsCreatedList().size());
+		for(int i=0;i<getVmsCreatedList().size();i++)
+		{
+			queue.insert(i,vmTimes[i][1]);
+		}
+		
 		//check the count of vms on which clouldlet is assigned and correct the solution
 		for(int i=0;i<getCloudletList().size();i++)
 		{
 			if(cloudletAssign.get(i).size()==0)
 			{
-				AssignUnassignedCloudlet(i);
+				AssignUnassignedCloudlet(i,queue);
 			}
 		}
 	
 	}
 
 	//to assign unassigned cloudlets
-    protected void AssignUnassignedCloudlet(int i)
+    protected void AssignUnassignedCloudlet(int i,VmLoadQueue queue)
     {
-    	getVmExecutionTimes();
-    	vmTimesSort(vmTimes);
+    	long cloudletlength=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),i).getCloudletLength());
     	
-    	//assign the cloudlet to the vm which has least execution time and is not overflowed
-    	for(int j=0;j<getVmsCreatedList().size();j++)
+    	//assign the cloudlet to the vm which has least execution time and is not overflowed,
+    	//the least loaded vm is below its balanced share so it normally has room
+    	int vmno=queue.minVm();
+    	double vmmips=runtimeModel.getEffectiveMips(getVmsCreatedList().get(vmno));
+    	if(queue.minTime()*vmmips+cloudletlength>vmCapacity[vmno])
     	{
-    		if(newsol.get((int) vmTimes[j][0]).size()<avg)
+    		//every vm is full,so put the cloudlet where it finishes first instead of dropping it
+    		double bestfinish=Double.MAX_VALUE;
+    		for(int j=0;j<getVmsCreatedList().size();j++)
     		{
-    			newsol.get((int)vmTimes[j][0]).add(i);
-    			break;
+    			double finish=queue.timeOf(j)+cloudletlength/runtimeModel.getEffectiveMips(getVmsCreatedList().get(j));
+    			if(finish<bestfinish)
+    			{
+    				bestfinish=finish;
+    				vmno=j;
+    			}
     		}
+    		vmmips=runtimeModel.getEffectiveMips(getVmsCreatedList().get(vmno));
     	}
+    	newsol.get(vmno).add(i);
+    	queue.changeTime(vmno,queue.timeOf(vmno)+cloudletlength/vmmips);
     }
     
     //to delete multiple assigned cloudlets
     protected void deleteMultipleAssignedCloudlet(int i,List<Integer> ls)
     {
-    	getVmExecutionTimes();
-    	 	
     	//if 1st vm has more exec time than 2nd,remove from 1st one
+    	//if 2nd vm has more exec time,remove from 2nd one
+    	int vmno=ls.get(1);
     	if((vmTimes[ls.get(0)][1]>=vmTimes[ls.get(1)][1]))
     	{
-    		for(int j=0;j<newsol.get(ls.get(0)).size();j++)
-    		{
-    			if(newsol.get(ls.get(0)).get(j)==i)
-    			{
-    				newsol.get(ls.get(0)).remove(j);
-    			}
-    		}
+    		vmno=ls.get(0);
     	}
-    	//if 2nd vm has more exec time,remove from 2nd one
-    	else if((vmTimes[ls.get(0)][1]<=vmTimes[ls.get(1)][1]))
+    	for(int j=0;j<newsol.get(vmno).size();j++)
     	{
-    		for(int j=0;j<newsol.get(ls.get(1)).size();j++)
+    		if(newsol.get(vmno).get(j)==i)
     		{
-    			if(newsol.get(ls.get(1)).get(j)==i)
-    			{
-    				newsol.get(ls.get(1)).remove(j);
-    			}
+    			newsol.get(vmno).remove(j);
     		}
     	}
+    	
+    	//keep the exec time of the vm in step with the removal
+    	long cloudletlength=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),i).getCloudletLength());
+    	vmTimes[vmno][1]-=cloudletlength/runtimeModel.getEffectiveMips(getVmsCreatedList().get(vmno));
     }
     
     //to get vm execution time for each vm of new solution
@@ -894,14 +2153,14 @@ public class DatacenterBroker extends SimEntity {
     	
     	for(int i=0;i<getVmsCreatedList().size();i++)
 		{
-			//get a vm object to find its mips.
+			//get a vm object to find its mips,as the returned cloudlets showed it runs
 			Vm vm=getVmsCreatedList().get(i);
-			double vmmips=vm.getMips();
+			double vmmips=runtimeModel.getEffectiveMips(vm);
 			totalcloudletlength=0;
 			for(int j=0;j<newsol.get(i).size();j++)
 			{
 				//add all the cloudletlengths for a particular vm
-				totalcloudletlength+=CloudletList.getById(getCloudletList(),newsol.get(i).get(j)).getCloudletLength();
+				totalcloudletlength+=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),newsol.get(i).get(j)).getCloudletLength());
 			}
 			double duration=(double)totalcloudletlength/(double)vmmips;
 			vmTimes[i][0]=i;
@@ -910,31 +2169,6 @@ public class DatacenterBroker extends SimEntity {
     }
 
 	
-	//to sort the vmexec times of vms of a new solution
-	protected void vmTimesSort(double[][] arr)
-	{
-		int rows=arr.length;
-		
-		double temp,temp1;
-	    int k=0,i=0;
-	    for(k=0;k<rows-1;k++)
-		 {
-	        for(i=0;i<rows-k-1;i++) 
-			{
-	            if(arr[i][1]>arr[i+1][1] )
-				{
-	                temp=arr[i][1];
-	                arr[i][1]=arr[i+1][1];
-	                arr[i+1][1]=temp;
-	                
-	                temp1=arr[i][0];
-	                arr[i][0] = arr[i+1][0];
-	                arr[i+1][0]=temp1;
-	            }
-	        }
-	    }
-	}
-	
 	/**
 	 * Destroy the virtual machines running in datacenters.
 	 * 
@@ -977,6 +2211,11 @@ public class DatacenterBroker extends SimEntity {
 	public void startEntity() {
 		Log.printLine(getName() + " is starting...");
 		schedule(getId(), 0, CloudSimTags.RESOURCE_CHARACTERISTICS_REQUEST);
+		for (int i = 0; i < futureArrivals.size(); i++) {
+			schedule(getId(), futureArrivalTimes.get(i), CLOUDLET_ARRIVAL, futureArrivals.get(i));
+		}
+		futureArrivals.clear();
+		futureArrivalTimes.clear();
 	}
 
 	/**
@@ -1218,4 +2457,367 @@ public class DatacenterBroker extends SimEntity {
 		this.datacenterRequestedIdsList = datacenterRequestedIdsList;
 	}
 
+	/**
+	 * Gets the scheduling engine.
+	 * 
+	 * @return the scheduling engine, null if flower pollination is used
+	 */
+	public SchedulingEngine getSchedulingEngine() {
+		return schedulingEngine;
+	}
+
+	/**
+	 * Sets the scheduling engine used instead of flower pollination.
+	 * 
+	 * @param schedulingEngine the scheduling engine, null for flower pollination
+	 */
+	public void setSchedulingEngine(SchedulingEngine schedulingEngine) {
+		this.schedulingEngine = schedulingEngine;
+	}
+
+	/**
+	 * Tells whether instances small enough are solved exactly when no engine is set.
+	 * 
+	 * @return true if exact mode is on
+	 */
+	public boolean isExactMode() {
+		return exactMode;
+	}
+
+	/**
+	 * Sets whether instances small enough are solved exactly by branch and bound when no engine
+	 * is set, instead of by flower pollination.
+	 * 
+	 * @param exactMode true to turn exact mode on
+	 */
+	public void setExactMode(boolean exactMode) {
+		this.exactMode = exactMode;
+	}
+
+	/**
+	 * Tells whether the scheduling engine runs without the initial population.
+	 * 
+	 * @return true if standalone mode is on
+	 */
+	public boolean isStandaloneMode() {
+		return standaloneMode;
+	}
+
+	/**
+	 * Sets whether the scheduling engine runs without the initial population, starting from
+	 * round robin. Constructive engines such as MultifitEngine then schedule large batches
+	 * without the cost of creating and evaluating the population.
+	 * 
+	 * @param standaloneMode true to turn standalone mode on
+	 */
+	public void setStandaloneMode(boolean standaloneMode) {
+		this.standaloneMode = standaloneMode;
+	}
+
+	/**
+	 * Gets the dependencies between the cloudlets.
+	 * 
+	 * @return the cloudlet dag, null if the cloudlets are independent
+	 */
+	public CloudletDag getCloudletDag() {
+		return cloudletDag;
+	}
+
+	/**
+	 * Sets the dependencies between the cloudlets.
+	 * 
+	 * @param cloudletDag the cloudlet dag, null if the cloudlets are independent
+	 */
+	public void setCloudletDag(CloudletDag cloudletDag) {
+		this.cloudletDag = cloudletDag;
+	}
+
+	/**
+	 * Tells whether flower pollination hands its population over to the genetic algorithm when
+	 * it stops improving.
+	 * 
+	 * @return true if hybrid mode is on
+	 */
+	public boolean isHybridMode() {
+		return hybridMode;
+	}
+
+	/**
+	 * Sets whether flower pollination hands its population over to the genetic algorithm when
+	 * the best fitness improves by less than a fraction over a window of cycles. Pollination
+	 * explores first, then crossover and mutation exploit the same population for the rest of
+	 * the cycles.
+	 * 
+	 * @param hybridMode true to turn hybrid mode on
+	 */
+	public void setHybridMode(boolean hybridMode) {
+		this.hybridMode = hybridMode;
+	}
+
+	/**
+	 * Tells whether the schedule is searched while the vms are being created.
+	 * 
+	 * @return true if early start is on
+	 */
+	public boolean isEarlyStart() {
+		return earlyStart;
+	}
+
+	/**
+	 * Sets whether the schedule is searched while the vms are being created. Once the
+	 * characteristics of all datacenters are in, the engine, or the genetic algorithm in place
+	 * of flower pollination, schedules the cloudlets on the requested vms on a background
+	 * thread, so the search overlaps the vm creation handshakes. The schedule is then taken
+	 * onto the vms that were created, the cloudlets of the vms that failed going where they
+	 * finish first.
+	 * 
+	 * @param earlyStart true to turn early start on
+	 */
+	public void setEarlyStart(boolean earlyStart) {
+		this.earlyStart = earlyStart;
+	}
+
+	/**
+	 * Gets the cache of the schedules of past batches.
+	 * 
+	 * @return the schedule cache, null if every batch is optimised
+	 */
+	public ScheduleCache getScheduleCache() {
+		return scheduleCache;
+	}
+
+	/**
+	 * Sets the cache of the schedules of past batches. A batch with the same cloudlet lengths
+	 * and vm mips as one scheduled before, with the same engine and settings as its toString
+	 * describes them and the same modes, is submitted with the kept schedule at once; any other
+	 * batch is optimised and its schedule kept. Workflows are not cached.
+	 * 
+	 * @param scheduleCache the schedule cache, null to optimise every batch
+	 */
+	public void setScheduleCache(ScheduleCache scheduleCache) {
+		this.scheduleCache = scheduleCache;
+	}
+
+	/**
+	 * Gets the library of the best schedules of past batches.
+	 * 
+	 * @return the elite library, null if the population is not seeded
+	 */
+	public EliteLibrary getEliteLibrary() {
+		return eliteLibrary;
+	}
+
+	/**
+	 * Sets the library of the best schedules of past batches. The initial population has up
+	 * to half its solutions replaced by the elites of the past batches closest to this one,
+	 * mapped onto its cloudlets and vms, and the best schedules found are added to the library.
+	 * Workflows are not seeded.
+	 * 
+	 * @param eliteLibrary the elite library, null not to seed the population
+	 */
+	public void setEliteLibrary(EliteLibrary eliteLibrary) {
+		this.eliteLibrary = eliteLibrary;
+	}
+
+	/**
+	 * Gets the runtimes learned from the returned cloudlets.
+	 * 
+	 * @return the runtime model
+	 */
+	public RuntimeModel getRuntimeModel() {
+		return runtimeModel;
+	}
+
+	/**
+	 * Sets the runtimes learned from the returned cloudlets. The fitness takes the runtime of
+	 * a cloudlet on a vm from the model, so a model carried over from an earlier simulation,
+	 * or kept across the rounds of this one, schedules against the runtimes actually seen.
+	 * 
+	 * @param runtimeModel the runtime model
+	 */
+	public void setRuntimeModel(RuntimeModel runtimeModel) {
+		this.runtimeModel = runtimeModel;
+	}
+
+	/**
+	 * Tells whether the vms that drain early take waiting cloudlets from the others.
+	 * 
+	 * @return true if runtime rebalancing is on
+	 */
+	public boolean isRuntimeRebalancing() {
+		return runtimeRebalancing;
+	}
+
+	/**
+	 * Sets whether the vms that drain early take waiting cloudlets from the others. The
+	 * runtimes the schedule was made with drift from the actual ones, so some vms finish their
+	 * queue while others still have cloudlets waiting. When a cloudlet returns, each vm that is
+	 * idle or about to be takes the cloudlet at the tail of the vm finishing last, cancelled and
+	 * submitted again, as long as that vm then finishes earlier.
+	 * 
+	 * @param runtimeRebalancing true to turn runtime rebalancing on
+	 */
+	public void setRuntimeRebalancing(boolean runtimeRebalancing) {
+		this.runtimeRebalancing = runtimeRebalancing;
+	}
+
+	/**
+	 * Gets the time before a vm finishes its queue from which it counts as idle.
+	 * 
+	 * @return the idle time in simulation time
+	 */
+	public double getIdleTime() {
+		return idleTime;
+	}
+
+	/**
+	 * Sets the time before a vm finishes its queue from which it counts as idle, so that it
+	 * takes cloudlets before it runs dry.
+	 * 
+	 * @param idleTime the idle time in simulation time, 0 for vms with nothing left
+	 */
+	public void setIdleTime(double idleTime) {
+		this.idleTime = idleTime;
+	}
+
+	/**
+	 * Gets the engine improving the schedule of the cloudlets arriving during the simulation.
+	 * 
+	 * @return the online engine, null if the arrivals keep their earliest finish schedule
+	 */
+	public SchedulingEngine getOnlineEngine() {
+		return onlineEngine;
+	}
+
+	/**
+	 * Sets the engine improving the schedule of the cloudlets arriving during the simulation.
+	 * It is given a {@link BacklogSchedulingProblem} of the arrivals and starts from the
+	 * schedule putting each arrival where it finishes first after the backlog of the vms.
+	 * 
+	 * @param onlineEngine the online engine, null to keep the earliest finish schedule
+	 */
+	public void setOnlineEngine(SchedulingEngine onlineEngine) {
+		this.onlineEngine = onlineEngine;
+	}
+
+	/**
+	 * Gets the time after which the vms that failed creation are tried again.
+	 * 
+	 * @return the retry delay in simulation time, 0 if they are not tried again
+	 */
+	public double getVmRetryDelay() {
+		return vmRetryDelay;
+	}
+
+	/**
+	 * Sets the time after which the vms that failed creation are tried again. The population
+	 * is scheduled on the vms that were created; when more come up, the cloudlets still waiting
+	 * in the queues of the others are moved to them where they finish earlier.
+	 * 
+	 * @param vmRetryDelay the retry delay in simulation time, 0 not to try them again
+	 */
+	public void setVmRetryDelay(double vmRetryDelay) {
+		this.vmRetryDelay = vmRetryDelay;
+	}
+
+	/**
+	 * Gets how many times the vms that failed creation are tried again.
+	 * 
+	 * @return the most retries
+	 */
+	public int getMaxVmRetries() {
+		return maxVmRetries;
+	}
+
+	/**
+	 * Sets how many times the vms that failed creation are tried again.
+	 * 
+	 * @param maxVmRetries the most retries
+	 */
+	public void setMaxVmRetries(int maxVmRetries) {
+		this.maxVmRetries = maxVmRetries;
+	}
+
+	/**
+	 * Gets the most arrivals buffered in a window.
+	 * 
+	 * @return the window size, 0 for no bound
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Sets the most arrivals buffered in a window. With a window size or length the cloudlets
+	 * arriving during the simulation are buffered and each window is scheduled at once by the
+	 * window engine, starting from the population the window before started from, with the
+	 * schedule of that window as its first solution, remapped onto its cloudlets. Only the best
+	 * schedule of a window carries over, not the rest of the population the engine evolved.
+	 * Without either every arrival is scheduled on its own by the online engine.
+	 * 
+	 * @param windowSize the window size, 0 for no bound
+	 */
+	public void setWindowSize(int windowSize) {
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Gets the longest time a window stays open after its first arrival.
+	 * 
+	 * @return the window length in simulation time, 0 for no bound
+	 */
+	public double getWindowLength() {
+		return windowLength;
+	}
+
+	/**
+	 * Sets the longest time a window stays open after its first arrival, which bounds how long
+	 * a cloudlet waits to be scheduled.
+	 * 
+	 * @param windowLength the window length in simulation time, 0 for no bound
+	 */
+	public void setWindowLength(double windowLength) {
+		this.windowLength = windowLength;
+	}
+
+	/**
+	 * Gets the engine scheduling each window of arrivals.
+	 * 
+	 * @return the window engine
+	 */
+	public PopulationSchedulingEngine getWindowEngine() {
+		return windowEngine;
+	}
+
+	/**
+	 * Sets the engine scheduling each window of arrivals.
+	 * 
+	 * @param windowEngine the window engine
+	 */
+	public void setWindowEngine(PopulationSchedulingEngine windowEngine) {
+		this.windowEngine = windowEngine;
+	}
+
+	/**
+	 * Gets the policy of the bandit choosing the operator of each new solution.
+	 * 
+	 * @return the policy, null if pollination switches between local and global by the switch
+	 *         probability
+	 */
+	public OperatorBandit.Policy getOperatorPolicy() {
+		return operatorPolicy;
+	}
+
+	/**
+	 * Sets the policy of the bandit choosing the operator of each new solution. The bandit
+	 * chooses among local and global pollination, crossover, swap mutation and a local search
+	 * move off the most loaded vm, by the improvement each made per millisecond so far.
+	 * 
+	 * @param operatorPolicy the policy, null to switch between local and global pollination by
+	 *            the switch probability
+	 */
+	public void setOperatorPolicy(OperatorBandit.Policy operatorPolicy) {
+		this.operatorPolicy = operatorPolicy;
+	}
+
 }
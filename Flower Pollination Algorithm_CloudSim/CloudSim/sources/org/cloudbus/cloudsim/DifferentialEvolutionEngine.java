@@ -0,0 +1,302 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * DifferentialEvolutionEngine schedules cloudlets by discrete differential evolution. For
+ * every assignment of the population a mutant is made from a base assignment plus the scaled
+ * difference of two others, with vm indexes taken modulo the number of vms, and a trial is
+ * crossed over from the assignment and the mutant. The trial replaces the assignment if it is
+ * at least as good. Trials only read the population of the previous generation, so they are
+ * made and evaluated in parallel.
+ */
+public class DifferentialEvolutionEngine extends PopulationSchedulingEngine {
+
+	/** The ways a mutant is made. */
+	public enum Strategy {
+		/** A random base assignment plus the difference of two other random assignments. */
+		RAND_1_BIN,
+		/** The best assignment plus the difference of two random assignments. */
+		BEST_1_BIN
+	}
+
+	/** The number of generations. */
+	private int generations;
+
+	/** The scale of the difference. */
+	private double scale;
+
+	/** The probability of a cloudlet taking its vm from the mutant. */
+	private double crossover;
+
+	/** The mutation strategy. */
+	private Strategy strategy;
+
+	/** The number of threads making trials. */
+	private int threads;
+
+	/**
+	 * Creates a new engine using rand/1/bin.
+	 */
+	public DifferentialEvolutionEngine() {
+		this(200, Strategy.RAND_1_BIN);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param generations the number of generations
+	 * @param strategy the mutation strategy
+	 * @pre generations > 0
+	 */
+	public DifferentialEvolutionEngine(int generations, Strategy strategy) {
+		setGenerations(generations);
+		setStrategy(strategy);
+		setScale(0.5);
+		setCrossover(0.2);
+		setThreads(Runtime.getRuntime().availableProcessors());
+	}
+
+	@Override
+	public int[] schedule(final SchedulingProblem problem, int[][] initial) {
+		final int size = initial.length;
+		if (size < 4 || problem.getCloudletCount() == 0) {
+			return initial[0].clone();
+		}
+
+		// trials replace the rows of a copy, the population given is left as it is
+		final int[][] population = initial.clone();
+		final double[] fitness = new double[size];
+		double[] times = new double[problem.getVmCount()];
+		for (int i = 0; i < size; i++) {
+			fitness[i] = makespan(problem, population[i], times);
+		}
+		double initialFitness = min(fitness);
+
+		final int[][] trials = new int[size][];
+		final double[] trialFitness = new double[size];
+		int chunks = Math.max(1, Math.min(threads, size));
+		ExecutorService executor = chunks > 1 ? Executors.newFixedThreadPool(chunks) : null;
+		long start = System.currentTimeMillis();
+		long made = 0;
+		try {
+			for (int generation = 0; generation < generations && !problem.isStopped(); generation++) {
+				final int best = bestIndex(fitness);
+				List<Future<Object>> results = new ArrayList<Future<Object>>();
+				for (int chunk = 0; chunk < chunks; chunk++) {
+					final int from = chunk * size / chunks;
+					final int to = (chunk + 1) * size / chunks;
+					final Random chunkRandom = new Random(random.nextLong());
+					if (executor == null) {
+						makeTrials(problem, population, from, to, best, trials, trialFitness, chunkRandom);
+					} else {
+						results.add(executor.submit(new Callable<Object>() {
+
+							@Override
+							public Object call() {
+								makeTrials(problem, population, from, to, best, trials, trialFitness, chunkRandom);
+								return null;
+							}
+						}));
+					}
+				}
+				for (Future<Object> result : results) {
+					result.get();
+				}
+
+				// greedy one to one replacement
+				for (int i = 0; i < size; i++) {
+					if (trialFitness[i] <= fitness[i]) {
+						population[i] = trials[i];
+						fitness[i] = trialFitness[i];
+					}
+				}
+				problem.publish(population[bestIndex(fitness)], min(fitness));
+				made += size;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
+
+		long elapsed = Math.max(1, System.currentTimeMillis() - start);
+		Log.printLine("Differential evolution: makespan " + initialFitness + " -> " + min(fitness) + ", "
+				+ made * 1000 / elapsed + " trials/s on " + chunks + " thread(s)");
+		return population[bestIndex(fitness)].clone();
+	}
+
+	/**
+	 * Makes and evaluates the trials of the assignments from one index to another.
+	 */
+	private void makeTrials(SchedulingProblem problem, int[][] population, int from, int to, int best,
+			int[][] trials, double[] trialFitness, Random chunkRandom) {
+		int size = population.length;
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		double[] times = new double[vms];
+		for (int i = from; i < to; i++) {
+			// three distinct assignments other than i
+			int r1;
+			int r2;
+			int r3;
+			do {
+				r1 = chunkRandom.nextInt(size);
+			} while (r1 == i);
+			do {
+				r2 = chunkRandom.nextInt(size);
+			} while (r2 == i || r2 == r1);
+			do {
+				r3 = chunkRandom.nextInt(size);
+			} while (r3 == i || r3 == r1 || r3 == r2);
+			int[] base = strategy == Strategy.BEST_1_BIN ? population[best] : population[r1];
+
+			int[] trial = population[i].clone();
+			int forced = chunkRandom.nextInt(cloudlets);
+			for (int c = 0; c < cloudlets; c++) {
+				if (c == forced || chunkRandom.nextDouble() < crossover) {
+					int mutant = (int) Math.round(base[c] + scale * (population[r2][c] - population[r3][c]));
+					trial[c] = ((mutant % vms) + vms) % vms;
+				}
+			}
+			trials[i] = trial;
+			trialFitness[i] = makespan(problem, trial, times);
+		}
+	}
+
+	private static int bestIndex(double[] fitness) {
+		int best = 0;
+		for (int i = 1; i < fitness.length; i++) {
+			if (fitness[i] < fitness[best]) {
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	private static double min(double[] fitness) {
+		return fitness[bestIndex(fitness)];
+	}
+
+	/**
+	 * Gets the number of generations.
+	 *
+	 * @return the generations
+	 */
+	public int getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * Sets the number of generations.
+	 *
+	 * @param generations the generations
+	 */
+	public void setGenerations(int generations) {
+		this.generations = generations;
+	}
+
+	/**
+	 * Gets the scale of the difference.
+	 *
+	 * @return the scale
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Sets the scale of the difference.
+	 *
+	 * @param scale the scale
+	 */
+	public void setScale(double scale) {
+		this.scale = scale;
+	}
+
+	/**
+	 * Gets the probability of a cloudlet taking its vm from the mutant.
+	 *
+	 * @return the crossover probability
+	 */
+	public double getCrossover() {
+		return crossover;
+	}
+
+	/**
+	 * Sets the probability of a cloudlet taking its vm from the mutant.
+	 *
+	 * @param crossover the crossover probability
+	 */
+	public void setCrossover(double crossover) {
+		this.crossover = crossover;
+	}
+
+	/**
+	 * Gets the mutation strategy.
+	 *
+	 * @return the strategy
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Sets the mutation strategy.
+	 *
+	 * @param strategy the strategy
+	 */
+	public void setStrategy(Strategy strategy) {
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Gets the number of threads making trials.
+	 *
+	 * @return the threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of threads making trials.
+	 *
+	 * @param threads the threads
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[generations=" + generations + ", scale=" + scale + ", crossover=" + crossover
+				+ ", strategy=" + strategy + ", populationSize=" + getPopulationSize() + "]";
+	}
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * EliteLibrary keeps the best schedules of past batches on disk, so that a new batch close to
+ * a past one starts its search from the schedules found for that one. A batch is described by
+ * a feature vector: the histogram of its cloudlet lengths and the histogram of its vm mips,
+ * both relative to their mean on a log scale, the number of cloudlets per vm and the number
+ * of vms. The batches nearest to a new one, within a distance, give their elites.
+ * <p>
+ * An elite is kept as the vm rank of each cloudlet rank, cloudlets ranked by length and vms
+ * by mips. It is mapped onto a new batch by relative rank: the cloudlet at some fraction of
+ * the new ranking takes the vm at the same fraction of the new vm ranking as the cloudlet at
+ * that fraction of the old ranking had, so long cloudlets stay on fast vms whatever the sizes.
+ * <p>
+ * The library holds a bounded number of batches, dropping the oldest, and is a single text
+ * file rewritten after every batch added. The nearest batches are found by a scan, which at
+ * the size of the library costs less than the search it seeds.
+ */
+public class EliteLibrary {
+
+	/** The number of buckets of the length histogram. */
+	private static final int LENGTH_BUCKETS = 16;
+
+	/** The number of buckets of the mips histogram. */
+	private static final int MIPS_BUCKETS = 8;
+
+	/** The file of the library. */
+	private final File file;
+
+	/** The batches, oldest first. */
+	private final List<Entry> entries;
+
+	/** The most batches kept. */
+	private int maxEntries;
+
+	/** The largest feature distance of a batch close enough to seed another. */
+	private double maxDistance;
+
+	/**
+	 * A past batch and its elites.
+	 */
+	private static class Entry {
+
+		/** The feature vector. */
+		final double[] features;
+
+		/** The number of vms. */
+		final int vms;
+
+		/** The vm rank of each cloudlet rank of each elite. */
+		final List<int[]> elites;
+
+		Entry(double[] features, int vms, List<int[]> elites) {
+			this.features = features;
+			this.vms = vms;
+			this.elites = elites;
+		}
+
+	}
+
+	/**
+	 * Creates a library of at most 100 batches, loading it from its file if there is one.
+	 *
+	 * @param fileName the file of the library
+	 */
+	public EliteLibrary(String fileName) {
+		file = new File(fileName);
+		entries = new ArrayList<Entry>();
+		setMaxEntries(100);
+		setMaxDistance(0.5);
+		load();
+	}
+
+	/**
+	 * Adds the elites of a batch to the library and saves it.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @param mips the mips of each vm
+	 * @param elites the vm of each cloudlet of each elite, best first
+	 */
+	public void add(long[] lengths, double[] mips, List<int[]> elites) {
+		if (lengths.length == 0 || elites.isEmpty()) {
+			return;
+		}
+		int[] cloudletOrder = ScheduleUtil.increasingOrder(lengths);
+		int[] vmOrder = ScheduleUtil.increasingOrder(mips);
+		int[] vmRanks = new int[mips.length];
+		for (int r = 0; r < vmOrder.length; r++) {
+			vmRanks[vmOrder[r]] = r;
+		}
+		List<int[]> ranked = new ArrayList<int[]>();
+		for (int[] assign : elites) {
+			int[] elite = new int[lengths.length];
+			for (int r = 0; r < cloudletOrder.length; r++) {
+				elite[r] = vmRanks[assign[cloudletOrder[r]]];
+			}
+			ranked.add(elite);
+		}
+		entries.add(new Entry(getFeatures(lengths, mips), mips.length, ranked));
+		while (entries.size() > maxEntries) {
+			entries.remove(0);
+		}
+		save();
+	}
+
+	/**
+	 * Gets the elites of the batches nearest to a batch, mapped onto it.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @param mips the mips of each vm
+	 * @param count the most elites
+	 * @return the vm of each cloudlet of each elite, those of the nearest batch first
+	 */
+	public List<int[]> getNearest(long[] lengths, double[] mips, int count) {
+		List<int[]> nearest = new ArrayList<int[]>();
+		if (lengths.length == 0 || mips.length == 0) {
+			return nearest;
+		}
+		final double[] features = getFeatures(lengths, mips);
+		List<Entry> close = new ArrayList<Entry>();
+		for (Entry entry : entries) {
+			if (distance(features, entry.features) <= maxDistance) {
+				close.add(entry);
+			}
+		}
+		Collections.sort(close, new Comparator<Entry>() {
+
+			@Override
+			public int compare(Entry a, Entry b) {
+				return Double.compare(distance(features, a.features), distance(features, b.features));
+			}
+		});
+
+		int[] cloudletOrder = ScheduleUtil.increasingOrder(lengths);
+		int[] vmOrder = ScheduleUtil.increasingOrder(mips);
+		for (Entry entry : close) {
+			for (int[] elite : entry.elites) {
+				if (nearest.size() >= count) {
+					return nearest;
+				}
+				int[] assign = new int[lengths.length];
+				for (int r = 0; r < cloudletOrder.length; r++) {
+					int vmRank = elite[(int) ((long) r * elite.length / cloudletOrder.length)];
+					assign[cloudletOrder[r]] = vmOrder[(int) ((long) vmRank * mips.length / entry.vms)];
+				}
+				nearest.add(assign);
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Gets the feature vector of a batch.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @param mips the mips of each vm
+	 * @return the features
+	 */
+	public double[] getFeatures(long[] lengths, double[] mips) {
+		double[] features = new double[LENGTH_BUCKETS + MIPS_BUCKETS + 2];
+		histogram(toDoubles(lengths), features, 0, LENGTH_BUCKETS, 4);
+		histogram(mips, features, LENGTH_BUCKETS, MIPS_BUCKETS, 2);
+		features[LENGTH_BUCKETS + MIPS_BUCKETS] = log2((double) lengths.length / mips.length) / 4;
+		features[LENGTH_BUCKETS + MIPS_BUCKETS + 1] = log2(mips.length) / 8;
+		return features;
+	}
+
+	/**
+	 * Fills a histogram of values relative to their mean, of buckets of half an octave from
+	 * the given octaves below the mean to as many above, the values outside in the end ones.
+	 */
+	private static void histogram(double[] values, double[] features, int offset, int buckets, int octaves) {
+		double mean = 0;
+		for (double value : values) {
+			mean += value;
+		}
+		mean /= values.length;
+		for (double value : values) {
+			int bucket = (int) Math.floor((log2(Math.max(value, 1e-9) / mean) + octaves) * 2);
+			features[offset + Math.max(0, Math.min(buckets - 1, bucket))] += 1.0 / values.length;
+		}
+	}
+
+	private static double log2(double value) {
+		return Math.log(value) / Math.log(2);
+	}
+
+	private static double distance(double[] a, double[] b) {
+		double sum = 0;
+		for (int k = 0; k < a.length; k++) {
+			sum += (a[k] - b[k]) * (a[k] - b[k]);
+		}
+		return Math.sqrt(sum);
+	}
+
+	private static double[] toDoubles(long[] values) {
+		double[] doubles = new double[values.length];
+		for (int k = 0; k < values.length; k++) {
+			doubles[k] = values[k];
+		}
+		return doubles;
+	}
+
+	/**
+	 * Loads the library from its file, if there is one.
+	 */
+	protected void load() {
+		if (!file.isFile()) {
+			return;
+		}
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new FileReader(file));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] header = line.trim().split(" ");
+				if (!header[0].equals("ENTRY")) {
+					continue;
+				}
+				int vms = Integer.parseInt(header[1]);
+				int count = Integer.parseInt(header[2]);
+				double[] features = parseDoubles(reader.readLine());
+				List<int[]> elites = new ArrayList<int[]>();
+				for (int i = 0; i < count; i++) {
+					elites.add(parseInts(reader.readLine()));
+				}
+				entries.add(new Entry(features, vms, elites));
+			}
+		} catch (Exception e) {
+			Log.printLine("EliteLibrary: cannot read " + file + ": " + e);
+			entries.clear();
+		} finally {
+			ScheduleUtil.close(reader, "EliteLibrary");
+		}
+	}
+
+	/**
+	 * Saves the library to its file.
+	 */
+	protected void save() {
+		FileWriter writer = null;
+		try {
+			writer = new FileWriter(file);
+			for (Entry entry : entries) {
+				writer.write("ENTRY " + entry.vms + " " + entry.elites.size() + "\n");
+				StringBuilder builder = new StringBuilder();
+				for (int k = 0; k < entry.features.length; k++) {
+					builder.append(k == 0 ? "" : " ").append(entry.features[k]);
+				}
+				writer.write(builder.append('\n').toString());
+				for (int[] elite : entry.elites) {
+					builder.setLength(0);
+					for (int r = 0; r < elite.length; r++) {
+						builder.append(r == 0 ? "" : " ").append(elite[r]);
+					}
+					writer.write(builder.append('\n').toString());
+				}
+			}
+		} catch (IOException e) {
+			Log.printLine("EliteLibrary: cannot write " + file + ": " + e);
+		} finally {
+			ScheduleUtil.close(writer, "EliteLibrary");
+		}
+	}
+
+	private static double[] parseDoubles(String line) {
+		String[] fields = line.trim().split(" ");
+		double[] values = new double[fields.length];
+		for (int k = 0; k < fields.length; k++) {
+			values[k] = Double.parseDouble(fields[k]);
+		}
+		return values;
+	}
+
+	private static int[] parseInts(String line) {
+		String[] fields = line.trim().split(" ");
+		int[] values = new int[fields.length];
+		for (int k = 0; k < fields.length; k++) {
+			values[k] = Integer.parseInt(fields[k]);
+		}
+		return values;
+	}
+
+	/**
+	 * Gets the number of batches in the library.
+	 *
+	 * @return the batch count
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the most batches kept.
+	 *
+	 * @return the most batches
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Sets the most batches kept, the oldest being dropped first.
+	 *
+	 * @param maxEntries the most batches
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Gets the largest feature distance of a batch close enough to seed another.
+	 *
+	 * @return the distance
+	 */
+	public double getMaxDistance() {
+		return maxDistance;
+	}
+
+	/**
+	 * Sets the largest feature distance of a batch close enough to seed another. The histogram
+	 * features are fractions of the cloudlets or vms, so a distance of 0.5 allows about a
+	 * third of them to fall in other buckets.
+	 *
+	 * @param maxDistance the distance
+	 */
+	public void setMaxDistance(double maxDistance) {
+		this.maxDistance = maxDistance;
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * GeneticEngine is the genetic algorithm of DatacenterBroker1 on assignment arrays. Every pair
+ * of solutions has two children by one point crossover over the vms: a child takes the
+ * cloudlets of the vms up to a random vm from one parent and those of the other vms from the
+ * other parent. A cloudlet the child gets twice stays with the first parent and a cloudlet it
+ * does not get goes to the vm where it finishes first. Half of the children then have two
+ * cloudlets swapped, and the best of parents and children survive. The generation is the one
+ * of {@link GeneticOperators#nextGeneration}, which the brokers run on their own solutions.
+ */
+public class GeneticEngine extends PopulationSchedulingEngine {
+
+	/** The number of generations. */
+	private int generations;
+
+	/**
+	 * Creates a new engine with the 40 generations of DatacenterBroker1.
+	 */
+	public GeneticEngine() {
+		this(40);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param generations the number of generations
+	 * @pre generations > 0
+	 */
+	public GeneticEngine(int generations) {
+		setGenerations(generations);
+	}
+
+	@Override
+	public int[] schedule(final SchedulingProblem problem, int[][] population) {
+		int size = population.length;
+		final int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		if (size < 2 || cloudlets == 0) {
+			return population[0].clone();
+		}
+		final double[] times = new double[vms];
+
+		// the generation of DatacenterBroker1, on assignment arrays
+		GeneticOperators.Breeder<int[]> breeder = new GeneticOperators.Breeder<int[]>() {
+
+			@Override
+			public int[] crossover(int[] first, int[] second, int point) {
+				return GeneticEngine.this.crossover(problem, first, second, point, times);
+			}
+
+			@Override
+			public void mutate(int[] child, Random random) {
+				int first = random.nextInt(cloudlets);
+				int second = random.nextInt(cloudlets);
+				int vm = child[first];
+				child[first] = child[second];
+				child[second] = vm;
+			}
+
+			@Override
+			public double getFitness(int[] solution) {
+				return makespan(problem, solution, times);
+			}
+		};
+		List<int[]> pool = new ArrayList<int[]>(Arrays.asList(population));
+		double[] fitness = new double[size];
+		for (int i = 0; i < size; i++) {
+			fitness[i] = breeder.getFitness(population[i]);
+		}
+		double initialFitness = min(fitness);
+
+		for (int generation = 0; generation < generations && !problem.isStopped(); generation++) {
+			GeneticOperators.nextGeneration(pool, fitness, vms, breeder, random);
+			problem.publish(pool.get(0), fitness[0]);
+		}
+
+		int best = 0;
+		for (int i = 1; i < size; i++) {
+			if (fitness[i] < fitness[best]) {
+				best = i;
+			}
+		}
+		Log.printLine("Genetic algorithm: makespan " + initialFitness + " -> " + fitness[best]);
+		return pool.get(best).clone();
+	}
+
+	/**
+	 * Makes a child by one point crossover over the vms and repairs it.
+	 */
+	private int[] crossover(SchedulingProblem problem, int[] first, int[] second, int point, double[] times) {
+		int cloudlets = first.length;
+		int[] child = new int[cloudlets];
+		Arrays.fill(times, 0);
+		for (int c = 0; c < cloudlets; c++) {
+			if (first[c] <= point) {
+				child[c] = first[c];
+			} else if (second[c] > point) {
+				child[c] = second[c];
+			} else {
+				child[c] = -1;
+				continue;
+			}
+			times[child[c]] += problem.getRuntime(c, child[c]);
+		}
+		for (int c = 0; c < cloudlets; c++) {
+			if (child[c] < 0) {
+				int bestVm = 0;
+				for (int vm = 1; vm < times.length; vm++) {
+					if (times[vm] + problem.getRuntime(c, vm) < times[bestVm] + problem.getRuntime(c, bestVm)) {
+						bestVm = vm;
+					}
+				}
+				child[c] = bestVm;
+				times[bestVm] += problem.getRuntime(c, bestVm);
+			}
+		}
+		return child;
+	}
+
+	private static double min(double[] fitness) {
+		double min = Double.MAX_VALUE;
+		for (double f : fitness) {
+			min = Math.min(min, f);
+		}
+		return min;
+	}
+
+	/**
+	 * Gets the number of generations.
+	 *
+	 * @return the generations
+	 */
+	public int getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * Sets the number of generations.
+	 *
+	 * @param generations the generations
+	 */
+	public void setGenerations(int generations) {
+		this.generations = generations;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[generations=" + generations + ", populationSize=" + getPopulationSize() + "]";
+	}
+
+}
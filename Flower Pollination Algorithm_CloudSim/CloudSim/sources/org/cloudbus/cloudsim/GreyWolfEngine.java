@@ -0,0 +1,150 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * GreyWolfEngine schedules cloudlets by a discrete grey wolf optimiser. The three best
+ * assignments found so far lead the pack as alpha, beta and delta. For every cloudlet a wolf
+ * looks at each leader and, when the leader's coefficient |A| = |2a*r-a| is below one, takes
+ * the leader's vm, otherwise it keeps its own; it then follows one of the three at random.
+ * As a goes down from 2 to 0 the pack moves from keeping its own vms to following the leaders.
+ * The run stops after a number of fitness evaluations, so it can be compared with the flower
+ * pollination of DatacenterBroker at the same budget.
+ */
+public class GreyWolfEngine extends PopulationSchedulingEngine {
+
+	/** The number of fitness evaluations. */
+	private int evaluations;
+
+	/**
+	 * Creates a new engine with the budget of the flower pollination of DatacenterBroker,
+	 * 100 cycles of 20 solutions.
+	 */
+	public GreyWolfEngine() {
+		this(100 * 20);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param evaluations the number of fitness evaluations
+	 * @pre evaluations > 0
+	 */
+	public GreyWolfEngine(int evaluations) {
+		setEvaluations(evaluations);
+	}
+
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[][] population) {
+		int wolves = population.length;
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		double[] times = new double[vms];
+
+		// the pack moves copies, the population is left as it is
+		int[][] pack = new int[wolves][];
+		double[] fitness = new double[wolves];
+		for (int w = 0; w < wolves; w++) {
+			pack[w] = population[w].clone();
+			fitness[w] = makespan(problem, pack[w], times);
+		}
+		int used = wolves;
+
+		// leaders are copies, so they keep their position while the pack moves
+		int[][] leaders = new int[3][];
+		double[] leaderFitness = { Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+		for (int w = 0; w < wolves; w++) {
+			updateLeaders(leaders, leaderFitness, pack[w], fitness[w]);
+		}
+		double initialFitness = leaderFitness[0];
+
+		int cycles = Math.max(1, (evaluations - used) / wolves);
+		for (int cycle = 0; cycle < cycles && used < evaluations && !problem.isStopped(); cycle++) {
+			double a = 2 - 2.0 * cycle / cycles;
+			for (int w = 0; w < wolves && used < evaluations; w++) {
+				int[] wolf = pack[w];
+				for (int c = 0; c < cloudlets; c++) {
+					int leader = random.nextInt(3);
+					double coefficient = 2 * a * random.nextDouble() - a;
+					if (Math.abs(coefficient) < 1) {
+						wolf[c] = leaders[leader][c];
+					} else if (random.nextInt(cloudlets) == 0) {
+						// a wolf far from its leader sometimes tries a random vm
+						wolf[c] = random.nextInt(vms);
+					}
+				}
+				fitness[w] = makespan(problem, wolf, times);
+				used++;
+				updateLeaders(leaders, leaderFitness, wolf, fitness[w]);
+			}
+			problem.publish(leaders[0], leaderFitness[0]);
+		}
+
+		Log.printLine("Grey wolf: makespan " + initialFitness + " -> " + leaderFitness[0] + " in "
+				+ used + " evaluations");
+		return leaders[0];
+	}
+
+	/**
+	 * Puts an assignment among the leaders if it is better than one of them.
+	 */
+	private void updateLeaders(int[][] leaders, double[] leaderFitness, int[] assign, double fitness) {
+		for (int i = 0; i < 3; i++) {
+			if (fitness < leaderFitness[i]) {
+				for (int j = 2; j > i; j--) {
+					leaders[j] = leaders[j - 1];
+					leaderFitness[j] = leaderFitness[j - 1];
+				}
+				leaders[i] = assign.clone();
+				leaderFitness[i] = fitness;
+				break;
+			}
+			if (fitness == leaderFitness[i]) {
+				// the same fitness again is most likely the same assignment
+				break;
+			}
+		}
+		// with fewer than three distinct wolves the missing leaders follow the alpha
+		for (int i = 1; i < 3; i++) {
+			if (leaders[i] == null) {
+				leaders[i] = leaders[0];
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of fitness evaluations.
+	 *
+	 * @return the evaluations
+	 */
+	public int getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Sets the number of fitness evaluations.
+	 *
+	 * @param evaluations the evaluations
+	 */
+	public void setEvaluations(int evaluations) {
+		this.evaluations = evaluations;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[evaluations=" + evaluations + ", populationSize=" + getPopulationSize() + "]";
+	}
+
+}
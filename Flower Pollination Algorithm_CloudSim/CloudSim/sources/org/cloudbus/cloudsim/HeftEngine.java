@@ -0,0 +1,82 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * HeftEngine schedules cloudlets by Heterogeneous Earliest Finish Time. Cloudlets are taken
+ * by decreasing upward rank, so that the critical path goes first, and each is put on the vm
+ * where it finishes first, after its vm is free and its predecessors have finished. A vm runs
+ * its cloudlets in the order they were given to it, as a space shared vm does with the
+ * cloudlets the broker releases to it; there is no insertion into idle gaps.
+ * <p>
+ * For a {@link WorkflowSchedulingProblem} the ranks and dependencies of the workflow are
+ * used. Independent cloudlets have their runtime as rank, which makes this the longest
+ * processing time first rule.
+ */
+public class HeftEngine implements SchedulingEngine {
+
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[] initial) {
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		WorkflowSchedulingProblem workflow = problem instanceof WorkflowSchedulingProblem
+				? (WorkflowSchedulingProblem) problem : null;
+		int[] order = workflow != null ? priorityOrder(workflow) : problem.getLongestFirst();
+
+		double[] ready = new double[vms];
+		double[] finish = new double[cloudlets];
+		int[] assign = new int[cloudlets];
+		for (int k = 0; k < cloudlets; k++) {
+			int c = order[k];
+			double dataReady = 0;
+			if (workflow != null) {
+				for (int p : workflow.getPredecessors(c)) {
+					dataReady = Math.max(dataReady, finish[p]);
+				}
+			}
+			int bestVm = 0;
+			double bestFinish = Double.MAX_VALUE;
+			for (int vm = 0; vm < vms; vm++) {
+				double end = Math.max(ready[vm], dataReady) + problem.getRuntime(c, vm);
+				if (end < bestFinish) {
+					bestFinish = end;
+					bestVm = vm;
+				}
+			}
+			assign[c] = bestVm;
+			finish[c] = bestFinish;
+			ready[bestVm] = bestFinish;
+		}
+
+		double initialMakespan = problem.getMakespan(initial);
+		double makespan = problem.getMakespan(assign);
+		Log.printLine("HEFT: makespan " + initialMakespan + " -> " + makespan);
+		return makespan <= initialMakespan ? assign : initial.clone();
+	}
+
+	private static int[] priorityOrder(WorkflowSchedulingProblem workflow) {
+		int[] order = new int[workflow.getCloudletCount()];
+		for (int k = 0; k < order.length; k++) {
+			order[k] = workflow.getPriorityCloudlet(k);
+		}
+		return order;
+	}
+
+
+	/**
+	 * Gets a description of the engine, which has no settings.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+}
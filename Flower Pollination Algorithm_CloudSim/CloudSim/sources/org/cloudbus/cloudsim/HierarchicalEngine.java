@@ -0,0 +1,356 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * HierarchicalEngine schedules in two levels, so that the search grows with the size of a
+ * datacenter instead of the size of the whole problem. The vms are grouped, a group for each
+ * datacenter. First the cloudlets are split between the groups, longest first, each to the
+ * group where it finishes first with the group taken as a single vm of the total mips of its
+ * vms. Then each group is scheduled on its own by an engine from {@link #createGroupEngine()},
+ * all groups at once on their own threads. Last a balancing pass moves cloudlets off the vm
+ * that finishes last to any vm, of any group, where the makespan drops, to undo what the
+ * coarse split got wrong.
+ * <p>
+ * A population is split as well: each solution keeps the vm of the cloudlets it put in the
+ * right group and gives the others a random vm of it. Workflows are not split, their
+ * dependencies cross the groups, and are scheduled whole by a group engine.
+ */
+public class HierarchicalEngine extends PopulationSchedulingEngine {
+
+	/** The group of each vm, null for a single group. */
+	private int[] groups;
+
+	/** The most moves of the balancing pass. */
+	private int balanceMoves;
+
+	/** The number of threads scheduling the groups. */
+	private int threads;
+
+	/**
+	 * Creates a new engine with a balancing pass of at most 1000 moves.
+	 */
+	public HierarchicalEngine() {
+		setBalanceMoves(1000);
+		setThreads(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates the engine scheduling a group. It is called for every group of every run, so the
+	 * groups scheduled at once do not share an engine. Override it to use another engine.
+	 *
+	 * @return a genetic algorithm engine
+	 */
+	protected SchedulingEngine createGroupEngine() {
+		return new GeneticEngine();
+	}
+
+	@Override
+	public int[] schedule(final SchedulingProblem problem, int[][] population) {
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		int groupCount = 0;
+		for (int vm = 0; groups != null && vm < vms; vm++) {
+			groupCount = Math.max(groupCount, groups[vm] + 1);
+		}
+		if (groupCount < 2 || cloudlets == 0 || problem instanceof WorkflowSchedulingProblem) {
+			return scheduleGroup(createGroupEngine(), problem, population);
+		}
+		double initial = Double.MAX_VALUE;
+		double[] times = new double[vms];
+		for (int[] assign : population) {
+			initial = Math.min(initial, makespan(problem, assign, times));
+		}
+
+		// the vms of each group, and the group of each cloudlet
+		List<List<Integer>> groupVms = new ArrayList<List<Integer>>();
+		for (int g = 0; g < groupCount; g++) {
+			groupVms.add(new ArrayList<Integer>());
+		}
+		for (int vm = 0; vm < vms; vm++) {
+			groupVms.get(groups[vm]).add(vm);
+		}
+		int[] cloudletGroups = splitCloudlets(problem, groupVms);
+		List<List<Integer>> groupCloudlets = new ArrayList<List<Integer>>();
+		for (int g = 0; g < groupCount; g++) {
+			groupCloudlets.add(new ArrayList<Integer>());
+		}
+		for (int c = 0; c < cloudlets; c++) {
+			groupCloudlets.get(cloudletGroups[c]).add(c);
+		}
+
+		int[] assign = new int[cloudlets];
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, groupCount)));
+		try {
+			List<Future<int[]>> results = new ArrayList<Future<int[]>>();
+			for (int g = 0; g < groupCount; g++) {
+				final SchedulingProblem subproblem = createSubproblem(problem, groupCloudlets.get(g), groupVms.get(g));
+				final int[][] subpopulation = createSubpopulation(population, groupCloudlets.get(g), groupVms.get(g));
+				results.add(executor.submit(new Callable<int[]>() {
+
+					@Override
+					public int[] call() {
+						return scheduleGroup(createGroupEngine(), subproblem, subpopulation);
+					}
+				}));
+			}
+			for (int g = 0; g < groupCount; g++) {
+				int[] subassign = results.get(g).get();
+				for (int k = 0; k < subassign.length; k++) {
+					assign[groupCloudlets.get(g).get(k)] = groupVms.get(g).get(subassign[k]);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return population[0].clone();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+
+		double split = problem.getMakespan(assign);
+		double fitness = balance(problem, assign);
+		problem.publish(assign, fitness);
+		Log.printLine("Hierarchical: makespan " + initial + " -> " + split + " over " + groupCount
+				+ " groups -> " + fitness + " balanced");
+		return assign;
+	}
+
+	/**
+	 * Splits the cloudlets between the groups, longest first, each to the group where it
+	 * finishes first with the group taken as a single vm of the total mips of its vms.
+	 *
+	 * @param problem the scheduling problem
+	 * @param groupVms the vms of each group
+	 * @return the group of each cloudlet
+	 */
+	protected int[] splitCloudlets(SchedulingProblem problem, List<List<Integer>> groupVms) {
+		int groupCount = groupVms.size();
+		double[] capacities = new double[groupCount];
+		double[] loads = new double[groupCount];
+		for (int g = 0; g < groupCount; g++) {
+			for (int vm : groupVms.get(g)) {
+				capacities[g] += problem.getMips(vm);
+				if (problem instanceof BacklogSchedulingProblem) {
+					loads[g] += ((BacklogSchedulingProblem) problem).getBacklog(vm) * problem.getMips(vm);
+				}
+			}
+		}
+		long[] lengths = new long[problem.getCloudletCount()];
+		for (int c = 0; c < lengths.length; c++) {
+			lengths[c] = problem.getLength(c);
+		}
+		int[] cloudletGroups = new int[lengths.length];
+		for (int c : problem.getLongestFirst()) {
+			int best = 0;
+			for (int g = 1; g < groupCount; g++) {
+				if ((loads[g] + lengths[c]) / capacities[g] < (loads[best] + lengths[c]) / capacities[best]) {
+					best = g;
+				}
+			}
+			cloudletGroups[c] = best;
+			loads[best] += lengths[c];
+		}
+		return cloudletGroups;
+	}
+
+	/**
+	 * Gets the problem of scheduling some cloudlets on some vms.
+	 *
+	 * @param problem the whole problem
+	 * @param cloudlets the cloudlets of the subproblem
+	 * @param vms the vms of the subproblem
+	 * @return the subproblem, the cloudlets and vms numbered in the order given
+	 */
+	protected SchedulingProblem createSubproblem(SchedulingProblem problem, List<Integer> cloudlets, List<Integer> vms) {
+		long[] lengths = new long[cloudlets.size()];
+		for (int k = 0; k < lengths.length; k++) {
+			lengths[k] = problem.getLength(cloudlets.get(k));
+		}
+		double[] mips = new double[vms.size()];
+		for (int k = 0; k < mips.length; k++) {
+			mips[k] = problem.getMips(vms.get(k));
+		}
+		if (problem instanceof BacklogSchedulingProblem) {
+			double[] backlogs = new double[vms.size()];
+			for (int k = 0; k < backlogs.length; k++) {
+				backlogs[k] = ((BacklogSchedulingProblem) problem).getBacklog(vms.get(k));
+			}
+			return new BacklogSchedulingProblem(lengths, mips, backlogs);
+		}
+		return new SchedulingProblem(lengths, mips);
+	}
+
+	/**
+	 * Gets a population of a subproblem. Each solution keeps the vm of the cloudlets it put on
+	 * a vm of the subproblem and gives the others a random vm of it.
+	 *
+	 * @param population the vm of each cloudlet for each solution of the whole problem
+	 * @param cloudlets the cloudlets of the subproblem
+	 * @param vms the vms of the subproblem
+	 * @return the population of the subproblem
+	 */
+	protected int[][] createSubpopulation(int[][] population, List<Integer> cloudlets, List<Integer> vms) {
+		int[] positions = new int[groups.length];
+		for (int vm = 0; vm < positions.length; vm++) {
+			positions[vm] = -1;
+		}
+		for (int k = 0; k < vms.size(); k++) {
+			positions[vms.get(k)] = k;
+		}
+		int[][] subpopulation = new int[population.length][cloudlets.size()];
+		for (int i = 0; i < population.length; i++) {
+			for (int k = 0; k < cloudlets.size(); k++) {
+				int position = positions[population[i][cloudlets.get(k)]];
+				subpopulation[i][k] = position >= 0 ? position : random.nextInt(vms.size());
+			}
+		}
+		return subpopulation;
+	}
+
+	/**
+	 * Moves cloudlets off the vm finishing last to the vm, of any group, where the makespan
+	 * drops most, until no move lowers it or the moves run out.
+	 *
+	 * @param problem the scheduling problem
+	 * @param assign the vm of each cloudlet, changed in place
+	 * @return the makespan after the moves
+	 */
+	protected double balance(SchedulingProblem problem, int[] assign) {
+		double[] times = problem.getVmTimes(assign);
+		for (int move = 0; move < balanceMoves && !problem.isStopped(); move++) {
+			int critical = 0;
+			for (int vm = 1; vm < times.length; vm++) {
+				if (times[vm] > times[critical]) {
+					critical = vm;
+				}
+			}
+			int bestCloudlet = -1;
+			int bestVm = -1;
+			double bestTime = times[critical];
+			for (int c = 0; c < assign.length; c++) {
+				if (assign[c] != critical) {
+					continue;
+				}
+				double left = times[critical] - problem.getRuntime(c, critical);
+				for (int vm = 0; vm < times.length; vm++) {
+					double time = Math.max(left, times[vm] + problem.getRuntime(c, vm));
+					if (vm != critical && time < bestTime) {
+						bestTime = time;
+						bestCloudlet = c;
+						bestVm = vm;
+					}
+				}
+			}
+			if (bestCloudlet < 0) {
+				break;
+			}
+			times[critical] -= problem.getRuntime(bestCloudlet, critical);
+			times[bestVm] += problem.getRuntime(bestCloudlet, bestVm);
+			assign[bestCloudlet] = bestVm;
+		}
+		return problem.getMakespan(assign);
+	}
+
+	private static int[] scheduleGroup(SchedulingEngine engine, SchedulingProblem problem, int[][] population) {
+		if (problem.getCloudletCount() == 0) {
+			return new int[0];
+		}
+		if (engine instanceof PopulationSchedulingEngine) {
+			return ((PopulationSchedulingEngine) engine).schedule(problem, population);
+		}
+		double[] times = new double[problem.getVmCount()];
+		int best = 0;
+		double bestFitness = Double.MAX_VALUE;
+		for (int i = 0; i < population.length; i++) {
+			double fitness = problem.getMakespan(population[i], 0, times);
+			if (fitness < bestFitness) {
+				bestFitness = fitness;
+				best = i;
+			}
+		}
+		return engine.schedule(problem, population[best]);
+	}
+
+	/**
+	 * Gets the group of each vm.
+	 *
+	 * @return the groups, null for a single group
+	 */
+	public int[] getGroups() {
+		return groups;
+	}
+
+	/**
+	 * Sets the group of each vm. The broker sets the datacenter of each vm before each run.
+	 *
+	 * @param groups the group of each vm, numbered from 0, null for a single group
+	 */
+	public void setGroups(int[] groups) {
+		this.groups = groups;
+	}
+
+	/**
+	 * Gets the most moves of the balancing pass.
+	 *
+	 * @return the moves
+	 */
+	public int getBalanceMoves() {
+		return balanceMoves;
+	}
+
+	/**
+	 * Sets the most moves of the balancing pass.
+	 *
+	 * @param balanceMoves the moves, 0 for no balancing
+	 */
+	public void setBalanceMoves(int balanceMoves) {
+		this.balanceMoves = balanceMoves;
+	}
+
+	/**
+	 * Gets the number of threads scheduling the groups.
+	 *
+	 * @return the threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of threads scheduling the groups.
+	 *
+	 * @param threads the threads
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[groupEngine=" + createGroupEngine() + ", balanceMoves=" + balanceMoves
+				+ ", populationSize=" + getPopulationSize() + "]";
+	}
+
+}
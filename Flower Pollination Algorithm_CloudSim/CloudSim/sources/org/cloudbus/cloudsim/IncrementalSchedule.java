@@ -0,0 +1,260 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * IncrementalSchedule keeps an assignment together with the execution time and the cloudlets
+ * of each vm, so the makespan after moving or swapping cloudlets is found in constant time
+ * instead of summing up every vm again as checkFitness does. That holds only for a problem
+ * whose vm times are sums of runtimes, see {@link SchedulingProblem#isAdditive()}.
+ */
+public class IncrementalSchedule {
+
+	/** The scheduling problem. */
+	private SchedulingProblem problem;
+
+	/** The vm of each cloudlet. */
+	private int[] assign;
+
+	/** The execution time of each vm. */
+	private double[] times;
+
+	/** The cloudlets of each vm, the first memberCount[vm] entries are used. */
+	private int[][] members;
+
+	/** The number of cloudlets on each vm. */
+	private int[] memberCount;
+
+	/** The position of each cloudlet in the members of its vm. */
+	private int[] slot;
+
+	/** The vm times negated, so the least key is the vm that decides the makespan. */
+	private VmLoadQueue queue;
+
+	/**
+	 * Creates a new incremental schedule.
+	 *
+	 * @param problem the scheduling problem
+	 * @param assign the vm of each cloudlet, it is copied
+	 * @throws IllegalArgumentException if the problem is not additive
+	 */
+	public IncrementalSchedule(SchedulingProblem problem, int[] assign) {
+		if (!problem.isAdditive()) {
+			throw new IllegalArgumentException("An incremental schedule needs a problem of independent cloudlets");
+		}
+		this.problem = problem;
+		this.assign = assign.clone();
+		int vms = problem.getVmCount();
+		times = problem.getVmTimes(assign);
+		memberCount = new int[vms];
+		slot = new int[assign.length];
+		for (int c = 0; c < assign.length; c++) {
+			memberCount[assign[c]]++;
+		}
+		members = new int[vms][];
+		for (int vm = 0; vm < vms; vm++) {
+			members[vm] = new int[Math.max(4, memberCount[vm])];
+			memberCount[vm] = 0;
+		}
+		for (int c = 0; c < assign.length; c++) {
+			addMember(assign[c], c);
+		}
+		queue = new VmLoadQueue(vms);
+		for (int vm = 0; vm < vms; vm++) {
+			queue.insert(vm, -times[vm]);
+		}
+	}
+
+	/**
+	 * Gets the scheduling problem.
+	 *
+	 * @return the problem
+	 */
+	public SchedulingProblem getProblem() {
+		return problem;
+	}
+
+	/**
+	 * Gets the vm of a cloudlet.
+	 *
+	 * @param cloudlet the cloudlet index
+	 * @return the vm index
+	 */
+	public int getVm(int cloudlet) {
+		return assign[cloudlet];
+	}
+
+	/**
+	 * Gets the execution time of a vm.
+	 *
+	 * @param vm the vm index
+	 * @return the execution time
+	 */
+	public double getVmTime(int vm) {
+		return times[vm];
+	}
+
+	/**
+	 * Gets the vm with the largest execution time.
+	 *
+	 * @return the vm index
+	 */
+	public int getCriticalVm() {
+		return queue.minVm();
+	}
+
+	/**
+	 * Gets the makespan.
+	 *
+	 * @return the makespan
+	 */
+	public double getMakespan() {
+		return -queue.minTime();
+	}
+
+	/**
+	 * Gets the number of cloudlets on a vm.
+	 *
+	 * @param vm the vm index
+	 * @return the cloudlet count
+	 */
+	public int getCloudletCount(int vm) {
+		return memberCount[vm];
+	}
+
+	/**
+	 * Gets a cloudlet on a vm.
+	 *
+	 * @param vm the vm index
+	 * @param k the position among the cloudlets of the vm
+	 * @return the cloudlet index
+	 */
+	public int getCloudlet(int vm, int k) {
+		return members[vm][k];
+	}
+
+	/**
+	 * Gets a copy of the assignment.
+	 *
+	 * @return the vm of each cloudlet
+	 */
+	public int[] getAssignment() {
+		return assign.clone();
+	}
+
+	/**
+	 * Gets the makespan if a cloudlet was moved to another vm, without moving it.
+	 *
+	 * @param cloudlet the cloudlet index
+	 * @param vm the new vm
+	 * @return the makespan after the move
+	 */
+	public double moveMakespan(int cloudlet, int vm) {
+		int from = assign[cloudlet];
+		if (from == vm) {
+			return getMakespan();
+		}
+		double fromTime = times[from] - problem.getRuntime(cloudlet, from);
+		double toTime = times[vm] + problem.getRuntime(cloudlet, vm);
+		return Math.max(Math.max(fromTime, toTime), maxTimeExcept(from, vm));
+	}
+
+	/**
+	 * Gets the makespan if two cloudlets swapped their vms, without swapping them.
+	 *
+	 * @param cloudlet1 the first cloudlet index
+	 * @param cloudlet2 the second cloudlet index
+	 * @return the makespan after the swap
+	 */
+	public double swapMakespan(int cloudlet1, int cloudlet2) {
+		int vm1 = assign[cloudlet1];
+		int vm2 = assign[cloudlet2];
+		if (vm1 == vm2) {
+			return getMakespan();
+		}
+		double time1 = times[vm1] - problem.getRuntime(cloudlet1, vm1) + problem.getRuntime(cloudlet2, vm1);
+		double time2 = times[vm2] - problem.getRuntime(cloudlet2, vm2) + problem.getRuntime(cloudlet1, vm2);
+		return Math.max(Math.max(time1, time2), maxTimeExcept(vm1, vm2));
+	}
+
+	/**
+	 * Moves a cloudlet to another vm.
+	 *
+	 * @param cloudlet the cloudlet index
+	 * @param vm the new vm
+	 */
+	public void move(int cloudlet, int vm) {
+		int from = assign[cloudlet];
+		if (from == vm) {
+			return;
+		}
+		removeMember(from, cloudlet);
+		addMember(vm, cloudlet);
+		assign[cloudlet] = vm;
+		setTime(from, times[from] - problem.getRuntime(cloudlet, from));
+		setTime(vm, times[vm] + problem.getRuntime(cloudlet, vm));
+	}
+
+	/**
+	 * Swaps the vms of two cloudlets.
+	 *
+	 * @param cloudlet1 the first cloudlet index
+	 * @param cloudlet2 the second cloudlet index
+	 */
+	public void swap(int cloudlet1, int cloudlet2) {
+		int vm1 = assign[cloudlet1];
+		int vm2 = assign[cloudlet2];
+		if (vm1 == vm2) {
+			return;
+		}
+		move(cloudlet1, vm2);
+		move(cloudlet2, vm1);
+	}
+
+	/**
+	 * Gets the largest execution time of the vms other than two given ones. Those two are
+	 * among the three largest at most, and the three largest are in the first seven heap
+	 * positions, so only those are looked at.
+	 */
+	private double maxTimeExcept(int vm1, int vm2) {
+		double max = 0;
+		int top = Math.min(7, queue.size());
+		for (int k = 0; k < top; k++) {
+			int vm = queue.vmAt(k);
+			if (vm != vm1 && vm != vm2) {
+				max = Math.max(max, times[vm]);
+			}
+		}
+		return max;
+	}
+
+	private void setTime(int vm, double time) {
+		times[vm] = time;
+		queue.changeTime(vm, -time);
+	}
+
+	private void addMember(int vm, int cloudlet) {
+		if (memberCount[vm] == members[vm].length) {
+			int[] grown = new int[members[vm].length * 2];
+			System.arraycopy(members[vm], 0, grown, 0, memberCount[vm]);
+			members[vm] = grown;
+		}
+		slot[cloudlet] = memberCount[vm];
+		members[vm][memberCount[vm]] = cloudlet;
+		memberCount[vm]++;
+	}
+
+	private void removeMember(int vm, int cloudlet) {
+		int last = members[vm][memberCount[vm] - 1];
+		members[vm][slot[cloudlet]] = last;
+		slot[last] = slot[cloudlet];
+		memberCount[vm]--;
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * MultifitEngine schedules cloudlets by MULTIFIT, a binary search over the makespan. For a
+ * candidate makespan T each vm becomes a bin holding T times its mips, and the cloudlets are
+ * packed longest first, each into the first bin with room for it, the fastest vms first. The
+ * smallest T that packs is kept. The search starts between the even spread of the load, which
+ * no schedule beats, and a makespan at which first fit always packs. After k halvings the
+ * makespan is within the MULTIFIT bound of the optimum, 13/11 for vms of the same mips, plus a
+ * factor of 2^-k of that range.
+ * <p>
+ * First fit finds its bin in a tree of the room left in the bins, so a run takes
+ * O(C log C + k C log V) time and needs no initial population.
+ */
+public class MultifitEngine implements SchedulingEngine {
+
+	/** The number of halvings of the binary search. */
+	private int iterations;
+
+	/**
+	 * Creates a new engine.
+	 */
+	public MultifitEngine() {
+		this(20);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param iterations the number of halvings of the binary search
+	 * @pre iterations >= 0
+	 */
+	public MultifitEngine(int iterations) {
+		setIterations(iterations);
+	}
+
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[] initial) {
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		double initialMakespan = problem.getMakespan(initial);
+		if (cloudlets == 0) {
+			return initial.clone();
+		}
+
+		// cloudlets longest first and bins fastest first; the lengths in packing order, so that
+		// packing reads memory in sequence
+		int[] order = problem.getLongestFirst();
+		long[] lengths = new long[cloudlets];
+		for (int k = 0; k < cloudlets; k++) {
+			lengths[k] = problem.getLength(order[k]);
+		}
+		final SchedulingProblem p = problem;
+		Integer[] sorted = new Integer[vms];
+		for (int vm = 0; vm < vms; vm++) {
+			sorted[vm] = vm;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(p.getMips(b), p.getMips(a));
+			}
+		});
+		int[] bins = new int[vms];
+		double totalMips = 0;
+		for (int b = 0; b < vms; b++) {
+			bins[b] = sorted[b];
+			totalMips += problem.getMips(bins[b]);
+		}
+
+		double totalLength = 0;
+		for (int c = 0; c < cloudlets; c++) {
+			totalLength += problem.getLength(c);
+		}
+		double maxLength = lengths[0];
+		// no schedule beats the even spread; at the upper end a cloudlet that fits nowhere
+		// would mean more load in the bins than there is
+		double low = Math.max(totalLength / totalMips, maxLength / problem.getMips(bins[0]));
+		double high = (totalLength + vms * maxLength) / totalMips;
+
+		BinTree tree = new BinTree(vms);
+		// the bin of each cloudlet in packing order
+		int[] packing = new int[cloudlets];
+		int[] bestPacking = new int[cloudlets];
+		while (!pack(problem, lengths, bins, high, tree, bestPacking)) {
+			// only rounding can make the upper bound fail
+			high *= 2;
+		}
+		for (int k = 0; k < iterations && high - low > 1e-9 * high; k++) {
+			double middle = (low + high) / 2;
+			if (pack(problem, lengths, bins, middle, tree, packing)) {
+				high = middle;
+				int[] swap = bestPacking;
+				bestPacking = packing;
+				packing = swap;
+			} else {
+				low = middle;
+			}
+		}
+
+		int[] best = new int[cloudlets];
+		for (int k = 0; k < cloudlets; k++) {
+			best[order[k]] = bins[bestPacking[k]];
+		}
+		double makespan = problem.getMakespan(best);
+		Log.printLine("Multifit: makespan " + initialMakespan + " -> " + makespan + ", lower bound " + low);
+		return makespan <= initialMakespan ? best : initial.clone();
+	}
+
+
+	/**
+	 * Packs the cloudlets, longest first, first fit into bins of a makespan.
+	 *
+	 * @return true if every cloudlet found a bin
+	 */
+	private boolean pack(SchedulingProblem problem, long[] lengths, int[] bins, double makespan, BinTree tree,
+			int[] packing) {
+		for (int b = 0; b < bins.length; b++) {
+			tree.set(b, makespan * problem.getMips(bins[b]));
+		}
+		for (int k = 0; k < lengths.length; k++) {
+			int b = tree.firstFit(lengths[k]);
+			if (b < 0) {
+				return false;
+			}
+			tree.set(b, tree.get(b) - lengths[k]);
+			packing[k] = b;
+		}
+		return true;
+	}
+
+	/**
+	 * BinTree keeps the room left in each bin in the leaves of a complete binary tree whose
+	 * inner nodes hold the most room below them, so the first bin with enough room is found by
+	 * going down from the root.
+	 */
+	private static class BinTree {
+
+		private final int leaves;
+
+		private final double[] room;
+
+		BinTree(int bins) {
+			int n = 1;
+			while (n < bins) {
+				n <<= 1;
+			}
+			leaves = n;
+			// unused leaves have no room
+			room = new double[2 * n];
+			Arrays.fill(room, -1);
+		}
+
+		double get(int bin) {
+			return room[leaves + bin];
+		}
+
+		void set(int bin, double value) {
+			int node = leaves + bin;
+			room[node] = value;
+			for (node >>= 1; node > 0; node >>= 1) {
+				room[node] = Math.max(room[2 * node], room[2 * node + 1]);
+			}
+		}
+
+		int firstFit(double size) {
+			if (room[1] < size) {
+				return -1;
+			}
+			int node = 1;
+			while (node < leaves) {
+				node = room[2 * node] >= size ? 2 * node : 2 * node + 1;
+			}
+			return node - leaves;
+		}
+
+	}
+
+	/**
+	 * Gets the number of halvings of the binary search.
+	 *
+	 * @return the iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets the number of halvings of the binary search.
+	 *
+	 * @param iterations the iterations
+	 */
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[iterations=" + iterations + "]";
+	}
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Random;
+
+/**
+ * OperatorBandit chooses which search operator to apply next, as a multi-armed bandit whose
+ * arms are the operators. The reward of an application is the relative improvement it made
+ * per millisecond it took, so an operator that improves a little but fast can beat one that
+ * improves more but slowly. Old rewards are discounted, because the operator that pays off
+ * changes as the search converges.
+ * <p>
+ * With {@link Policy#UCB} the arm with the highest upper confidence bound on its mean reward
+ * is chosen, the rewards scaled by the highest mean reward. With {@link Policy#THOMPSON} the
+ * mean reward of each arm is sampled from a normal posterior and the highest sample is chosen.
+ * Every arm is tried once before either policy applies.
+ */
+public class OperatorBandit {
+
+	/**
+	 * The policies choosing an arm.
+	 */
+	public enum Policy {
+		/** Upper confidence bound, UCB1. */
+		UCB,
+		/** Thompson sampling with normal posteriors. */
+		THOMPSON
+	}
+
+	/** The policy. */
+	private final Policy policy;
+
+	/** The names of the arms. */
+	private final String[] names;
+
+	/** The discounted number of times each arm was chosen. */
+	private final double[] pulls;
+
+	/** The discounted sum of the rewards of each arm. */
+	private final double[] rewards;
+
+	/** The discounted sum of the squared rewards of each arm. */
+	private final double[] squaredRewards;
+
+	/** The number of times each arm was chosen, not discounted. */
+	private final long[] totalPulls;
+
+	/** The time spent in each arm, in milliseconds. */
+	private final double[] totalTimes;
+
+	/** The factor applied to the statistics before each update. */
+	private double discount;
+
+	/** The weight of the confidence bound of UCB. */
+	private double exploration;
+
+	/** The random number generator. */
+	private Random random;
+
+	/**
+	 * Creates a new bandit.
+	 *
+	 * @param policy the policy choosing an arm
+	 * @param names the names of the arms
+	 * @pre names.length > 0
+	 */
+	public OperatorBandit(Policy policy, String... names) {
+		this.policy = policy;
+		this.names = names.clone();
+		pulls = new double[names.length];
+		rewards = new double[names.length];
+		squaredRewards = new double[names.length];
+		totalPulls = new long[names.length];
+		totalTimes = new double[names.length];
+		setDiscount(0.995);
+		setExploration(Math.sqrt(2));
+		random = new Random();
+	}
+
+	/**
+	 * Chooses the arm to pull next.
+	 *
+	 * @return the arm index
+	 */
+	public int select() {
+		double total = 0;
+		double scale = 0;
+		for (int arm = 0; arm < names.length; arm++) {
+			if (totalPulls[arm] == 0) {
+				return arm;
+			}
+			total += pulls[arm];
+			scale = Math.max(scale, getMeanReward(arm));
+		}
+		if (scale == 0) {
+			scale = 1;
+		}
+
+		int best = 0;
+		double bestScore = -Double.MAX_VALUE;
+		for (int arm = 0; arm < names.length; arm++) {
+			double n = Math.max(pulls[arm], 1e-9);
+			double mean = rewards[arm] / n / scale;
+			double score;
+			if (policy == Policy.UCB) {
+				score = mean + exploration * Math.sqrt(Math.log(Math.max(total, 1)) / n);
+			} else {
+				// the variance has a prior of one reward in four, so an arm that always
+				// failed is still tried now and then
+				double variance = (squaredRewards[arm] / n / (scale * scale) - mean * mean + 0.25) / (n + 1);
+				score = mean + random.nextGaussian() * Math.sqrt(Math.max(variance, 0));
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				best = arm;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Records the outcome of pulling an arm.
+	 *
+	 * @param arm the arm index
+	 * @param improvement the relative improvement made, zero or negative if none
+	 * @param time the time taken, in milliseconds
+	 */
+	public void update(int arm, double improvement, double time) {
+		double reward = Math.max(0, improvement) / Math.max(time, 1e-3);
+		for (int k = 0; k < names.length; k++) {
+			pulls[k] *= discount;
+			rewards[k] *= discount;
+			squaredRewards[k] *= discount;
+		}
+		pulls[arm]++;
+		rewards[arm] += reward;
+		squaredRewards[arm] += reward * reward;
+		totalPulls[arm]++;
+		totalTimes[arm] += time;
+	}
+
+	/**
+	 * Gets the number of arms.
+	 *
+	 * @return the arm count
+	 */
+	public int getArmCount() {
+		return names.length;
+	}
+
+	/**
+	 * Gets the name of an arm.
+	 *
+	 * @param arm the arm index
+	 * @return the name
+	 */
+	public String getName(int arm) {
+		return names[arm];
+	}
+
+	/**
+	 * Gets the number of times an arm was chosen.
+	 *
+	 * @param arm the arm index
+	 * @return the number of pulls
+	 */
+	public long getPulls(int arm) {
+		return totalPulls[arm];
+	}
+
+	/**
+	 * Gets the discounted mean reward of an arm.
+	 *
+	 * @param arm the arm index
+	 * @return the relative improvement per millisecond
+	 */
+	public double getMeanReward(int arm) {
+		return pulls[arm] > 0 ? rewards[arm] / pulls[arm] : 0;
+	}
+
+	/**
+	 * Gets the policy choosing an arm.
+	 *
+	 * @return the policy
+	 */
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Gets the factor applied to the statistics before each update.
+	 *
+	 * @return the discount, 1 for none
+	 */
+	public double getDiscount() {
+		return discount;
+	}
+
+	/**
+	 * Sets the factor applied to the statistics before each update.
+	 *
+	 * @param discount the discount, 1 for none
+	 */
+	public void setDiscount(double discount) {
+		this.discount = discount;
+	}
+
+	/**
+	 * Gets the weight of the confidence bound of UCB.
+	 *
+	 * @return the exploration weight
+	 */
+	public double getExploration() {
+		return exploration;
+	}
+
+	/**
+	 * Sets the weight of the confidence bound of UCB.
+	 *
+	 * @param exploration the exploration weight
+	 */
+	public void setExploration(double exploration) {
+		this.exploration = exploration;
+	}
+
+	/**
+	 * Sets the seed of the random number generator, for repeatable runs.
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int arm = 0; arm < names.length; arm++) {
+			builder.append(arm == 0 ? "" : ", ").append(names[arm]).append(' ').append(totalPulls[arm])
+					.append(" pulls ").append(String.format("%.1f", totalTimes[arm])).append(" ms");
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * ParticleSwarmEngine schedules cloudlets by discrete particle swarm optimisation. The
+ * position of a particle is an assignment and its velocity holds, for each cloudlet, the
+ * probability that the cloudlet is reassigned in the next step. A reassigned cloudlet goes
+ * to its vm in the particle's own best position or in the best position of its neighbours,
+ * which is the whole swarm or the two particles next to it in a ring.
+ */
+public class ParticleSwarmEngine extends PopulationSchedulingEngine {
+
+	/** The particles a particle learns from. */
+	public enum Topology {
+		/** Every particle follows the best position of the whole swarm. */
+		GLOBAL,
+		/** Every particle follows the best position of itself and the particles next to it. */
+		RING
+	}
+
+	/** The number of steps. */
+	private int iterations;
+
+	/** The share of the velocity kept from one step to the next. */
+	private double inertia;
+
+	/** The pull towards the particle's own best position. */
+	private double cognitive;
+
+	/** The pull towards the best position of the neighbours. */
+	private double social;
+
+	/** The largest probability of a cloudlet being reassigned in a step. */
+	private double maxVelocity;
+
+	/** The neighbourhood topology. */
+	private Topology topology;
+
+	/**
+	 * Creates a new engine with a global best topology.
+	 */
+	public ParticleSwarmEngine() {
+		this(500, Topology.GLOBAL);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param iterations the number of steps
+	 * @param topology the neighbourhood topology
+	 * @pre iterations > 0
+	 */
+	public ParticleSwarmEngine(int iterations, Topology topology) {
+		setIterations(iterations);
+		setTopology(topology);
+		setInertia(0.7);
+		setCognitive(1.5);
+		setSocial(1.5);
+		setMaxVelocity(0.5);
+	}
+
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[][] population) {
+		int particles = population.length;
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		double[] times = new double[vms];
+
+		// positions, velocities and personal bests of all particles in flat arrays
+		int[] position = new int[particles * cloudlets];
+		float[] velocity = new float[particles * cloudlets];
+		int[] personal = new int[particles * cloudlets];
+		double[] personalFitness = new double[particles];
+		for (int p = 0; p < particles; p++) {
+			System.arraycopy(population[p], 0, position, p * cloudlets, cloudlets);
+			System.arraycopy(population[p], 0, personal, p * cloudlets, cloudlets);
+			personalFitness[p] = makespan(problem, population[p], times);
+		}
+
+		int[] best = new int[cloudlets];
+		int bestParticle = 0;
+		for (int p = 1; p < particles; p++) {
+			if (personalFitness[p] < personalFitness[bestParticle]) {
+				bestParticle = p;
+			}
+		}
+		System.arraycopy(personal, bestParticle * cloudlets, best, 0, cloudlets);
+		double bestFitness = personalFitness[bestParticle];
+		double initialFitness = bestFitness;
+
+		for (int iteration = 0; iteration < iterations && !problem.isStopped(); iteration++) {
+			for (int p = 0; p < particles; p++) {
+				int guide = topology == Topology.GLOBAL ? -1 : ringBest(personalFitness, p);
+				int offset = p * cloudlets;
+				int guideOffset = guide * cloudlets;
+				for (int c = 0; c < cloudlets; c++) {
+					int i = offset + c;
+					int target = guide < 0 ? best[c] : personal[guideOffset + c];
+					double pull1 = cognitive * random.nextDouble();
+					double pull2 = social * random.nextDouble();
+					double v = inertia * velocity[i]
+							+ (position[i] != personal[i] ? pull1 : 0)
+							+ (position[i] != target ? pull2 : 0);
+					v = Math.min(v, maxVelocity);
+					velocity[i] = (float) v;
+
+					if (random.nextDouble() < v) {
+						position[i] = random.nextDouble() * (pull1 + pull2) < pull1 ? personal[i] : target;
+					} else if (random.nextInt(cloudlets) == 0) {
+						// a little mutation keeps the swarm from collapsing on one position
+						position[i] = random.nextInt(vms);
+					}
+				}
+			}
+
+			// evaluate the moved particles and update the bests
+			double previousBest = bestFitness;
+			for (int p = 0; p < particles; p++) {
+				double fitness = makespan(problem, position, p * cloudlets, times);
+				if (fitness < personalFitness[p]) {
+					personalFitness[p] = fitness;
+					System.arraycopy(position, p * cloudlets, personal, p * cloudlets, cloudlets);
+					if (fitness < bestFitness) {
+						bestFitness = fitness;
+						System.arraycopy(position, p * cloudlets, best, 0, cloudlets);
+					}
+				}
+			}
+			if (bestFitness < previousBest) {
+				problem.publish(best, bestFitness);
+			}
+		}
+
+		Log.printLine("Particle swarm: makespan " + initialFitness + " -> " + bestFitness);
+		return best;
+	}
+
+	/**
+	 * Gets the particle with the best personal fitness among a particle and its two ring
+	 * neighbours.
+	 */
+	private int ringBest(double[] personalFitness, int p) {
+		int particles = personalFitness.length;
+		int left = (p + particles - 1) % particles;
+		int right = (p + 1) % particles;
+		int best = p;
+		if (personalFitness[left] < personalFitness[best]) {
+			best = left;
+		}
+		if (personalFitness[right] < personalFitness[best]) {
+			best = right;
+		}
+		return best;
+	}
+
+	/**
+	 * Gets the number of steps.
+	 *
+	 * @return the iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets the number of steps.
+	 *
+	 * @param iterations the iterations
+	 */
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Gets the share of the velocity kept from one step to the next.
+	 *
+	 * @return the inertia
+	 */
+	public double getInertia() {
+		return inertia;
+	}
+
+	/**
+	 * Sets the share of the velocity kept from one step to the next.
+	 *
+	 * @param inertia the inertia
+	 */
+	public void setInertia(double inertia) {
+		this.inertia = inertia;
+	}
+
+	/**
+	 * Gets the pull towards the particle's own best position.
+	 *
+	 * @return the cognitive coefficient
+	 */
+	public double getCognitive() {
+		return cognitive;
+	}
+
+	/**
+	 * Sets the pull towards the particle's own best position.
+	 *
+	 * @param cognitive the cognitive coefficient
+	 */
+	public void setCognitive(double cognitive) {
+		this.cognitive = cognitive;
+	}
+
+	/**
+	 * Gets the pull towards the best position of the neighbours.
+	 *
+	 * @return the social coefficient
+	 */
+	public double getSocial() {
+		return social;
+	}
+
+	/**
+	 * Sets the pull towards the best position of the neighbours.
+	 *
+	 * @param social the social coefficient
+	 */
+	public void setSocial(double social) {
+		this.social = social;
+	}
+
+	/**
+	 * Gets the largest probability of a cloudlet being reassigned in a step.
+	 *
+	 * @return the max velocity
+	 */
+	public double getMaxVelocity() {
+		return maxVelocity;
+	}
+
+	/**
+	 * Sets the largest probability of a cloudlet being reassigned in a step.
+	 *
+	 * @param maxVelocity the max velocity
+	 */
+	public void setMaxVelocity(double maxVelocity) {
+		this.maxVelocity = maxVelocity;
+	}
+
+	/**
+	 * Gets the neighbourhood topology.
+	 *
+	 * @return the topology
+	 */
+	public Topology getTopology() {
+		return topology;
+	}
+
+	/**
+	 * Sets the neighbourhood topology.
+	 *
+	 * @param topology the topology
+	 */
+	public void setTopology(Topology topology) {
+		this.topology = topology;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[iterations=" + iterations + ", inertia=" + inertia + ", cognitive=" + cognitive
+				+ ", social=" + social + ", maxVelocity=" + maxVelocity + ", topology=" + topology + ", populationSize="
+				+ getPopulationSize() + "]";
+	}
+
+}
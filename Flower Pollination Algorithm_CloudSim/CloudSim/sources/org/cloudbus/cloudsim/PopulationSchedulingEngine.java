@@ -0,0 +1,138 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Random;
+
+/**
+ * PopulationSchedulingEngine is the base of the engines that improve a whole population of
+ * assignments. A broker hands such an engine its initial population; given a single starting
+ * assignment the engine fills the rest of the population with perturbed copies of it.
+ */
+public abstract class PopulationSchedulingEngine implements SchedulingEngine {
+
+	/** The population size used when the engine is given a single assignment. */
+	private int populationSize;
+
+	/** The random number generator. */
+	protected Random random;
+
+	/**
+	 * Creates a new engine.
+	 */
+	public PopulationSchedulingEngine() {
+		setPopulationSize(20);
+		random = new Random();
+	}
+
+	/**
+	 * Finds a schedule starting from a population of assignments.
+	 *
+	 * @param problem the scheduling problem
+	 * @param population the vm of each cloudlet for each solution, it is not changed
+	 * @return the vm of each cloudlet in the best solution found, a new array
+	 * @pre population.length > 0
+	 */
+	public abstract int[] schedule(SchedulingProblem problem, int[][] population);
+
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[] initial) {
+		return schedule(problem, createPopulation(initial, problem.getVmCount()));
+	}
+
+	/**
+	 * Creates the population the engine starts from when given a single assignment: a copy of
+	 * the assignment and, up to the population size, copies of it with a tenth of the cloudlets
+	 * moved to random vms.
+	 *
+	 * @param initial the vm of each cloudlet
+	 * @param vms the number of vms
+	 * @return the population
+	 */
+	public int[][] createPopulation(int[] initial, int vms) {
+		int[][] population = new int[populationSize][];
+		population[0] = initial.clone();
+		for (int i = 1; i < populationSize; i++) {
+			population[i] = perturb(initial, vms, 0.1);
+		}
+		return population;
+	}
+
+	/**
+	 * Gets a copy of an assignment with some cloudlets moved to random vms.
+	 *
+	 * @param assign the vm of each cloudlet
+	 * @param vms the number of vms
+	 * @param rate the probability of each cloudlet being moved
+	 * @return the perturbed copy
+	 */
+	protected int[] perturb(int[] assign, int vms, double rate) {
+		int[] copy = assign.clone();
+		for (int c = 0; c < copy.length; c++) {
+			if (random.nextDouble() < rate) {
+				copy[c] = random.nextInt(vms);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Gets the makespan of an assignment, using a buffer for the vm times so that evaluating
+	 * a whole population allocates nothing.
+	 *
+	 * @param problem the scheduling problem
+	 * @param assign the vm of each cloudlet
+	 * @param times a buffer with room for the time of each vm
+	 * @return the makespan
+	 */
+	protected double makespan(SchedulingProblem problem, int[] assign, double[] times) {
+		return makespan(problem, assign, 0, times);
+	}
+
+	/**
+	 * Gets the makespan of an assignment stored in a flat array of several assignments.
+	 *
+	 * @param problem the scheduling problem
+	 * @param assigns the assignments one after the other
+	 * @param offset the position of the first cloudlet of the assignment
+	 * @param times a buffer with room for the time of each vm
+	 * @return the makespan
+	 */
+	protected double makespan(SchedulingProblem problem, int[] assigns, int offset, double[] times) {
+		return problem.getMakespan(assigns, offset, times);
+	}
+
+	/**
+	 * Sets the seed of the random number generator, for repeatable runs.
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Gets the population size used when the engine is given a single assignment.
+	 *
+	 * @return the population size
+	 */
+	public int getPopulationSize() {
+		return populationSize;
+	}
+
+	/**
+	 * Sets the population size used when the engine is given a single assignment.
+	 *
+	 * @param populationSize the population size
+	 */
+	public void setPopulationSize(int populationSize) {
+		this.populationSize = populationSize;
+	}
+
+}
@@ -0,0 +1,364 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PortfolioEngine runs several engines at once on the same problem, each on its own thread
+ * and with its own copy of the population. Every member publishes the better schedules it
+ * finds to a shared monitor, so the best schedule of the portfolio is known at any time.
+ * <p>
+ * The members race: after a warmup, every race interval each member's improvement rate over
+ * the last quarter of the elapsed time is projected to the deadline, and a member whose
+ * projected makespan is still worse than the best one so far, by more than a tolerance, is
+ * stopped. At the deadline all members are stopped and the best schedule published is
+ * returned. A search running outside the portfolio, as the pollination of the broker, can
+ * take part in the race through a monitor from {@link #createExternalMonitor(String)}.
+ * Members that only schedule independent cloudlets, see {@link AdditiveSchedulingEngine}, sit
+ * out the runs on problems whose cloudlets depend on each other.
+ */
+public class PortfolioEngine extends PopulationSchedulingEngine {
+
+	/** The names of the members. */
+	private final List<String> names;
+
+	/** The members. */
+	private final List<SchedulingEngine> engines;
+
+	/** The monitors of the searches running outside the portfolio. */
+	private final List<SearchMonitor> externalMonitors;
+
+	/** The monitor receiving the schedules of all members, null between runs. */
+	private SearchMonitor sharedMonitor;
+
+	/** The time given to the portfolio, in milliseconds. */
+	private long deadline;
+
+	/** The time between two races, in milliseconds. */
+	private long raceInterval;
+
+	/** The part of the deadline during which no member is stopped. */
+	private double warmup;
+
+	/** How much worse than the best a member may project to be before it is stopped. */
+	private double tolerance;
+
+	/**
+	 * Creates a new portfolio of simulated annealing, tabu search, particle swarm optimization,
+	 * differential evolution, the genetic algorithm and ant colony optimization, with a deadline
+	 * of 5 seconds. Every member runs on a single thread.
+	 */
+	public PortfolioEngine() {
+		this(5000);
+	}
+
+	/**
+	 * Creates a new portfolio of the default members.
+	 *
+	 * @param deadline the time given to the portfolio, in milliseconds
+	 */
+	public PortfolioEngine(long deadline) {
+		names = new ArrayList<String>();
+		engines = new ArrayList<SchedulingEngine>();
+		externalMonitors = new ArrayList<SearchMonitor>();
+		setDeadline(deadline);
+		setRaceInterval(50);
+		setWarmup(0.2);
+		setTolerance(0.01);
+
+		TabuSearchEngine tabu = new TabuSearchEngine();
+		tabu.setThreads(1);
+		DifferentialEvolutionEngine de = new DifferentialEvolutionEngine();
+		de.setThreads(1);
+		AntColonyEngine aco = new AntColonyEngine();
+		aco.setThreads(1);
+		addEngine("sa", new SimulatedAnnealingEngine());
+		addEngine("tabu", tabu);
+		addEngine("pso", new ParticleSwarmEngine());
+		addEngine("de", de);
+		addEngine("ga", new GeneticEngine());
+		addEngine("aco", aco);
+	}
+
+	/**
+	 * Adds a member to the portfolio.
+	 *
+	 * @param name the name of the member, used in the log
+	 * @param engine the engine
+	 */
+	public void addEngine(String name, SchedulingEngine engine) {
+		names.add(name);
+		engines.add(engine);
+	}
+
+	/**
+	 * Removes all members from the portfolio.
+	 */
+	public void clearEngines() {
+		names.clear();
+		engines.clear();
+	}
+
+	/**
+	 * Creates a monitor for a search running outside the portfolio. The search takes part in
+	 * the next run of the portfolio: its schedules count as the portfolio's, it is stopped when
+	 * it loses the race or at the deadline, and the run waits until the monitor is finished.
+	 * The deadline counts from the first monitor created for the run.
+	 *
+	 * @param name the name of the search
+	 * @return the monitor
+	 */
+	public synchronized SearchMonitor createExternalMonitor(String name) {
+		SearchMonitor monitor = new SearchMonitor(name, getSharedMonitor());
+		externalMonitors.add(monitor);
+		return monitor;
+	}
+
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[][] population) {
+		List<SearchMonitor> monitors;
+		SearchMonitor shared;
+		synchronized (this) {
+			shared = getSharedMonitor();
+			monitors = new ArrayList<SearchMonitor>(externalMonitors);
+			sharedMonitor = null;
+			externalMonitors.clear();
+		}
+
+		double[] times = new double[problem.getVmCount()];
+		int best = 0;
+		double bestFitness = Double.MAX_VALUE;
+		for (int i = 0; i < population.length; i++) {
+			double fitness = makespan(problem, population[i], times);
+			if (fitness < bestFitness) {
+				bestFitness = fitness;
+				best = i;
+			}
+		}
+		shared.publish(population[best], bestFitness);
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, engines.size()));
+		List<Future<Object>> results = new ArrayList<Future<Object>>();
+		try {
+			for (int k = 0; k < engines.size(); k++) {
+				if (!problem.isAdditive() && engines.get(k) instanceof AdditiveSchedulingEngine) {
+					Log.printLine("Portfolio: " + names.get(k) + " cannot schedule dependent cloudlets, leaving it out");
+					continue;
+				}
+				SearchMonitor monitor = new SearchMonitor(names.get(k), shared);
+				monitors.add(monitor);
+				results.add(executor.submit(run(engines.get(k), problem.withMonitor(monitor),
+						copy(population), best)));
+			}
+			race(monitors, shared, bestFitness);
+			shared.stop();
+			for (Future<Object> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			shared.stop();
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			shared.stop();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+
+		String leader = "initial population";
+		for (SearchMonitor monitor : monitors) {
+			if (monitor.getBestMakespan() <= shared.getBestMakespan()) {
+				leader = monitor.getName();
+			}
+		}
+		Log.printLine("Portfolio: makespan " + bestFitness + " -> " + shared.getBestMakespan() + " by "
+				+ leader + " in " + shared.getElapsedTime() + " ms");
+		return shared.getBest();
+	}
+
+	/**
+	 * Gets the task running a member on a watched problem.
+	 */
+	private Callable<Object> run(final SchedulingEngine engine, final SchedulingProblem problem,
+			final int[][] population, final int best) {
+		return new Callable<Object>() {
+
+			@Override
+			public Object call() {
+				SearchMonitor monitor = problem.getMonitor();
+				try {
+					int[] assign = engine instanceof PopulationSchedulingEngine
+							? ((PopulationSchedulingEngine) engine).schedule(problem, population)
+							: engine.schedule(problem, population[best]);
+					monitor.publish(assign, problem.getMakespan(assign));
+				} finally {
+					monitor.finish();
+				}
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Stops the losing members until all have finished or the deadline has passed.
+	 */
+	private void race(List<SearchMonitor> monitors, SearchMonitor shared, double initial)
+			throws InterruptedException {
+		while (!isFinished(monitors)) {
+			long remaining = deadline - shared.getElapsedTime();
+			if (remaining <= 0) {
+				return;
+			}
+			Thread.sleep(Math.min(raceInterval, remaining));
+
+			long elapsed = shared.getElapsedTime();
+			if (elapsed < warmup * deadline) {
+				continue;
+			}
+			remaining = Math.max(0, deadline - elapsed);
+			long window = Math.max(raceInterval, elapsed / 4);
+			double limit = shared.getBestMakespan() * (1 + tolerance);
+			for (SearchMonitor monitor : monitors) {
+				if (monitor.isFinished() || monitor.isStopped()) {
+					continue;
+				}
+				// a member starts from the initial population, whatever it has published
+				double current = Math.min(monitor.getBestMakespan(), initial);
+				double past = Math.min(monitor.getBestMakespanAt(elapsed - window), initial);
+				double rate = (past - current) / window;
+				double projected = current - rate * remaining;
+				if (projected > limit) {
+					Log.printLine("Portfolio: stopping " + monitor.getName() + " at " + elapsed + " ms, makespan "
+							+ current + ", projected " + projected);
+					monitor.stop();
+				}
+			}
+		}
+	}
+
+	private static boolean isFinished(List<SearchMonitor> monitors) {
+		for (SearchMonitor monitor : monitors) {
+			if (!monitor.isFinished()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int[][] copy(int[][] population) {
+		int[][] copy = new int[population.length][];
+		for (int i = 0; i < population.length; i++) {
+			copy[i] = population[i].clone();
+		}
+		return copy;
+	}
+
+	private SearchMonitor getSharedMonitor() {
+		if (sharedMonitor == null) {
+			sharedMonitor = new SearchMonitor("portfolio");
+		}
+		return sharedMonitor;
+	}
+
+	/**
+	 * Gets the time given to the portfolio.
+	 *
+	 * @return the deadline in milliseconds
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Sets the time given to the portfolio.
+	 *
+	 * @param deadline the deadline in milliseconds
+	 */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Gets the time between two races.
+	 *
+	 * @return the race interval in milliseconds
+	 */
+	public long getRaceInterval() {
+		return raceInterval;
+	}
+
+	/**
+	 * Sets the time between two races.
+	 *
+	 * @param raceInterval the race interval in milliseconds
+	 */
+	public void setRaceInterval(long raceInterval) {
+		this.raceInterval = raceInterval;
+	}
+
+	/**
+	 * Gets the part of the deadline during which no member is stopped.
+	 *
+	 * @return the warmup, between 0 and 1
+	 */
+	public double getWarmup() {
+		return warmup;
+	}
+
+	/**
+	 * Sets the part of the deadline during which no member is stopped.
+	 *
+	 * @param warmup the warmup, between 0 and 1
+	 */
+	public void setWarmup(double warmup) {
+		this.warmup = warmup;
+	}
+
+	/**
+	 * Gets how much worse than the best a member may project to be before it is stopped.
+	 *
+	 * @return the tolerance, relative to the best makespan
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * Sets how much worse than the best a member may project to be before it is stopped.
+	 *
+	 * @param tolerance the tolerance, relative to the best makespan
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Gets a description of the portfolio, its members and its race settings, which tells runs
+	 * of different settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(getClass().getSimpleName()).append("[members=");
+		for (int k = 0; k < engines.size(); k++) {
+			builder.append(k == 0 ? "" : ", ").append(names.get(k)).append(' ').append(engines.get(k));
+		}
+		return builder.append(", deadline=").append(deadline).append(", raceInterval=").append(raceInterval)
+				.append(", warmup=").append(warmup).append(", tolerance=").append(tolerance).append(']').toString();
+	}
+
+}
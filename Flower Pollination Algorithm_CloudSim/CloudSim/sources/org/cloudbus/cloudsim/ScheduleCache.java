@@ -0,0 +1,255 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * ScheduleCache keeps the schedules found for past batches on disk, so that a batch seen
+ * before is submitted at once instead of being optimised again. A batch is identified by a
+ * fingerprint of its cloudlet lengths in increasing order, the mips of its vms in increasing
+ * order and a string describing the objective and the settings of the search, so the order
+ * in which the cloudlets and vms were submitted does not matter but a schedule found by one
+ * search is not served to another. A schedule is kept as the vm rank of each cloudlet rank and
+ * mapped back onto the cloudlets and vms of the batch looking it up.
+ * <p>
+ * Each schedule is a file named by the fingerprint in the cache directory. When the files
+ * take more than the size bound, the least recently used ones are deleted. The cache is best
+ * effort: a schedule that cannot be read or written is logged and treated as missing.
+ */
+public class ScheduleCache {
+
+	/** The suffix of the schedule files. */
+	private static final String SUFFIX = ".schedule";
+
+	/** The directory of the schedule files. */
+	private final File directory;
+
+	/** The most bytes the schedule files may take. */
+	private long maxBytes;
+
+	/** The number of lookups that found a schedule. */
+	private int hits;
+
+	/** The number of lookups that did not. */
+	private int misses;
+
+	/**
+	 * Creates a new cache of at most 64 MB.
+	 *
+	 * @param directory the directory of the schedule files, created if missing
+	 */
+	public ScheduleCache(String directory) {
+		this(directory, 64L << 20);
+	}
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param directory the directory of the schedule files, created if missing
+	 * @param maxBytes the most bytes the schedule files may take
+	 */
+	public ScheduleCache(String directory, long maxBytes) {
+		this.directory = new File(directory);
+		this.directory.mkdirs();
+		setMaxBytes(maxBytes);
+	}
+
+	/**
+	 * Gets the schedule kept for a batch.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @param mips the mips of each vm
+	 * @param objective the description of the objective and of the settings of the search
+	 * @return the vm of each cloudlet, null if no schedule is kept for the batch
+	 */
+	public int[] get(long[] lengths, double[] mips, String objective) {
+		File file = getFile(lengths, mips, objective);
+		if (!file.isFile()) {
+			misses++;
+			return null;
+		}
+		int[] cloudletOrder = ScheduleUtil.increasingOrder(lengths);
+		int[] vmOrder = ScheduleUtil.increasingOrder(mips);
+		int[] assign = new int[lengths.length];
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new FileReader(file));
+			String[] sizes = reader.readLine().trim().split(" ");
+			String[] ranks = reader.readLine().trim().split(" ");
+			if (Integer.parseInt(sizes[0]) != lengths.length || Integer.parseInt(sizes[1]) != mips.length
+					|| ranks.length != lengths.length) {
+				throw new IOException("size mismatch");
+			}
+			for (int r = 0; r < ranks.length; r++) {
+				assign[cloudletOrder[r]] = vmOrder[Integer.parseInt(ranks[r])];
+			}
+		} catch (Exception e) {
+			Log.printLine("ScheduleCache: cannot read " + file + ": " + e);
+			misses++;
+			return null;
+		} finally {
+			ScheduleUtil.close(reader, "ScheduleCache");
+		}
+		file.setLastModified(System.currentTimeMillis());
+		hits++;
+		return assign;
+	}
+
+	/**
+	 * Keeps the schedule of a batch, deleting the least recently used schedules if the cache
+	 * grows past its size bound.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @param mips the mips of each vm
+	 * @param objective the description of the objective and of the settings of the search
+	 * @param assign the vm of each cloudlet
+	 */
+	public void put(long[] lengths, double[] mips, String objective, int[] assign) {
+		int[] cloudletOrder = ScheduleUtil.increasingOrder(lengths);
+		int[] vmRanks = new int[mips.length];
+		int[] vmOrder = ScheduleUtil.increasingOrder(mips);
+		for (int r = 0; r < vmOrder.length; r++) {
+			vmRanks[vmOrder[r]] = r;
+		}
+		StringBuilder builder = new StringBuilder();
+		builder.append(lengths.length).append(' ').append(mips.length).append('\n');
+		for (int r = 0; r < cloudletOrder.length; r++) {
+			builder.append(r == 0 ? "" : " ").append(vmRanks[assign[cloudletOrder[r]]]);
+		}
+		builder.append('\n');
+
+		File file = getFile(lengths, mips, objective);
+		FileWriter writer = null;
+		try {
+			writer = new FileWriter(file);
+			writer.write(builder.toString());
+		} catch (IOException e) {
+			Log.printLine("ScheduleCache: cannot write " + file + ": " + e);
+		} finally {
+			ScheduleUtil.close(writer, "ScheduleCache");
+		}
+		evict();
+	}
+
+	/**
+	 * Gets the fingerprint of a batch.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @param mips the mips of each vm
+	 * @param objective the description of the objective and of the settings of the search
+	 * @return the fingerprint, a SHA-256 digest in hexadecimal
+	 */
+	public String getFingerprint(long[] lengths, double[] mips, String objective) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+		digest.update(objective.getBytes());
+		for (int c : ScheduleUtil.increasingOrder(lengths)) {
+			buffer.clear();
+			digest.update(buffer.putLong(lengths[c]).array());
+		}
+		// the vm count separates the lengths from the mips
+		buffer.clear();
+		digest.update(buffer.putLong(-mips.length).array());
+		for (int vm : ScheduleUtil.increasingOrder(mips)) {
+			buffer.clear();
+			digest.update(buffer.putDouble(mips[vm]).array());
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * Deletes the least recently used schedules until the files take no more than the size
+	 * bound.
+	 */
+	protected void evict() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		long bytes = 0;
+		for (File file : files) {
+			bytes += file.getName().endsWith(SUFFIX) ? file.length() : 0;
+		}
+		if (bytes <= maxBytes) {
+			return;
+		}
+		long[] used = new long[files.length];
+		for (int k = 0; k < files.length; k++) {
+			used[k] = files[k].lastModified();
+		}
+		int[] order = ScheduleUtil.increasingOrder(used);
+		for (int k = 0; k < order.length && bytes > maxBytes; k++) {
+			File file = files[order[k]];
+			if (file.getName().endsWith(SUFFIX)) {
+				long length = file.length();
+				if (file.delete()) {
+					bytes -= length;
+				}
+			}
+		}
+	}
+
+	private File getFile(long[] lengths, double[] mips, String objective) {
+		return new File(directory, getFingerprint(lengths, mips, objective) + SUFFIX);
+	}
+
+	/**
+	 * Gets the most bytes the schedule files may take.
+	 *
+	 * @return the size bound
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Sets the most bytes the schedule files may take.
+	 *
+	 * @param maxBytes the size bound
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Gets the number of lookups that found a schedule.
+	 *
+	 * @return the hits
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of lookups that did not find a schedule.
+	 *
+	 * @return the misses
+	 */
+	public int getMisses() {
+		return misses;
+	}
+
+}
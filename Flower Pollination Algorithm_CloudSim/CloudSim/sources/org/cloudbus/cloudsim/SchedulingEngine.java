@@ -0,0 +1,28 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * A SchedulingEngine maps cloudlets to vms. A broker given an engine hands it the best
+ * solution of its initial population and submits the cloudlets as the engine assigned them.
+ */
+public interface SchedulingEngine {
+
+	/**
+	 * Finds a schedule for a problem.
+	 *
+	 * @param problem the scheduling problem
+	 * @param initial a starting assignment, the vm of each cloudlet
+	 * @return the vm of each cloudlet
+	 * @pre problem != null
+	 * @pre initial.length == problem.getCloudletCount()
+	 */
+	int[] schedule(SchedulingProblem problem, int[] initial);
+
+}
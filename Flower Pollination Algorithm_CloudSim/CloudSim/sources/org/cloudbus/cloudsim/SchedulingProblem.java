@@ -0,0 +1,216 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * SchedulingProblem is a dense copy of a cloudlet to vm scheduling instance. Cloudlets and vms
+ * are addressed by their position in the cloudlet list and the vms created list of the broker,
+ * and a schedule is an assignment array where assign[c] is the vm of cloudlet c.
+ */
+public class SchedulingProblem implements Cloneable {
+
+	/** The length of each cloudlet. */
+	protected long[] lengths;
+
+	/** The mips of each vm. */
+	protected double[] mips;
+
+	/** The monitor of the search on this problem, null if nobody watches it. */
+	protected SearchMonitor monitor;
+
+	/**
+	 * Creates a new scheduling problem.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @param mips the mips of each vm
+	 */
+	public SchedulingProblem(long[] lengths, double[] mips) {
+		this.lengths = lengths;
+		this.mips = mips;
+	}
+
+	/**
+	 * Gets the number of cloudlets.
+	 *
+	 * @return the cloudlet count
+	 */
+	public int getCloudletCount() {
+		return lengths.length;
+	}
+
+	/**
+	 * Gets the number of vms.
+	 *
+	 * @return the vm count
+	 */
+	public int getVmCount() {
+		return mips.length;
+	}
+
+	/**
+	 * Gets the length of a cloudlet.
+	 *
+	 * @param cloudlet the cloudlet index
+	 * @return the length
+	 */
+	public long getLength(int cloudlet) {
+		return lengths[cloudlet];
+	}
+
+	/**
+	 * Gets the mips of a vm.
+	 *
+	 * @param vm the vm index
+	 * @return the mips
+	 */
+	public double getMips(int vm) {
+		return mips[vm];
+	}
+
+	/**
+	 * Gets the cloudlet indexes from the longest to the shortest cloudlet, ties by index.
+	 *
+	 * @return the cloudlet indexes, longest first
+	 */
+	public int[] getLongestFirst() {
+		return ScheduleUtil.longestFirst(lengths);
+	}
+
+	/**
+	 * Gets the time a cloudlet takes on a vm.
+	 *
+	 * @param cloudlet the cloudlet index
+	 * @param vm the vm index
+	 * @return the runtime
+	 */
+	public double getRuntime(int cloudlet, int vm) {
+		return lengths[cloudlet] / mips[vm];
+	}
+
+	/**
+	 * Tells whether the time of a vm is the sum of the runtimes of its cloudlets, plus a time
+	 * that does not depend on the assignment, so that moving a cloudlet changes the times of
+	 * its two vms by its runtimes and nothing else. Engines that keep vm times up to date that
+	 * way, see {@link AdditiveSchedulingEngine}, need an additive problem.
+	 *
+	 * @return true, the cloudlets are independent
+	 */
+	public boolean isAdditive() {
+		return true;
+	}
+
+	/**
+	 * Gets the execution time of each vm under an assignment.
+	 *
+	 * @param assign the vm of each cloudlet
+	 * @return the execution time of each vm
+	 */
+	public double[] getVmTimes(int[] assign) {
+		double[] times = new double[getVmCount()];
+		computeVmTimes(assign, 0, times);
+		return times;
+	}
+
+	/**
+	 * Gets the makespan of an assignment, the fitness used by the brokers.
+	 *
+	 * @param assign the vm of each cloudlet
+	 * @return the makespan
+	 */
+	public double getMakespan(int[] assign) {
+		return getMakespan(assign, 0, new double[getVmCount()]);
+	}
+
+	/**
+	 * Gets the makespan of an assignment stored in a flat array of several assignments, using
+	 * a buffer for the vm times so that evaluating a whole population allocates nothing.
+	 *
+	 * @param assigns the assignments one after the other
+	 * @param offset the position of the first cloudlet of the assignment
+	 * @param times a buffer with room for the time of each vm
+	 * @return the makespan
+	 */
+	public double getMakespan(int[] assigns, int offset, double[] times) {
+		computeVmTimes(assigns, offset, times);
+		double makespan = 0;
+		for (int vm = 0; vm < times.length; vm++) {
+			makespan = Math.max(makespan, times[vm]);
+		}
+		return makespan;
+	}
+
+	/**
+	 * Computes the time at which each vm finishes its cloudlets under an assignment. The
+	 * cloudlets are independent, so a vm finishes after the sum of their runtimes.
+	 *
+	 * @param assigns the assignments one after the other
+	 * @param offset the position of the first cloudlet of the assignment
+	 * @param times the time of each vm, set by this method
+	 */
+	protected void computeVmTimes(int[] assigns, int offset, double[] times) {
+		for (int vm = 0; vm < times.length; vm++) {
+			times[vm] = 0;
+		}
+		int cloudlets = getCloudletCount();
+		for (int c = 0; c < cloudlets; c++) {
+			int vm = assigns[offset + c];
+			times[vm] += getRuntime(c, vm);
+		}
+	}
+
+	/**
+	 * Gets a copy of this problem, sharing its data, whose searches are watched by a monitor.
+	 *
+	 * @param monitor the monitor
+	 * @return the watched problem
+	 */
+	public SchedulingProblem withMonitor(SearchMonitor monitor) {
+		try {
+			SchedulingProblem copy = (SchedulingProblem) clone();
+			copy.monitor = monitor;
+			return copy;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Gets the monitor of the search on this problem.
+	 *
+	 * @return the monitor, null if nobody watches the search
+	 */
+	public SearchMonitor getMonitor() {
+		return monitor;
+	}
+
+	/**
+	 * Publishes a better schedule to the monitor, if there is one. Engines call this when they
+	 * improve their best schedule.
+	 *
+	 * @param assign the vm of each cloudlet
+	 * @param makespan the makespan of the schedule
+	 */
+	public void publish(int[] assign, double makespan) {
+		if (monitor != null) {
+			monitor.publish(assign, makespan);
+		}
+	}
+
+	/**
+	 * Tells whether the search on this problem should stop, because a portfolio or a deadline
+	 * stopped it. Engines call this every iteration and return their best schedule when it is
+	 * true.
+	 *
+	 * @return true if the search should stop
+	 */
+	public boolean isStopped() {
+		return monitor != null && monitor.isStopped();
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+
+/**
+ * SearchMonitor watches one search while it runs. The search publishes every better schedule it
+ * finds and asks from time to time whether it should stop. The monitor keeps the best schedule
+ * and the time of each improvement, so that whoever watches can judge the trajectory of the
+ * search and stop it. A monitor may have a parent, which then receives every schedule published
+ * to it and stops it when the parent is stopped.
+ */
+public class SearchMonitor {
+
+	/** The name of the search. */
+	private final String name;
+
+	/** The monitor receiving the schedules published to this one, null if none. */
+	private final SearchMonitor parent;
+
+	/** The time the monitor was created, in milliseconds. */
+	private final long startTime;
+
+	/** Whether the search was asked to stop. */
+	private volatile boolean stopped;
+
+	/** Whether the search has ended. */
+	private volatile boolean finished;
+
+	/** The best schedule published. */
+	private int[] best;
+
+	/** The makespan of the best schedule published. */
+	private double bestMakespan;
+
+	/** The time of each improvement since the start, in milliseconds. */
+	private long[] improvementTimes;
+
+	/** The makespan after each improvement. */
+	private double[] improvementMakespans;
+
+	/** The number of improvements. */
+	private int improvements;
+
+	/**
+	 * Creates a new monitor without a parent.
+	 *
+	 * @param name the name of the search
+	 */
+	public SearchMonitor(String name) {
+		this(name, null);
+	}
+
+	/**
+	 * Creates a new monitor.
+	 *
+	 * @param name the name of the search
+	 * @param parent the monitor receiving the schedules published to this one, null if none
+	 */
+	public SearchMonitor(String name, SearchMonitor parent) {
+		this.name = name;
+		this.parent = parent;
+		startTime = System.currentTimeMillis();
+		bestMakespan = Double.MAX_VALUE;
+		improvementTimes = new long[16];
+		improvementMakespans = new double[16];
+	}
+
+	/**
+	 * Publishes a schedule. It is kept if it is better than the best published so far.
+	 *
+	 * @param assign the vm of each cloudlet
+	 * @param makespan the makespan of the schedule
+	 */
+	public void publish(int[] assign, double makespan) {
+		synchronized (this) {
+			if (makespan >= bestMakespan) {
+				return;
+			}
+			best = assign.clone();
+			bestMakespan = makespan;
+			if (improvements == improvementTimes.length) {
+				improvementTimes = Arrays.copyOf(improvementTimes, 2 * improvements);
+				improvementMakespans = Arrays.copyOf(improvementMakespans, 2 * improvements);
+			}
+			improvementTimes[improvements] = getElapsedTime();
+			improvementMakespans[improvements] = makespan;
+			improvements++;
+		}
+		// outside the lock, so that a parent never waits for a child
+		if (parent != null) {
+			parent.publish(assign, makespan);
+		}
+	}
+
+	/**
+	 * Gets a copy of the best schedule published.
+	 *
+	 * @return the vm of each cloudlet, null if nothing was published
+	 */
+	public synchronized int[] getBest() {
+		return best == null ? null : best.clone();
+	}
+
+	/**
+	 * Gets the makespan of the best schedule published.
+	 *
+	 * @return the makespan, Double.MAX_VALUE if nothing was published
+	 */
+	public synchronized double getBestMakespan() {
+		return bestMakespan;
+	}
+
+	/**
+	 * Gets the makespan of the best schedule published up to a time.
+	 *
+	 * @param time the time since the start, in milliseconds
+	 * @return the makespan, Double.MAX_VALUE if nothing was published by then
+	 */
+	public synchronized double getBestMakespanAt(long time) {
+		double makespan = Double.MAX_VALUE;
+		for (int i = 0; i < improvements && improvementTimes[i] <= time; i++) {
+			makespan = improvementMakespans[i];
+		}
+		return makespan;
+	}
+
+	/**
+	 * Gets the time since the monitor was created.
+	 *
+	 * @return the elapsed time in milliseconds
+	 */
+	public long getElapsedTime() {
+		return System.currentTimeMillis() - startTime;
+	}
+
+	/**
+	 * Asks the search to stop.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Tells whether the search was asked to stop, directly or through its parent.
+	 *
+	 * @return true if the search should stop
+	 */
+	public boolean isStopped() {
+		return stopped || parent != null && parent.isStopped();
+	}
+
+	/**
+	 * Records that the search has ended.
+	 */
+	public void finish() {
+		finished = true;
+	}
+
+	/**
+	 * Tells whether the search has ended.
+	 *
+	 * @return true if the search has ended
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Gets the name of the search.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Random;
+
+/**
+ * SimulatedAnnealingEngine schedules cloudlets by simulated annealing on a single assignment.
+ * Each step moves a cloudlet to another vm or swaps two cloudlets, and the makespan after the
+ * step is found incrementally, so a run of a million steps takes well under a second. Only
+ * problems of independent cloudlets can be scheduled that way.
+ */
+public class SimulatedAnnealingEngine implements AdditiveSchedulingEngine {
+
+	/** The ways the temperature can go down from the initial to the final temperature. */
+	public enum Cooling {
+		/** The temperature is multiplied by the same factor every step. */
+		GEOMETRIC,
+		/** The temperature goes down by the same amount every step. */
+		LINEAR
+	}
+
+	/** The number of steps. */
+	private long iterations;
+
+	/** The initial temperature, as a fraction of the initial makespan. */
+	private double initialTemperature;
+
+	/** The final temperature, as a fraction of the initial makespan. */
+	private double finalTemperature;
+
+	/** The cooling schedule. */
+	private Cooling cooling;
+
+	/** The probability of a swap step instead of a move step. */
+	private double swapProbability;
+
+	/** The random number generator. */
+	private Random random;
+
+	/**
+	 * Creates a new engine with a million steps of geometric cooling.
+	 */
+	public SimulatedAnnealingEngine() {
+		this(1000000, 0.05, 0.0001, Cooling.GEOMETRIC);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param iterations the number of steps
+	 * @param initialTemperature the initial temperature as a fraction of the initial makespan
+	 * @param finalTemperature the final temperature as a fraction of the initial makespan
+	 * @param cooling the cooling schedule
+	 * @pre iterations > 0
+	 * @pre initialTemperature >= finalTemperature > 0
+	 */
+	public SimulatedAnnealingEngine(long iterations, double initialTemperature,
+			double finalTemperature, Cooling cooling) {
+		setIterations(iterations);
+		setInitialTemperature(initialTemperature);
+		setFinalTemperature(finalTemperature);
+		setCooling(cooling);
+		setSwapProbability(0.3);
+		random = new Random();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException if the problem is not additive
+	 */
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[] initial) {
+		if (!problem.isAdditive()) {
+			throw new IllegalArgumentException("Simulated annealing needs a problem of independent cloudlets");
+		}
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		if (cloudlets == 0 || vms < 2) {
+			return initial.clone();
+		}
+
+		IncrementalSchedule schedule = new IncrementalSchedule(problem, initial);
+		double current = schedule.getMakespan();
+		double best = current;
+		int[] bestAssign = schedule.getAssignment();
+
+		double startTemperature = initialTemperature * current;
+		double endTemperature = finalTemperature * current;
+		double factor = Math.pow(endTemperature / startTemperature, 1.0 / iterations);
+		double temperature = startTemperature;
+		double published = best;
+
+		for (long step = 0; step < iterations; step++) {
+			if ((step & 4095) == 0) {
+				// improvements come too often to publish each one
+				if (best < published) {
+					problem.publish(bestAssign, best);
+					published = best;
+				}
+				if (problem.isStopped()) {
+					break;
+				}
+			}
+
+			// half the steps take a cloudlet off the vm that decides the makespan, if it has any
+			// besides its backlog
+			int cloudlet;
+			int critical = schedule.getCriticalVm();
+			if (random.nextBoolean() && schedule.getCloudletCount(critical) > 0) {
+				cloudlet = schedule.getCloudlet(critical, random.nextInt(schedule.getCloudletCount(critical)));
+			} else {
+				cloudlet = random.nextInt(cloudlets);
+			}
+
+			boolean swap = random.nextDouble() < swapProbability;
+			int other;
+			double next;
+			if (swap) {
+				other = random.nextInt(cloudlets);
+				next = schedule.swapMakespan(cloudlet, other);
+			} else {
+				other = random.nextInt(vms - 1);
+				if (other >= schedule.getVm(cloudlet)) {
+					other++;
+				}
+				next = schedule.moveMakespan(cloudlet, other);
+			}
+
+			double delta = next - current;
+			if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+				if (swap) {
+					schedule.swap(cloudlet, other);
+				} else {
+					schedule.move(cloudlet, other);
+				}
+				current = next;
+				if (current < best) {
+					best = current;
+					bestAssign = schedule.getAssignment();
+				}
+			}
+
+			if (cooling == Cooling.GEOMETRIC) {
+				temperature *= factor;
+			} else {
+				temperature = startTemperature - (startTemperature - endTemperature) * (step + 1) / iterations;
+			}
+		}
+
+		problem.publish(bestAssign, best);
+		Log.printLine("Simulated annealing: makespan " + problem.getMakespan(initial) + " -> " + best);
+		return bestAssign;
+	}
+
+	/**
+	 * Sets the seed of the random number generator, for repeatable runs.
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Gets the number of steps.
+	 *
+	 * @return the iterations
+	 */
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets the number of steps.
+	 *
+	 * @param iterations the iterations
+	 */
+	public void setIterations(long iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Gets the initial temperature as a fraction of the initial makespan.
+	 *
+	 * @return the initial temperature
+	 */
+	public double getInitialTemperature() {
+		return initialTemperature;
+	}
+
+	/**
+	 * Sets the initial temperature as a fraction of the initial makespan.
+	 *
+	 * @param initialTemperature the initial temperature
+	 */
+	public void setInitialTemperature(double initialTemperature) {
+		this.initialTemperature = initialTemperature;
+	}
+
+	/**
+	 * Gets the final temperature as a fraction of the initial makespan.
+	 *
+	 * @return the final temperature
+	 */
+	public double getFinalTemperature() {
+		return finalTemperature;
+	}
+
+	/**
+	 * Sets the final temperature as a fraction of the initial makespan.
+	 *
+	 * @param finalTemperature the final temperature
+	 */
+	public void setFinalTemperature(double finalTemperature) {
+		this.finalTemperature = finalTemperature;
+	}
+
+	/**
+	 * Gets the cooling schedule.
+	 *
+	 * @return the cooling schedule
+	 */
+	public Cooling getCooling() {
+		return cooling;
+	}
+
+	/**
+	 * Sets the cooling schedule.
+	 *
+	 * @param cooling the cooling schedule
+	 */
+	public void setCooling(Cooling cooling) {
+		this.cooling = cooling;
+	}
+
+	/**
+	 * Gets the probability of a swap step instead of a move step.
+	 *
+	 * @return the swap probability
+	 */
+	public double getSwapProbability() {
+		return swapProbability;
+	}
+
+	/**
+	 * Sets the probability of a swap step instead of a move step.
+	 *
+	 * @param swapProbability the swap probability
+	 */
+	public void setSwapProbability(double swapProbability) {
+		this.swapProbability = swapProbability;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[iterations=" + iterations + ", initialTemperature=" + initialTemperature
+				+ ", finalTemperature=" + finalTemperature + ", cooling=" + cooling + ", swapProbability=" + swapProbability + "]";
+	}
+
+}
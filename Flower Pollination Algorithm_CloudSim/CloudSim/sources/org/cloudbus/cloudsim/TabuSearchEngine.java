@@ -0,0 +1,543 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * TabuSearchEngine schedules cloudlets by tabu search. Every iteration looks at moving a
+ * cloudlet off the vm that decides the makespan, or swapping it with a cloudlet of another
+ * vm, and takes the best step that is not tabu. A cloudlet may not go back to a vm it left
+ * for a number of iterations, unless that gives a new best makespan. Large neighbourhoods are
+ * evaluated in parallel. The steps are evaluated incrementally, so only problems of
+ * independent cloudlets can be scheduled.
+ */
+public class TabuSearchEngine implements AdditiveSchedulingEngine {
+
+	/** Neighbourhoods smaller than this are evaluated on the calling thread. */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	/** The number of iterations. */
+	private int iterations;
+
+	/** The number of iterations without a new best makespan after which the search stops. */
+	private int stallLimit;
+
+	/** The number of iterations a cloudlet may not go back to a vm it left. */
+	private int tenure;
+
+	/** The largest number of steps looked at in an iteration, larger neighbourhoods are sampled. */
+	private int maxNeighbours;
+
+	/** The number of threads evaluating the neighbourhood. */
+	private int threads;
+
+	/** The random number generator. */
+	private Random random;
+
+	/**
+	 * Creates a new engine.
+	 */
+	public TabuSearchEngine() {
+		this(2000, 200, 10);
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param iterations the number of iterations
+	 * @param stallLimit the number of iterations without a new best makespan before stopping
+	 * @param tenure the number of iterations a cloudlet may not go back to a vm it left
+	 * @pre iterations > 0
+	 * @pre tenure > 0
+	 */
+	public TabuSearchEngine(int iterations, int stallLimit, int tenure) {
+		setIterations(iterations);
+		setStallLimit(stallLimit);
+		setTenure(tenure);
+		setMaxNeighbours(20000);
+		setThreads(Runtime.getRuntime().availableProcessors());
+		random = new Random();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException if the problem is not additive
+	 */
+	@Override
+	public int[] schedule(SchedulingProblem problem, int[] initial) {
+		if (!problem.isAdditive()) {
+			throw new IllegalArgumentException("Tabu search needs a problem of independent cloudlets");
+		}
+		if (problem.getCloudletCount() == 0 || problem.getVmCount() < 2) {
+			return initial.clone();
+		}
+
+		IncrementalSchedule schedule = new IncrementalSchedule(problem, initial);
+		TabuMemory tabu = new TabuMemory(4 * tenure + 16);
+		double best = schedule.getMakespan();
+		int[] bestAssign = schedule.getAssignment();
+
+		ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			int stall = 0;
+			for (int iteration = 0; iteration < iterations && stall < stallLimit && !problem.isStopped(); iteration++) {
+				Neighbourhood neighbourhood = new Neighbourhood(schedule, tabu, iteration, best);
+				Candidate step = neighbourhood.search(executor);
+				if (step == null) {
+					break;
+				}
+
+				// forbid the cloudlets to go back to the vms they leave
+				int critical = schedule.getCriticalVm();
+				if (step.swap) {
+					int otherVm = schedule.getVm(step.second);
+					tabu.put(step.first, critical, iteration, iteration + tenure);
+					tabu.put(step.second, otherVm, iteration, iteration + tenure);
+					schedule.swap(step.first, step.second);
+				} else {
+					tabu.put(step.first, critical, iteration, iteration + tenure);
+					schedule.move(step.first, step.second);
+				}
+
+				if (schedule.getMakespan() < best) {
+					best = schedule.getMakespan();
+					bestAssign = schedule.getAssignment();
+					problem.publish(bestAssign, best);
+					stall = 0;
+				} else {
+					stall++;
+				}
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
+
+		Log.printLine("Tabu search: makespan " + problem.getMakespan(initial) + " -> " + best);
+		return bestAssign;
+	}
+
+	/**
+	 * The steps around the current schedule: moving a cloudlet of the critical vm to another
+	 * vm, or swapping it with a cloudlet of another vm. Steps are numbered, moves first, so
+	 * they can be split in ranges between threads or sampled.
+	 */
+	private class Neighbourhood {
+
+		private IncrementalSchedule schedule;
+
+		private TabuMemory tabu;
+
+		private int iteration;
+
+		private double best;
+
+		private int critical;
+
+		private int vms;
+
+		private int cloudlets;
+
+		private long moves;
+
+		private long size;
+
+		Neighbourhood(IncrementalSchedule schedule, TabuMemory tabu, int iteration, double best) {
+			this.schedule = schedule;
+			this.tabu = tabu;
+			this.iteration = iteration;
+			this.best = best;
+			critical = schedule.getCriticalVm();
+			vms = schedule.getProblem().getVmCount();
+			cloudlets = schedule.getProblem().getCloudletCount();
+			int count = schedule.getCloudletCount(critical);
+			moves = (long) count * (vms - 1);
+			size = moves + (long) count * cloudlets;
+		}
+
+		/**
+		 * Finds the best step that is not tabu, or is tabu but gives a new best makespan.
+		 */
+		Candidate search(ExecutorService executor) {
+			final long[] steps;
+			final long total;
+			if (size > maxNeighbours) {
+				steps = new long[maxNeighbours];
+				for (int i = 0; i < maxNeighbours; i++) {
+					steps[i] = (long) (random.nextDouble() * size);
+				}
+				total = maxNeighbours;
+			} else {
+				steps = null;
+				total = size;
+			}
+
+			if (executor == null || total < PARALLEL_THRESHOLD) {
+				return evaluate(steps, 0, total);
+			}
+
+			List<Future<Candidate>> results = new ArrayList<Future<Candidate>>();
+			long chunk = (total + threads - 1) / threads;
+			for (long from = 0; from < total; from += chunk) {
+				final long start = from;
+				final long end = Math.min(total, from + chunk);
+				results.add(executor.submit(new Callable<Candidate>() {
+
+					@Override
+					public Candidate call() {
+						return evaluate(steps, start, end);
+					}
+				}));
+			}
+
+			Candidate best = null;
+			try {
+				for (Future<Candidate> result : results) {
+					Candidate candidate = result.get();
+					if (candidate != null && candidate.betterThan(best)) {
+						best = candidate;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+			return best;
+		}
+
+		/**
+		 * Evaluates the steps with numbers from start to end, or the sampled steps at those
+		 * positions. Only reads the schedule, so ranges can be evaluated at the same time.
+		 */
+		Candidate evaluate(long[] steps, long start, long end) {
+			// makespan and balance of a step, filled in by step()
+			double[] value = new double[2];
+			long bestNumber = -1;
+			double bestMakespan = Double.MAX_VALUE;
+			double bestBalance = Double.MAX_VALUE;
+			for (long i = start; i < end; i++) {
+				long number = steps == null ? i : steps[(int) i];
+				if (step(number, value) && (value[0] < bestMakespan
+						|| (value[0] == bestMakespan && value[1] < bestBalance))) {
+					bestNumber = number;
+					bestMakespan = value[0];
+					bestBalance = value[1];
+				}
+			}
+			if (bestNumber < 0) {
+				return null;
+			}
+
+			Candidate candidate = new Candidate();
+			if (bestNumber < moves) {
+				candidate.first = schedule.getCloudlet(critical, (int) (bestNumber / (vms - 1)));
+				candidate.second = (int) (bestNumber % (vms - 1));
+				if (candidate.second >= critical) {
+					candidate.second++;
+				}
+			} else {
+				candidate.swap = true;
+				candidate.first = schedule.getCloudlet(critical, (int) ((bestNumber - moves) / cloudlets));
+				candidate.second = (int) ((bestNumber - moves) % cloudlets);
+			}
+			candidate.makespan = bestMakespan;
+			candidate.balance = bestBalance;
+			return candidate;
+		}
+
+		/**
+		 * Finds the makespan and balance after a step, false if the step is not allowed.
+		 */
+		private boolean step(long number, double[] value) {
+			SchedulingProblem problem = schedule.getProblem();
+			double time1;
+			double time2;
+			boolean isTabu;
+			if (number < moves) {
+				int cloudlet = schedule.getCloudlet(critical, (int) (number / (vms - 1)));
+				int vm = (int) (number % (vms - 1));
+				if (vm >= critical) {
+					vm++;
+				}
+				value[0] = schedule.moveMakespan(cloudlet, vm);
+				time1 = schedule.getVmTime(critical) - problem.getRuntime(cloudlet, critical);
+				time2 = schedule.getVmTime(vm) + problem.getRuntime(cloudlet, vm);
+				isTabu = tabu.isTabu(cloudlet, vm, iteration);
+			} else {
+				number -= moves;
+				int cloudlet = schedule.getCloudlet(critical, (int) (number / cloudlets));
+				int other = (int) (number % cloudlets);
+				int vm = schedule.getVm(other);
+				if (vm == critical) {
+					return false;
+				}
+				value[0] = schedule.swapMakespan(cloudlet, other);
+				time1 = schedule.getVmTime(critical) - problem.getRuntime(cloudlet, critical)
+						+ problem.getRuntime(other, critical);
+				time2 = schedule.getVmTime(vm) - problem.getRuntime(other, vm) + problem.getRuntime(cloudlet, vm);
+				isTabu = tabu.isTabu(cloudlet, vm, iteration) || tabu.isTabu(other, critical, iteration);
+			}
+
+			// aspiration: a tabu step is allowed if it gives a new best makespan
+			if (isTabu && value[0] >= best) {
+				return false;
+			}
+			// among steps with the same makespan prefer the one that balances the two vms most
+			value[1] = time1 * time1 + time2 * time2;
+			return true;
+		}
+
+	}
+
+	/**
+	 * A step of the search, a move of the first cloudlet to the second vm or a swap of the
+	 * first and the second cloudlet.
+	 */
+	private static class Candidate {
+
+		boolean swap;
+
+		int first;
+
+		int second;
+
+		double makespan;
+
+		double balance;
+
+		boolean betterThan(Candidate other) {
+			return other == null || makespan < other.makespan
+					|| (makespan == other.makespan && balance < other.balance);
+		}
+
+	}
+
+	/**
+	 * TabuMemory holds the (cloudlet, vm) pairs that are tabu and the iteration each pair
+	 * stops being tabu, in an open addressing hash table of primitive arrays. Expired pairs are
+	 * dropped when the table is rebuilt, so its size follows the tenure and not the instance.
+	 */
+	private static class TabuMemory {
+
+		private long[] keys;
+
+		private int[] expiries;
+
+		private boolean[] used;
+
+		private int count;
+
+		TabuMemory(int capacity) {
+			int size = Integer.highestOneBit(Math.max(16, capacity)) * 2;
+			keys = new long[size];
+			expiries = new int[size];
+			used = new boolean[size];
+			count = 0;
+		}
+
+		boolean isTabu(int cloudlet, int vm, int iteration) {
+			long key = key(cloudlet, vm);
+			int mask = keys.length - 1;
+			for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return expiries[i] > iteration;
+				}
+			}
+			return false;
+		}
+
+		void put(int cloudlet, int vm, int iteration, int expiry) {
+			if (2 * (count + 1) > keys.length) {
+				rebuild(iteration);
+			}
+			long key = key(cloudlet, vm);
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while (used[i] && keys[i] != key) {
+				i = (i + 1) & mask;
+			}
+			if (!used[i]) {
+				used[i] = true;
+				keys[i] = key;
+				count++;
+			}
+			expiries[i] = expiry;
+		}
+
+		/**
+		 * Drops the pairs that are no longer tabu, growing the table if most pairs still are.
+		 */
+		private void rebuild(int iteration) {
+			long[] oldKeys = keys;
+			int[] oldExpiries = expiries;
+			boolean[] oldUsed = used;
+			int live = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldUsed[i] && oldExpiries[i] > iteration) {
+					live++;
+				}
+			}
+			int size = oldKeys.length;
+			while (4 * (live + 1) > size) {
+				size *= 2;
+			}
+			keys = new long[size];
+			expiries = new int[size];
+			used = new boolean[size];
+			count = 0;
+			int mask = size - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldUsed[i] && oldExpiries[i] > iteration) {
+					int j = hash(oldKeys[i]) & mask;
+					while (used[j]) {
+						j = (j + 1) & mask;
+					}
+					used[j] = true;
+					keys[j] = oldKeys[i];
+					expiries[j] = oldExpiries[i];
+					count++;
+				}
+			}
+		}
+
+		private static long key(int cloudlet, int vm) {
+			return ((long) cloudlet << 32) | (vm & 0xffffffffL);
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+
+	}
+
+	/**
+	 * Sets the seed of the random number generator, for repeatable runs.
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Gets the number of iterations.
+	 *
+	 * @return the iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets the number of iterations.
+	 *
+	 * @param iterations the iterations
+	 */
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Gets the number of iterations without a new best makespan after which the search stops.
+	 *
+	 * @return the stall limit
+	 */
+	public int getStallLimit() {
+		return stallLimit;
+	}
+
+	/**
+	 * Sets the number of iterations without a new best makespan after which the search stops.
+	 *
+	 * @param stallLimit the stall limit
+	 */
+	public void setStallLimit(int stallLimit) {
+		this.stallLimit = stallLimit;
+	}
+
+	/**
+	 * Gets the number of iterations a cloudlet may not go back to a vm it left.
+	 *
+	 * @return the tenure
+	 */
+	public int getTenure() {
+		return tenure;
+	}
+
+	/**
+	 * Sets the number of iterations a cloudlet may not go back to a vm it left.
+	 *
+	 * @param tenure the tenure
+	 */
+	public void setTenure(int tenure) {
+		this.tenure = tenure;
+	}
+
+	/**
+	 * Gets the largest number of steps looked at in an iteration.
+	 *
+	 * @return the max neighbours
+	 */
+	public int getMaxNeighbours() {
+		return maxNeighbours;
+	}
+
+	/**
+	 * Sets the largest number of steps looked at in an iteration, larger neighbourhoods are
+	 * sampled.
+	 *
+	 * @param maxNeighbours the max neighbours
+	 */
+	public void setMaxNeighbours(int maxNeighbours) {
+		this.maxNeighbours = maxNeighbours;
+	}
+
+	/**
+	 * Gets the number of threads evaluating the neighbourhood.
+	 *
+	 * @return the threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of threads evaluating the neighbourhood.
+	 *
+	 * @param threads the threads
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Gets a description of the engine and its settings, which tells runs of different
+	 * settings apart.
+	 *
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[iterations=" + iterations + ", stallLimit=" + stallLimit + ", tenure=" + tenure
+				+ ", maxNeighbours=" + maxNeighbours + "]";
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * A TraceCloudlet is a cloudlet read from a workload trace, which keeps the time its job was
+ * submitted so that it can be sent to the broker when it arrives rather than all at once.
+ */
+public class TraceCloudlet extends Cloudlet {
+
+	/** The time the job was submitted, from the first job of the trace. */
+	private final double submitTime;
+
+	/**
+	 * Creates a new trace cloudlet.
+	 *
+	 * @param cloudletId the unique ID of this cloudlet
+	 * @param cloudletLength the length of this cloudlet
+	 * @param pesNumber the pes number
+	 * @param cloudletFileSize the file size of this cloudlet before it runs
+	 * @param cloudletOutputSize the file size of this cloudlet after it runs
+	 * @param utilizationModelCpu the utilization model cpu
+	 * @param utilizationModelRam the utilization model ram
+	 * @param utilizationModelBw the utilization model bw
+	 * @param submitTime the time the job was submitted, from the first job of the trace
+	 */
+	public TraceCloudlet(int cloudletId, long cloudletLength, int pesNumber, long cloudletFileSize,
+			long cloudletOutputSize, UtilizationModel utilizationModelCpu, UtilizationModel utilizationModelRam,
+			UtilizationModel utilizationModelBw, double submitTime) {
+		super(cloudletId, cloudletLength, pesNumber, cloudletFileSize, cloudletOutputSize, utilizationModelCpu,
+				utilizationModelRam, utilizationModelBw);
+		this.submitTime = submitTime;
+	}
+
+	/**
+	 * Gets the time the job was submitted, from the first job of the trace.
+	 *
+	 * @return the submit time
+	 */
+	public double getSubmitTime() {
+		return submitTime;
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * WorkflowSchedulingProblem is a scheduling problem whose cloudlets depend on each other. A
+ * cloudlet starts when its vm is free and all its predecessors have finished. Every vm runs
+ * its cloudlets in the order of their upward rank, the average runtime of the cloudlet and of
+ * the longest path of successors after it, which is the priority of HEFT; that order is also
+ * an order in which every cloudlet comes after its predecessors. The makespan of an
+ * assignment is the time the last cloudlet finishes, so every engine that evaluates through
+ * {@link #getMakespan(int[], int, double[])} schedules for the workflow. The vm times are not
+ * sums of runtimes, so the engines that add up runtimes themselves reject this problem.
+ */
+public class WorkflowSchedulingProblem extends SchedulingProblem {
+
+	/** The positions of the predecessors of each cloudlet. */
+	protected int[][] predecessors;
+
+	/** The cloudlets by decreasing upward rank. */
+	protected int[] priorityOrder;
+
+	/** The upward rank of each cloudlet. */
+	protected double[] upwardRanks;
+
+	/** The finish time of each cloudlet, one buffer for each thread evaluating makespans. */
+	private final ThreadLocal<double[]> finishTimes = new ThreadLocal<double[]>();
+
+	/**
+	 * Creates a new workflow scheduling problem.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @param mips the mips of each vm
+	 * @param predecessors the positions of the predecessors of each cloudlet
+	 * @throws IllegalArgumentException if the dependencies have a cycle
+	 */
+	public WorkflowSchedulingProblem(long[] lengths, double[] mips, int[][] predecessors) {
+		super(lengths, mips);
+		this.predecessors = predecessors;
+		computePriorityOrder();
+	}
+
+	/**
+	 * Gets the positions of the predecessors of a cloudlet.
+	 *
+	 * @param cloudlet the cloudlet index
+	 * @return the predecessors
+	 */
+	public int[] getPredecessors(int cloudlet) {
+		return predecessors[cloudlet];
+	}
+
+	/**
+	 * Gets the cloudlet at a position of the priority order.
+	 *
+	 * @param k the position in the priority order
+	 * @return the cloudlet index
+	 */
+	public int getPriorityCloudlet(int k) {
+		return priorityOrder[k];
+	}
+
+	/**
+	 * Gets the upward rank of a cloudlet.
+	 *
+	 * @param cloudlet the cloudlet index
+	 * @return the upward rank
+	 */
+	public double getUpwardRank(int cloudlet) {
+		return upwardRanks[cloudlet];
+	}
+
+	/**
+	 * Tells whether the time of a vm is the sum of the runtimes of its cloudlets.
+	 *
+	 * @return false, a cloudlet may wait for its predecessors
+	 */
+	@Override
+	public boolean isAdditive() {
+		return false;
+	}
+
+	@Override
+	protected void computeVmTimes(int[] assigns, int offset, double[] times) {
+		for (int vm = 0; vm < times.length; vm++) {
+			times[vm] = 0;
+		}
+		// every finish time is set before it is read, so the buffer needs no clearing
+		double[] finish = finishTimes.get();
+		if (finish == null) {
+			finish = new double[getCloudletCount()];
+			finishTimes.set(finish);
+		}
+		for (int k = 0; k < priorityOrder.length; k++) {
+			int c = priorityOrder[k];
+			int vm = assigns[offset + c];
+			double start = times[vm];
+			for (int p : predecessors[c]) {
+				start = Math.max(start, finish[p]);
+			}
+			finish[c] = start + getRuntime(c, vm);
+			times[vm] = finish[c];
+		}
+	}
+
+	/**
+	 * Sorts the cloudlets by decreasing upward rank, after checking that the dependencies
+	 * have no cycle.
+	 */
+	private void computePriorityOrder() {
+		int cloudlets = getCloudletCount();
+		int[] successorCount = new int[cloudlets];
+		for (int c = 0; c < cloudlets; c++) {
+			for (int p : predecessors[c]) {
+				successorCount[p]++;
+			}
+		}
+		int[][] successors = new int[cloudlets][];
+		for (int c = 0; c < cloudlets; c++) {
+			successors[c] = new int[successorCount[c]];
+			successorCount[c] = 0;
+		}
+		for (int c = 0; c < cloudlets; c++) {
+			for (int p : predecessors[c]) {
+				successors[p][successorCount[p]++] = c;
+			}
+		}
+
+		// reverse topological order: a cloudlet comes once all its successors have come
+		int[] reverse = new int[cloudlets];
+		int[] waiting = new int[cloudlets];
+		int count = 0;
+		for (int c = 0; c < cloudlets; c++) {
+			waiting[c] = successors[c].length;
+			if (waiting[c] == 0) {
+				reverse[count++] = c;
+			}
+		}
+		for (int k = 0; k < count; k++) {
+			for (int p : predecessors[reverse[k]]) {
+				if (--waiting[p] == 0) {
+					reverse[count++] = p;
+				}
+			}
+		}
+		if (count < cloudlets) {
+			throw new IllegalArgumentException("The cloudlet dependencies have a cycle");
+		}
+
+		double inverseMips = 0;
+		for (int vm = 0; vm < getVmCount(); vm++) {
+			inverseMips += 1 / getMips(vm);
+		}
+		inverseMips /= Math.max(1, getVmCount());
+		upwardRanks = new double[cloudlets];
+		final int[] topological = new int[cloudlets];
+		for (int k = 0; k < cloudlets; k++) {
+			int c = reverse[k];
+			topological[c] = cloudlets - 1 - k;
+			double longest = 0;
+			for (int s : successors[c]) {
+				longest = Math.max(longest, upwardRanks[s]);
+			}
+			upwardRanks[c] = getLength(c) * inverseMips + longest;
+		}
+
+		// a predecessor always ranks at least as high, ties go by topological order
+		Integer[] sorted = new Integer[cloudlets];
+		for (int c = 0; c < cloudlets; c++) {
+			sorted[c] = c;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				int c = Double.compare(upwardRanks[b], upwardRanks[a]);
+				return c != 0 ? c : topological[a] - topological[b];
+			}
+		});
+		priorityOrder = new int[cloudlets];
+		for (int k = 0; k < cloudlets; k++) {
+			priorityOrder[k] = sorted[k];
+		}
+	}
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * WorkloadTraceReader streams the jobs of a workload trace as cloudlets, a chunk at a time,
+ * so that only the chunk being read is held in memory rather than the trace as a whole.
+ * It reads the Standard Workload Format of the Parallel Workloads Archive and the Grid
+ * Workloads Archive format, plain or gzipped, whose first fields are the same: job number,
+ * submit time, wait time, run time and number of processors. Fields are separated by blanks
+ * or commas; lines starting with ';' or '#', and header lines whose first field is not a
+ * number, are skipped, as are jobs with no run time.
+ * <p>
+ * The length of a cloudlet is the run time of its job times the rating of the machines the
+ * trace was recorded on, as CloudSim's WorkloadFileReader computes it. A job on more
+ * processors than the cloudlets may have keeps its work, its length growing by the same
+ * factor. Cloudlets are numbered from 0 in the order read, as the brokers expect, and keep
+ * the submit time of their job counted from the first job read, since some traces give it
+ * as a date rather than from the start of the trace. A submit time that cannot be read is
+ * taken as that of the job before.
+ */
+public class WorkloadTraceReader implements Closeable {
+
+	/** The column of the submit time, from 1. */
+	private static final int SUBMIT_TIME_COLUMN = 2;
+
+	/** The column of the run time, from 1. */
+	private static final int RUN_TIME_COLUMN = 4;
+
+	/** The column of the allocated processors, from 1. */
+	private static final int PROCESSORS_COLUMN = 5;
+
+	/** The column of the requested processors, used when none were allocated, from 1. */
+	private static final int REQUESTED_PROCESSORS_COLUMN = 8;
+
+	/** The reader of the trace. */
+	private final BufferedReader reader;
+
+	/** The id of the user owning the cloudlets. */
+	private final int userId;
+
+	/** The mips of a processor of the machines the trace was recorded on. */
+	private final double rating;
+
+	/** The most pes of a cloudlet. */
+	private int maxPes;
+
+	/** The submit time of the first job read, negative before it is read. */
+	private double firstSubmitTime = -1;
+
+	/** The submit time of the last job read, from the first job. */
+	private double lastSubmitTime;
+
+	/** The id of the next cloudlet. */
+	private int nextId;
+
+	/** The fields of the line being parsed, as start and end offsets. */
+	private final int[] fields;
+
+	/**
+	 * Opens a trace.
+	 *
+	 * @param fileName the trace file, gzipped if its name ends in .gz
+	 * @param userId the id of the user owning the cloudlets
+	 * @param rating the mips of a processor of the machines the trace was recorded on
+	 * @throws IOException if the trace cannot be opened
+	 */
+	public WorkloadTraceReader(String fileName, int userId, double rating) throws IOException {
+		InputStream in = Files.newInputStream(Paths.get(fileName));
+		if (fileName.endsWith(".gz")) {
+			in = new GZIPInputStream(in, 1 << 16);
+		}
+		reader = new BufferedReader(new InputStreamReader(in, Charset.forName("US-ASCII")), 1 << 16);
+		this.userId = userId;
+		this.rating = rating;
+		fields = new int[2 * REQUESTED_PROCESSORS_COLUMN];
+		setMaxPes(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Reads the next cloudlets of the trace.
+	 *
+	 * @param count the most cloudlets
+	 * @return the cloudlets, in the order of the trace, empty at its end
+	 * @throws IOException if the trace cannot be read
+	 */
+	public List<TraceCloudlet> readCloudlets(int count) throws IOException {
+		List<TraceCloudlet> cloudlets = new ArrayList<TraceCloudlet>(Math.min(count, 1 << 16));
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		String line;
+		while (cloudlets.size() < count && (line = reader.readLine()) != null) {
+			int found = split(line);
+			if (found < PROCESSORS_COLUMN || !Character.isDigit(line.charAt(fields[0]))) {
+				continue;
+			}
+			double runTime = parse(line, RUN_TIME_COLUMN);
+			if (runTime <= 0) {
+				continue;
+			}
+			int processors = (int) parse(line, PROCESSORS_COLUMN);
+			if (processors <= 0 && found >= REQUESTED_PROCESSORS_COLUMN) {
+				processors = (int) parse(line, REQUESTED_PROCESSORS_COLUMN);
+			}
+			processors = Math.max(1, processors);
+			int pes = Math.min(processors, maxPes);
+			long length = Math.max(1, (long) (runTime * rating * processors / pes));
+			double submitTime = parse(line, SUBMIT_TIME_COLUMN);
+			if (submitTime >= 0 && firstSubmitTime < 0) {
+				firstSubmitTime = submitTime;
+			}
+			if (submitTime >= 0) {
+				lastSubmitTime = submitTime - firstSubmitTime;
+			}
+			TraceCloudlet cloudlet = new TraceCloudlet(nextId++, length, pes, 0, 0, utilizationModel,
+					utilizationModel, utilizationModel, lastSubmitTime);
+			cloudlet.setUserId(userId);
+			cloudlets.add(cloudlet);
+		}
+		return cloudlets;
+	}
+
+	/**
+	 * Finds the fields of a line up to the last column read, without copying it.
+	 *
+	 * @return the number of fields found, 0 for a comment
+	 */
+	private int split(String line) {
+		int length = line.length();
+		int found = 0;
+		int k = 0;
+		while (found < fields.length / 2) {
+			while (k < length && isSeparator(line.charAt(k))) {
+				k++;
+			}
+			if (k == length || (found == 0 && (line.charAt(k) == ';' || line.charAt(k) == '#'))) {
+				break;
+			}
+			fields[2 * found] = k;
+			while (k < length && !isSeparator(line.charAt(k))) {
+				k++;
+			}
+			fields[2 * found + 1] = k;
+			found++;
+		}
+		return found;
+	}
+
+	private static boolean isSeparator(char c) {
+		return c == ' ' || c == '\t' || c == ',';
+	}
+
+	private double parse(String line, int column) {
+		try {
+			return Double.parseDouble(line.substring(fields[2 * column - 2], fields[2 * column - 1]));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Gets the number of cloudlets read so far.
+	 *
+	 * @return the cloudlet count
+	 */
+	public int getCloudletCount() {
+		return nextId;
+	}
+
+	/**
+	 * Gets the most pes of a cloudlet.
+	 *
+	 * @return the most pes
+	 */
+	public int getMaxPes() {
+		return maxPes;
+	}
+
+	/**
+	 * Sets the most pes of a cloudlet, as many as the vms have. A job on more processors runs
+	 * on this many pes, its length growing so that it keeps its work.
+	 *
+	 * @param maxPes the most pes
+	 */
+	public void setMaxPes(int maxPes) {
+		this.maxPes = maxPes;
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the schedules branch and bound calls optimal against an exhaustive search of every
+ * assignment, on problems of up to 6 cloudlets and 6 vms.
+ */
+public class BranchAndBoundEngineTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testOptimalOnIndependentProblems() {
+		Random random = new Random(1);
+		for (int run = 0; run < 200; run++) {
+			SchedulingProblem problem = new SchedulingProblem(createLengths(random), createMips(random));
+			checkOptimal(problem, random);
+		}
+	}
+
+	@Test
+	public void testOptimalOnBacklogProblems() {
+		Random random = new Random(2);
+		for (int run = 0; run < 200; run++) {
+			double[] mips = createMips(random);
+			double[] backlogs = new double[mips.length];
+			for (int vm = 0; vm < backlogs.length; vm++) {
+				backlogs[vm] = random.nextInt(3) == 0 ? 0 : 30 * random.nextDouble();
+			}
+			checkOptimal(new BacklogSchedulingProblem(createLengths(random), mips, backlogs), random);
+		}
+	}
+
+	@Test
+	public void testSingleCloudlet() {
+		SchedulingProblem problem = new SchedulingProblem(new long[] { 1000 }, new double[] { 100, 500, 250 });
+		int[] assign = new BranchAndBoundEngine().schedule(problem, new int[] { 0 });
+		assertEquals(1, assign[0]);
+		assertEquals(2.0, problem.getMakespan(assign), DELTA);
+	}
+
+	/**
+	 * Schedules a problem from a random start and compares it with the exhaustive optimum.
+	 */
+	private static void checkOptimal(SchedulingProblem problem, Random random) {
+		int[] initial = new int[problem.getCloudletCount()];
+		for (int c = 0; c < initial.length; c++) {
+			initial[c] = random.nextInt(problem.getVmCount());
+		}
+		BranchAndBoundEngine engine = new BranchAndBoundEngine();
+		int[] assign = engine.schedule(problem, initial);
+		double optimum = exhaustiveMakespan(problem);
+
+		assertTrue("the search was cut short", engine.isOptimal());
+		assertEquals(optimum, problem.getMakespan(assign), DELTA);
+		assertTrue("the lower bound is above the optimum", engine.getLowerBound() <= optimum + DELTA);
+	}
+
+	/**
+	 * Gets the best makespan of all the assignments, counting through them like an odometer.
+	 */
+	private static double exhaustiveMakespan(SchedulingProblem problem) {
+		int cloudlets = problem.getCloudletCount();
+		int vms = problem.getVmCount();
+		int[] assign = new int[cloudlets];
+		double best = Double.MAX_VALUE;
+		while (true) {
+			best = Math.min(best, problem.getMakespan(assign));
+			int c = 0;
+			while (c < cloudlets && assign[c] == vms - 1) {
+				assign[c++] = 0;
+			}
+			if (c == cloudlets) {
+				return best;
+			}
+			assign[c]++;
+		}
+	}
+
+	private static long[] createLengths(Random random) {
+		long[] lengths = new long[1 + random.nextInt(6)];
+		for (int c = 0; c < lengths.length; c++) {
+			// a few equal lengths, so that ties are searched too
+			lengths[c] = 1000 * (1 + random.nextInt(10));
+		}
+		return lengths;
+	}
+
+	private static double[] createMips(Random random) {
+		double[] mips = new double[1 + random.nextInt(6)];
+		for (int vm = 0; vm < mips.length; vm++) {
+			mips[vm] = 100 * (1 + random.nextInt(10));
+		}
+		return mips;
+	}
+
+}
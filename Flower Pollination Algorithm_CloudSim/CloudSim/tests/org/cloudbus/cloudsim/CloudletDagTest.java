@@ -0,0 +1,104 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks the dependencies a dag keeps and the makespan of a workflow built from them.
+ */
+public class CloudletDagTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testDependencies() {
+		CloudletDag dag = new CloudletDag();
+		dag.addDependency(1, 3);
+		dag.addDependency(2, 3);
+		dag.addDependency(3, 4);
+
+		assertEquals(Arrays.asList(1, 2), dag.getPredecessors(3));
+		assertEquals(Arrays.asList(3), dag.getSuccessors(2));
+		assertTrue(dag.getPredecessors(1).isEmpty());
+		assertTrue(dag.getSuccessors(4).isEmpty());
+
+		List<Integer> finished = new ArrayList<Integer>();
+		assertTrue(dag.isReady(1, finished));
+		finished.add(1);
+		assertFalse(dag.isReady(3, finished));
+		finished.add(2);
+		assertTrue(dag.isReady(3, finished));
+		assertFalse(dag.isReady(4, finished));
+	}
+
+	@Test
+	public void testPredecessorPositions() {
+		CloudletDag dag = new CloudletDag();
+		dag.addDependency(10, 30);
+		dag.addDependency(20, 30);
+		// cloudlet 99 is not in the list, so the dependency on it is left out
+		dag.addDependency(99, 20);
+		List<Cloudlet> cloudlets = new ArrayList<Cloudlet>();
+		cloudlets.add(createCloudlet(30));
+		cloudlets.add(createCloudlet(10));
+		cloudlets.add(createCloudlet(20));
+
+		int[][] positions = dag.getPredecessorPositions(cloudlets);
+		assertArrayEquals(new int[] { 1, 2 }, positions[0]);
+		assertArrayEquals(new int[0], positions[1]);
+		assertArrayEquals(new int[0], positions[2]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSelfDependency() {
+		new CloudletDag().addDependency(5, 5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCycle() {
+		int[][] predecessors = { { 2 }, { 0 }, { 1 } };
+		new WorkflowSchedulingProblem(new long[] { 1000, 1000, 1000 }, new double[] { 100 }, predecessors);
+	}
+
+	@Test
+	public void testWorkflowMakespan() {
+		// a chain 0 -> 1 -> 2 and an independent cloudlet 3, on two vms of 100 mips
+		int[][] predecessors = { {}, { 0 }, { 1 }, {} };
+		WorkflowSchedulingProblem problem = new WorkflowSchedulingProblem(new long[] { 1000, 2000, 1000, 3000 },
+				new double[] { 100, 100 }, predecessors);
+
+		// the chain on one vm takes 40 after the independent cloudlet
+		assertEquals(70.0, problem.getMakespan(new int[] { 0, 0, 0, 0 }), DELTA);
+		// the chain on one vm and the independent cloudlet on the other
+		assertEquals(40.0, problem.getMakespan(new int[] { 0, 0, 0, 1 }), DELTA);
+		// cloudlet 1 waits for cloudlet 0 on the other vm, and a vm runs its cloudlets in rank
+		// order, so cloudlet 2 also waits for cloudlet 3 to finish at 40
+		assertEquals(50.0, problem.getMakespan(new int[] { 0, 1, 0, 0 }), DELTA);
+		assertFalse(problem.isAdditive());
+		// the upward rank of a predecessor covers the path after it
+		assertTrue(problem.getUpwardRank(0) > problem.getUpwardRank(1));
+		assertTrue(problem.getUpwardRank(1) > problem.getUpwardRank(2));
+	}
+
+	private static Cloudlet createCloudlet(int id) {
+		UtilizationModel model = new UtilizationModelFull();
+		return new Cloudlet(id, 1000, 1, 300, 300, model, model, model);
+	}
+
+}
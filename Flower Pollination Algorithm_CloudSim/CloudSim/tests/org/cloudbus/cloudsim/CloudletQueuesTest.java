@@ -0,0 +1,190 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks the vm queues of a broker and the problems they build, on cloudlets and vms that
+ * are never handed to a simulation.
+ */
+public class CloudletQueuesTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testQueuesInOrderSent() {
+		CloudletQueues queues = new CloudletQueues();
+		Cloudlet first = createCloudlet(0, 1000, 3);
+		Cloudlet second = createCloudlet(1, 2000, 3);
+		queues.add(first, 3);
+		queues.add(second, 3);
+		assertEquals(Arrays.asList(first, second), queues.getQueue(3));
+		assertTrue(queues.getQueue(4).isEmpty());
+
+		assertTrue(queues.remove(first));
+		assertFalse(queues.remove(first));
+		assertEquals(Arrays.asList(second), queues.getQueue(3));
+	}
+
+	@Test
+	public void testBacklogProblem() {
+		CloudletQueues queues = new CloudletQueues();
+		List<Vm> vms = Arrays.asList(createVm(7, 100), createVm(8, 500));
+		queues.add(createCloudlet(0, 1000, 7), 7);
+		queues.add(createCloudlet(1, 3000, 7), 7);
+		queues.add(createCloudlet(2, 1000, 8), 8);
+
+		List<Cloudlet> arrivals = Arrays.asList(createCloudlet(3, 500, -1), createCloudlet(4, 2500, -1));
+		BacklogSchedulingProblem problem = queues.createBacklogProblem(arrivals, vms, new RuntimeModel());
+		assertEquals(2, problem.getCloudletCount());
+		assertEquals(2, problem.getVmCount());
+		assertEquals(40.0, problem.getBacklog(0), DELTA);
+		assertEquals(2.0, problem.getBacklog(1), DELTA);
+		// both arrivals finish first on the faster vm, after its backlog
+		int[] assign = problem.getEarliestFinishAssignment();
+		assertArrayEquals(new int[] { 1, 1 }, assign);
+		assertEquals(8.0, problem.getVmTimes(assign)[1], DELTA);
+	}
+
+	@Test
+	public void testBacklogPricedByModel() {
+		CloudletQueues queues = new CloudletQueues();
+		Vm vm = createVm(7, 100);
+		queues.add(createCloudlet(0, 1000, 7), 7);
+		RuntimeModel model = new RuntimeModel();
+		// the vm showed it runs at half its mips
+		model.record(RuntimeModelTest.createReturned(1, 1000, 20, Cloudlet.SUCCESS), vm);
+
+		BacklogSchedulingProblem problem = queues.createBacklogProblem(Arrays.asList(createCloudlet(2, 500, -1)),
+				Arrays.asList(vm), model);
+		assertEquals(20.0, problem.getBacklog(0), DELTA);
+		assertEquals(50.0, problem.getMips(0), DELTA);
+		assertEquals(30.0, problem.getMakespan(new int[] { 0 }), DELTA);
+	}
+
+	@Test
+	public void testMoves() {
+		CloudletQueues queues = new CloudletQueues();
+		List<Vm> vms = Arrays.asList(createVm(7, 100), createVm(8, 100));
+		Cloudlet moving = createCloudlet(0, 1000, 7);
+		Cloudlet returning = createCloudlet(1, 1000, 7);
+		queues.add(moving, 7);
+		queues.add(returning, 7);
+		queues.startMove(moving, 8);
+		queues.startMove(returning, 8);
+		assertEquals(Integer.valueOf(8), queues.getMove(moving));
+
+		// until the cancellation comes back the moving cloudlet counts on the vm it moves to
+		BacklogSchedulingProblem problem = queues.createBacklogProblem(new ArrayList<Cloudlet>(), vms, new RuntimeModel());
+		assertEquals(0.0, problem.getBacklog(0), DELTA);
+		assertEquals(20.0, problem.getBacklog(1), DELTA);
+
+		// a cloudlet that returns before its cancellation is no longer moved
+		queues.remove(returning);
+		assertNull(queues.getMove(returning));
+		assertNull(queues.finishMove(returning));
+
+		assertEquals(Integer.valueOf(8), queues.finishMove(moving));
+		assertNull(queues.getMove(moving));
+		assertTrue(queues.getQueue(7).isEmpty());
+	}
+
+	@Test
+	public void testRebalanceOntoNewVm() {
+		CloudletQueues queues = new CloudletQueues();
+		Cloudlet running = createCloudlet(0, 1000, 7);
+		Cloudlet first = createCloudlet(1, 1000, 7);
+		Cloudlet second = createCloudlet(2, 1000, 7);
+		queues.add(running, 7);
+		queues.add(first, 7);
+		queues.add(second, 7);
+
+		// alone on its vm nothing can move
+		assertTrue(queues.planRebalance(Arrays.asList(createVm(7, 100)), new RuntimeModel(), null).isEmpty());
+
+		List<Vm> vms = Arrays.asList(createVm(7, 100), createVm(8, 100));
+		CloudletQueues.Moves moves = queues.planRebalance(vms, new RuntimeModel(), null);
+		assertEquals(1, moves.getVmIds().size());
+		assertEquals(Integer.valueOf(8), moves.getVmIds().get(first));
+		assertEquals(30.0, moves.getMakespanBefore(), DELTA);
+		assertEquals(20.0, moves.getMakespanAfter(), DELTA);
+	}
+
+	@Test
+	public void testRunningCloudletsStay() {
+		CloudletQueues queues = new CloudletQueues();
+		queues.add(createCloudlet(0, 1000, 7), 7);
+		queues.add(createCloudlet(1, 1000, 7), 7);
+		// a vm with two pes runs both, so there is nothing waiting to move
+		List<Vm> vms = Arrays.asList(createVm(7, 100, 2), createVm(8, 100));
+		assertTrue(queues.planRebalance(vms, new RuntimeModel(), null).isEmpty());
+	}
+
+	@Test
+	public void testIdleVmStealsFromTail() {
+		CloudletQueues queues = new CloudletQueues();
+		Cloudlet running = createCloudlet(0, 1000, 7);
+		Cloudlet first = createCloudlet(1, 1000, 7);
+		Cloudlet last = createCloudlet(2, 1000, 7);
+		queues.add(running, 7);
+		queues.add(first, 7);
+		queues.add(last, 7);
+		List<Vm> vms = Arrays.asList(createVm(7, 100), createVm(8, 100));
+
+		CloudletQueues.Moves moves = queues.planSteal(vms, new RuntimeModel(), 0, 0);
+		assertEquals(1, moves.getVmIds().size());
+		assertEquals(Integer.valueOf(8), moves.getVmIds().get(last));
+		assertEquals(30.0, moves.getMakespanBefore(), DELTA);
+		assertEquals(20.0, moves.getMakespanAfter(), DELTA);
+
+		// once the steal is under way the other vm is busy and nothing more gains
+		queues.startMove(last, 8);
+		assertTrue(queues.planSteal(vms, new RuntimeModel(), 0, 15).isEmpty());
+	}
+
+	@Test
+	public void testNoStealWithoutIdleVm() {
+		CloudletQueues queues = new CloudletQueues();
+		queues.add(createCloudlet(0, 1000, 7), 7);
+		queues.add(createCloudlet(1, 1000, 7), 7);
+		queues.add(createCloudlet(2, 1000, 8), 8);
+		List<Vm> vms = Arrays.asList(createVm(7, 100), createVm(8, 100));
+		// the other vm still has 10 to run, more than the idle time
+		assertTrue(queues.planSteal(vms, new RuntimeModel(), 0, 5).isEmpty());
+		// within the idle time it would take the waiting cloudlet, but would not finish earlier
+		assertTrue(queues.planSteal(vms, new RuntimeModel(), 0, 10).isEmpty());
+	}
+
+	static Cloudlet createCloudlet(int id, long length, int vmId) {
+		UtilizationModel model = new UtilizationModelFull();
+		Cloudlet cloudlet = new Cloudlet(id, length, 1, 300, 300, model, model, model);
+		cloudlet.setVmId(vmId);
+		return cloudlet;
+	}
+
+	static Vm createVm(int id, double mips) {
+		return createVm(id, mips, 1);
+	}
+
+	static Vm createVm(int id, double mips, int pes) {
+		return new Vm(id, 0, mips, pes, 512, 1000, 10000, "Xen", new CloudletSchedulerSpaceShared());
+	}
+
+}
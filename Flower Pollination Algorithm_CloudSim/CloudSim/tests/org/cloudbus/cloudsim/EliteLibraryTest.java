@@ -0,0 +1,99 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the elites kept for a batch come back for it, from memory and from the file,
+ * and are mapped by rank onto a batch of another size.
+ */
+public class EliteLibraryTest {
+
+	private static final long[] LENGTHS = { 4000, 1000, 3000, 2000, 5000, 6000 };
+
+	private static final double[] MIPS = { 250, 1000, 500 };
+
+	private File file;
+
+	private List<int[]> elites;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("elites", ".txt");
+		file.delete();
+		elites = new ArrayList<int[]>();
+		elites.add(new int[] { 1, 0, 2, 2, 1, 1 });
+		elites.add(new int[] { 2, 0, 1, 0, 1, 2 });
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testRoundTrip() {
+		EliteLibrary library = new EliteLibrary(file.getPath());
+		assertTrue(library.getNearest(LENGTHS, MIPS, 10).isEmpty());
+		library.add(LENGTHS, MIPS, elites);
+		checkElites(library.getNearest(LENGTHS, MIPS, 10));
+	}
+
+	@Test
+	public void testRoundTripThroughFile() {
+		new EliteLibrary(file.getPath()).add(LENGTHS, MIPS, elites);
+		EliteLibrary library = new EliteLibrary(file.getPath());
+		assertEquals(1, library.size());
+		checkElites(library.getNearest(LENGTHS, MIPS, 10));
+	}
+
+	@Test
+	public void testCount() {
+		EliteLibrary library = new EliteLibrary(file.getPath());
+		library.add(LENGTHS, MIPS, elites);
+		assertEquals(1, library.getNearest(LENGTHS, MIPS, 1).size());
+	}
+
+	@Test
+	public void testLargerBatch() {
+		EliteLibrary library = new EliteLibrary(file.getPath());
+		library.add(LENGTHS, MIPS, elites);
+
+		// every cloudlet twice: each copy takes the vm of the cloudlet it copies
+		long[] lengths = new long[2 * LENGTHS.length];
+		for (int c = 0; c < lengths.length; c++) {
+			lengths[c] = LENGTHS[c / 2];
+		}
+		List<int[]> nearest = library.getNearest(lengths, MIPS, 1);
+		assertEquals(1, nearest.size());
+		for (int c = 0; c < lengths.length; c++) {
+			assertEquals(elites.get(0)[c / 2], nearest.get(0)[c]);
+		}
+	}
+
+	private void checkElites(List<int[]> nearest) {
+		assertEquals(elites.size(), nearest.size());
+		for (int i = 0; i < elites.size(); i++) {
+			assertArrayEquals(elites.get(i), nearest.get(i));
+		}
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the crossover and mutation on the per-vm cloudlet lists, and that a generation keeps
+ * the best of parents and children.
+ */
+public class GeneticOperatorsTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testCrossover() {
+		ArrayList<ArrayList<Integer>> first = solution(new int[] { 0, 1 }, new int[] { 2 }, new int[] { 3 });
+		ArrayList<ArrayList<Integer>> second = solution(new int[] { 3 }, new int[] { 0 }, new int[] { 1, 2 });
+		ArrayList<ArrayList<Integer>> child = GeneticOperators.crossover(first, second, 1);
+		assertEquals(solution(new int[] { 0, 1 }, new int[] { 2 }, new int[] { 1, 2 }), child);
+		// the child has its own lists
+		child.get(0).add(9);
+		assertEquals(2, first.get(0).size());
+	}
+
+	@Test
+	public void testSwapMutationKeepsTheCloudlets() {
+		Random random = new Random(1);
+		ArrayList<ArrayList<Integer>> sol = solution(new int[] { 0, 1 }, new int[] {}, new int[] { 2, 3, 4 });
+		for (int step = 0; step < 100; step++) {
+			GeneticOperators.swapMutation(sol, random);
+			assertEquals(2, sol.get(0).size());
+			assertEquals(0, sol.get(1).size());
+			List<Integer> all = new ArrayList<Integer>();
+			for (List<Integer> vm : sol) {
+				all.addAll(vm);
+			}
+			Collections.sort(all);
+			assertEquals(Arrays.asList(0, 1, 2, 3, 4), all);
+		}
+	}
+
+	@Test
+	public void testGenerationKeepsTheBest() {
+		final SchedulingProblem problem = new SchedulingProblem(new long[] { 4000, 1000, 3000, 2000, 5000, 1000 },
+				new double[] { 250, 1000, 500 });
+		GeneticOperators.Breeder<int[]> breeder = new GeneticOperators.Breeder<int[]>() {
+
+			@Override
+			public int[] crossover(int[] first, int[] second, int point) {
+				int[] child = new int[first.length];
+				for (int c = 0; c < child.length; c++) {
+					child[c] = c <= point ? first[c] : second[c];
+				}
+				return child;
+			}
+
+			@Override
+			public void mutate(int[] child, Random random) {
+				child[random.nextInt(child.length)] = random.nextInt(problem.getVmCount());
+			}
+
+			@Override
+			public double getFitness(int[] solution) {
+				return problem.getMakespan(solution);
+			}
+		};
+		Random random = new Random(2);
+		List<int[]> population = new ArrayList<int[]>();
+		double[] fitness = new double[8];
+		for (int i = 0; i < fitness.length; i++) {
+			int[] assign = new int[problem.getCloudletCount()];
+			for (int c = 0; c < assign.length; c++) {
+				assign[c] = random.nextInt(problem.getVmCount());
+			}
+			population.add(assign);
+			fitness[i] = breeder.getFitness(assign);
+		}
+		double best = min(fitness);
+		for (int generation = 0; generation < 20; generation++) {
+			GeneticOperators.nextGeneration(population, fitness, problem.getCloudletCount(), breeder, random);
+			assertEquals(fitness.length, population.size());
+			for (int i = 0; i < fitness.length; i++) {
+				assertEquals(breeder.getFitness(population.get(i)), fitness[i], DELTA);
+				assertTrue("the survivors are not best first", i == 0 || fitness[i - 1] <= fitness[i]);
+			}
+			assertTrue("the best solution was lost", fitness[0] <= best);
+			best = fitness[0];
+		}
+	}
+
+	private static ArrayList<ArrayList<Integer>> solution(int[]... vms) {
+		ArrayList<ArrayList<Integer>> sol = new ArrayList<ArrayList<Integer>>();
+		for (int[] cloudlets : vms) {
+			ArrayList<Integer> list = new ArrayList<Integer>();
+			for (int cloudlet : cloudlets) {
+				list.add(cloudlet);
+			}
+			sol.add(list);
+		}
+		return sol;
+	}
+
+	private static double min(double[] fitness) {
+		double min = Double.MAX_VALUE;
+		for (double f : fitness) {
+			min = Math.min(min, f);
+		}
+		return min;
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that both policies try every arm and then mostly choose the arm paying the most, and
+ * that the discount lets them follow an arm that starts paying later.
+ */
+public class OperatorBanditTest {
+
+	@Test
+	public void testEveryArmTriedFirst() {
+		for (OperatorBandit.Policy policy : OperatorBandit.Policy.values()) {
+			OperatorBandit bandit = new OperatorBandit(policy, "a", "b", "c");
+			for (int arm = 0; arm < bandit.getArmCount(); arm++) {
+				assertEquals(arm, bandit.select());
+				bandit.update(arm, 0, 1);
+			}
+		}
+	}
+
+	@Test
+	public void testBestArmChosen() {
+		for (OperatorBandit.Policy policy : OperatorBandit.Policy.values()) {
+			OperatorBandit bandit = createBandit(policy);
+			Random random = new Random(2);
+			for (int pull = 0; pull < 2000; pull++) {
+				int arm = bandit.select();
+				// arm 1 improves as much as arm 0 in half the time, arm 2 never improves
+				double improvement = arm == 2 ? 0 : 0.01 * random.nextDouble();
+				bandit.update(arm, improvement, arm == 1 ? 1 : 2);
+			}
+			assertTrue(policy + " " + bandit, bandit.getPulls(1) > bandit.getPulls(0));
+			assertTrue(policy + " " + bandit, bandit.getPulls(1) > bandit.getPulls(2));
+			assertTrue(policy + " " + bandit, bandit.getMeanReward(1) > bandit.getMeanReward(0));
+			assertEquals(0, bandit.getMeanReward(2), 0);
+		}
+	}
+
+	@Test
+	public void testDiscountFollowsChange() {
+		for (OperatorBandit.Policy policy : OperatorBandit.Policy.values()) {
+			OperatorBandit bandit = createBandit(policy);
+			// arm 0 pays at first, then only arm 1 does
+			for (int pull = 0; pull < 1000; pull++) {
+				int arm = bandit.select();
+				bandit.update(arm, arm == 0 ? 0.01 : 0, 1);
+			}
+			long before = bandit.getPulls(1);
+			for (int pull = 0; pull < 1000; pull++) {
+				int arm = bandit.select();
+				bandit.update(arm, arm == 1 ? 0.01 : 0, 1);
+			}
+			assertTrue(policy + " " + bandit, bandit.getPulls(1) - before > 500);
+		}
+	}
+
+	private static OperatorBandit createBandit(OperatorBandit.Policy policy) {
+		OperatorBandit bandit = new OperatorBandit(policy, "global", "local", "none");
+		bandit.setSeed(1);
+		return bandit;
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks that remapped populations keep where each solution put long and short cloudlets.
+ */
+public class PopulationRemapperTest {
+
+	@Test
+	public void testRemapSameCount() {
+		int[][] population = { { 0, 1, 2 }, { 2, 2, 0 } };
+		long[] oldLengths = { 100, 300, 200 };
+		// the same ranks in another order: the longest is now the first cloudlet
+		long[] newLengths = { 900, 500, 700 };
+		int[][] remapped = PopulationRemapper.remapCloudlets(population, oldLengths, newLengths);
+		assertArrayEquals(new int[] { 1, 0, 2 }, remapped[0]);
+		assertArrayEquals(new int[] { 2, 2, 0 }, remapped[1]);
+	}
+
+	@Test
+	public void testRemapMoreAndFewerCloudlets() {
+		int[][] population = { { 0, 1 } };
+		long[] oldLengths = { 1000, 10 };
+		int[][] more = PopulationRemapper.remapCloudlets(population, oldLengths, new long[] { 5, 50, 500, 5000 });
+		// the two longest take the vm of the long cloudlet, the two shortest that of the short one
+		assertArrayEquals(new int[] { 1, 1, 0, 0 }, more[0]);
+
+		int[][] fewer = PopulationRemapper.remapCloudlets(new int[][] { { 3, 2, 1, 0 } },
+				new long[] { 40, 30, 20, 10 }, new long[] { 1, 2 });
+		assertEquals(1, fewer.length);
+		assertArrayEquals(new int[] { 1, 3 }, fewer[0]);
+	}
+
+	@Test
+	public void testRemapVms() {
+		List<ArrayList<Integer>> sol = new ArrayList<ArrayList<Integer>>();
+		sol.add(new ArrayList<Integer>(Arrays.asList(0, 1)));
+		sol.add(new ArrayList<Integer>(Arrays.asList(2)));
+		sol.add(new ArrayList<Integer>(Arrays.asList(3, 4)));
+		// the first vm is gone and the third moves to the front
+		ArrayList<ArrayList<Integer>> remapped = PopulationRemapper.remapVms(sol, new int[] { -1, 1, 0 }, 2);
+		assertEquals(2, remapped.size());
+		assertEquals(Arrays.asList(3, 4), remapped.get(0));
+		assertEquals(Arrays.asList(2), remapped.get(1));
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks that the runtime model learns the runtimes of returned cloudlets and splits them
+ * between the factors of vms and cloudlet classes.
+ */
+public class RuntimeModelTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testFreshModelChangesNothing() {
+		RuntimeModel model = new RuntimeModel();
+		Vm vm = CloudletQueuesTest.createVm(3, 250);
+		assertEquals(0, model.getObservations());
+		assertEquals(12345, model.getEffectiveLength(12345));
+		assertEquals(250.0, model.getEffectiveMips(vm), DELTA);
+		assertEquals(4.0, model.getRuntime(1000, vm), DELTA);
+	}
+
+	@Test
+	public void testSlowVm() {
+		RuntimeModel model = new RuntimeModel();
+		Vm vm = CloudletQueuesTest.createVm(3, 100);
+		// twice as long as length/mips, the first ratio of the vm is taken whole
+		model.record(createReturned(0, 1000, 20, Cloudlet.SUCCESS), vm);
+		assertEquals(1, model.getObservations());
+		assertEquals(2.0, model.getVmFactor(3), DELTA);
+		assertEquals(1.0, model.getClassFactor(1000), DELTA);
+		assertEquals(50.0, model.getEffectiveMips(vm), DELTA);
+		assertEquals(1000, model.getEffectiveLength(1000));
+		// another vm has not shown anything
+		assertEquals(100.0, model.getEffectiveMips(CloudletQueuesTest.createVm(4, 100)), DELTA);
+	}
+
+	@Test
+	public void testFactorsSplitTheRatio() {
+		RuntimeModel model = new RuntimeModel();
+		Vm vm = CloudletQueuesTest.createVm(3, 100);
+		model.record(createReturned(0, 1000, 10, Cloudlet.SUCCESS), vm);
+		// a class three times as long as its length, on a vm already known
+		model.record(createReturned(1, 100000, 3000, Cloudlet.SUCCESS), vm);
+		assertEquals(1.4, model.getVmFactor(3), DELTA);
+		assertEquals(3 / 1.4, model.getClassFactor(100000), DELTA);
+		// together they give back the runtime that was seen
+		assertEquals(3000.0, model.getRuntime(100000, vm), 1e-6);
+	}
+
+	@Test
+	public void testFailedCloudletIgnored() {
+		RuntimeModel model = new RuntimeModel();
+		Vm vm = CloudletQueuesTest.createVm(3, 100);
+		model.record(createReturned(0, 1000, 20, Cloudlet.FAILED), vm);
+		model.record(createReturned(1, 1000, 0, Cloudlet.SUCCESS), vm);
+		assertEquals(0, model.getObservations());
+		assertEquals(1.0, model.getVmFactor(3), DELTA);
+	}
+
+	@Test
+	public void testSmoothing() {
+		RuntimeModel model = new RuntimeModel();
+		model.setSmoothing(0.5);
+		Vm vm = CloudletQueuesTest.createVm(3, 100);
+		model.record(createReturned(0, 1000, 20, Cloudlet.SUCCESS), vm);
+		model.record(createReturned(1, 1000, 40, Cloudlet.SUCCESS), vm);
+		// halfway from 2 to 4 for the vm, then the class takes half of what is left over
+		assertEquals(3.0, model.getVmFactor(3), DELTA);
+		assertEquals(0.5 + 0.5 * 4 / 3.0, model.getClassFactor(1000), DELTA);
+	}
+
+	/**
+	 * Creates a cloudlet as it comes back from its vm.
+	 */
+	static Cloudlet createReturned(int id, long length, final double cpuTime, final int cloudletStatus) {
+		UtilizationModel model = new UtilizationModelFull();
+		return new Cloudlet(id, length, 1, 300, 300, model, model, model) {
+
+			@Override
+			public double getActualCPUTime() {
+				return cpuTime;
+			}
+
+			@Override
+			public int getCloudletStatus() {
+				return cloudletStatus;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a schedule kept in the cache comes back for the same batch, in whatever order
+ * its cloudlets and vms are given, and only for the same objective.
+ */
+public class ScheduleCacheTest {
+
+	private static final long[] LENGTHS = { 4000, 1000, 3000, 2000, 5000 };
+
+	private static final double[] MIPS = { 250, 1000, 500 };
+
+	private static final int[] ASSIGN = { 1, 0, 2, 2, 1 };
+
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("schedules", "");
+		directory.delete();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void testRoundTrip() {
+		ScheduleCache cache = new ScheduleCache(directory.getPath());
+		assertNull(cache.get(LENGTHS, MIPS, "makespan"));
+		cache.put(LENGTHS, MIPS, "makespan", ASSIGN);
+		assertArrayEquals(ASSIGN, cache.get(LENGTHS, MIPS, "makespan"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void testRoundTripAcrossCaches() {
+		new ScheduleCache(directory.getPath()).put(LENGTHS, MIPS, "makespan", ASSIGN);
+		assertArrayEquals(ASSIGN, new ScheduleCache(directory.getPath()).get(LENGTHS, MIPS, "makespan"));
+	}
+
+	@Test
+	public void testEngineSettingsInObjective() {
+		// the brokers key a schedule by the description of the engine that found it
+		SchedulingEngine shortRun = new SimulatedAnnealingEngine(100, 0.05, 0.0001, SimulatedAnnealingEngine.Cooling.GEOMETRIC);
+		SchedulingEngine longRun = new SimulatedAnnealingEngine(100000, 0.05, 0.0001, SimulatedAnnealingEngine.Cooling.GEOMETRIC);
+		assertFalse(shortRun.toString().equals(longRun.toString()));
+		assertFalse(new BranchAndBoundEngine(10, 10).toString().equals(new BranchAndBoundEngine().toString()));
+
+		ScheduleCache cache = new ScheduleCache(directory.getPath());
+		cache.put(LENGTHS, MIPS, "makespan " + shortRun, ASSIGN);
+		assertNull(cache.get(LENGTHS, MIPS, "makespan " + longRun));
+		assertArrayEquals(ASSIGN, cache.get(LENGTHS, MIPS, "makespan " + shortRun));
+	}
+
+	@Test
+	public void testReorderedBatch() {
+		ScheduleCache cache = new ScheduleCache(directory.getPath());
+		cache.put(LENGTHS, MIPS, "makespan", ASSIGN);
+
+		// the same cloudlets and vms, submitted in another order
+		int[] cloudletOrder = { 3, 0, 4, 1, 2 };
+		int[] vmOrder = { 2, 0, 1 };
+		long[] lengths = new long[LENGTHS.length];
+		for (int c = 0; c < lengths.length; c++) {
+			lengths[c] = LENGTHS[cloudletOrder[c]];
+		}
+		double[] mips = new double[MIPS.length];
+		for (int vm = 0; vm < mips.length; vm++) {
+			mips[vm] = MIPS[vmOrder[vm]];
+		}
+		int[] assign = cache.get(lengths, mips, "makespan");
+		for (int c = 0; c < lengths.length; c++) {
+			assertEquals(MIPS[ASSIGN[cloudletOrder[c]]], mips[assign[c]], 0);
+		}
+		assertEquals(new SchedulingProblem(LENGTHS, MIPS).getMakespan(ASSIGN),
+				new SchedulingProblem(lengths, mips).getMakespan(assign), 1e-9);
+	}
+
+	@Test
+	public void testOtherObjectiveOrBatch() {
+		ScheduleCache cache = new ScheduleCache(directory.getPath());
+		cache.put(LENGTHS, MIPS, "makespan engine=fpa", ASSIGN);
+		assertNull(cache.get(LENGTHS, MIPS, "makespan engine=ga"));
+		assertNull(cache.get(new long[] { 4000, 1000, 3000, 2000, 5001 }, MIPS, "makespan engine=fpa"));
+		assertNull(cache.get(LENGTHS, new double[] { 250, 1000 }, "makespan engine=fpa"));
+		assertEquals(3, cache.getMisses());
+	}
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks the orders the schedule utilities sort indexes into.
+ */
+public class ScheduleUtilTest {
+
+	@Test
+	public void testIncreasingOrder() {
+		assertArrayEquals(new int[] { 2, 0, 3, 1 }, ScheduleUtil.increasingOrder(new long[] { 300, 900, 100, 500 }));
+		// equal values keep their order
+		assertArrayEquals(new int[] { 1, 0, 2 }, ScheduleUtil.increasingOrder(new double[] { 2.5, 1.5, 2.5 }));
+	}
+
+	@Test
+	public void testLongestFirst() {
+		assertArrayEquals(new int[] { 1, 3, 0, 2 }, ScheduleUtil.longestFirst(new long[] { 300, 900, 100, 500 }));
+		// equal lengths keep their order
+		assertArrayEquals(new int[] { 0, 1, 2 }, ScheduleUtil.longestFirst(new long[] { 7, 7, 7 }));
+		// lengths too long to pack with their positions are sorted the slow way
+		assertArrayEquals(new int[] { 2, 0, 1 }, ScheduleUtil.longestFirst(new long[] { Long.MAX_VALUE - 1, 5, Long.MAX_VALUE }));
+	}
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that every engine returns a valid schedule on independent and workflow problems, and
+ * that every makespan it publishes is the makespan the problem gives its schedule.
+ */
+public class SchedulingEngineTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testIndependentProblems() {
+		Random random = new Random(1);
+		for (int run = 0; run < 3; run++) {
+			SchedulingProblem problem = createProblem(random, 30, 5);
+			for (SchedulingEngine engine : createEngines()) {
+				checkEngine(engine, problem);
+			}
+		}
+	}
+
+	@Test
+	public void testBacklogProblems() {
+		Random random = new Random(2);
+		for (int run = 0; run < 3; run++) {
+			SchedulingProblem independent = createProblem(random, 30, 5);
+			double[] backlogs = new double[independent.getVmCount()];
+			for (int vm = 0; vm < backlogs.length; vm++) {
+				backlogs[vm] = random.nextInt(3) == 0 ? 0 : 20 * random.nextDouble();
+			}
+			SchedulingProblem problem = new BacklogSchedulingProblem(lengths(independent), mips(independent),
+					backlogs);
+			for (SchedulingEngine engine : createEngines()) {
+				checkEngine(engine, problem);
+			}
+		}
+	}
+
+	@Test
+	public void testWorkflowProblems() {
+		Random random = new Random(3);
+		for (int run = 0; run < 3; run++) {
+			SchedulingProblem problem = createWorkflow(random, 30, 5);
+			for (SchedulingEngine engine : createEngines()) {
+				if (!(engine instanceof AdditiveSchedulingEngine)) {
+					checkEngine(engine, problem);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAdditiveEnginesRejectWorkflows() {
+		SchedulingProblem problem = createWorkflow(new Random(4), 10, 3);
+		int[] initial = new int[problem.getCloudletCount()];
+		for (SchedulingEngine engine : createEngines()) {
+			if (!(engine instanceof AdditiveSchedulingEngine)) {
+				continue;
+			}
+			try {
+				engine.schedule(problem, initial);
+				fail(engine + " scheduled a workflow");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		try {
+			new IncrementalSchedule(problem, initial);
+			fail("an incremental schedule was kept for a workflow");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testPortfolioOnWorkflow() {
+		SchedulingProblem problem = createWorkflow(new Random(5), 30, 5);
+		checkEngine(new PortfolioEngine(300), problem);
+	}
+
+	@Test
+	public void testIncrementalSchedule() {
+		Random random = new Random(6);
+		SchedulingProblem problem = createProblem(random, 30, 5);
+		int[] assign = new int[problem.getCloudletCount()];
+		for (int c = 0; c < assign.length; c++) {
+			assign[c] = random.nextInt(problem.getVmCount());
+		}
+		IncrementalSchedule schedule = new IncrementalSchedule(problem, assign);
+		for (int step = 0; step < 1000; step++) {
+			int cloudlet = random.nextInt(assign.length);
+			double predicted;
+			if (random.nextBoolean()) {
+				int vm = random.nextInt(problem.getVmCount());
+				predicted = schedule.moveMakespan(cloudlet, vm);
+				schedule.move(cloudlet, vm);
+			} else {
+				int other = random.nextInt(assign.length);
+				predicted = schedule.swapMakespan(cloudlet, other);
+				schedule.swap(cloudlet, other);
+			}
+			double makespan = problem.getMakespan(schedule.getAssignment());
+			assertEquals(makespan, predicted, DELTA);
+			assertEquals(makespan, schedule.getMakespan(), DELTA);
+		}
+	}
+
+	@Test
+	public void testPopulationLeftAsItIs() {
+		Random random = new Random(7);
+		SchedulingProblem problem = createProblem(random, 30, 5);
+		for (SchedulingEngine engine : createEngines()) {
+			if (!(engine instanceof PopulationSchedulingEngine)) {
+				continue;
+			}
+			int[][] population = new int[10][problem.getCloudletCount()];
+			int[][] copy = new int[population.length][];
+			for (int i = 0; i < population.length; i++) {
+				for (int c = 0; c < population[i].length; c++) {
+					population[i][c] = random.nextInt(problem.getVmCount());
+				}
+				copy[i] = population[i].clone();
+			}
+			int[] assign = ((PopulationSchedulingEngine) engine).schedule(problem, population);
+			for (int i = 0; i < population.length; i++) {
+				assertArrayEquals(engine + " changed solution " + i, copy[i], population[i]);
+				assertTrue(engine + " returned solution " + i, assign != population[i]);
+			}
+		}
+	}
+
+	/**
+	 * Runs an engine and checks its schedule and every makespan it published.
+	 */
+	private static void checkEngine(final SchedulingEngine engine, final SchedulingProblem problem) {
+		SearchMonitor monitor = new SearchMonitor(engine.toString()) {
+
+			@Override
+			public void publish(int[] assign, double makespan) {
+				assertEquals(engine + " published a wrong makespan", problem.getMakespan(assign), makespan, DELTA);
+				super.publish(assign, makespan);
+			}
+		};
+		int[] initial = new int[problem.getCloudletCount()];
+		for (int c = 0; c < initial.length; c++) {
+			initial[c] = c % problem.getVmCount();
+		}
+		int[] assign = engine.schedule(problem.withMonitor(monitor), initial);
+
+		assertEquals(problem.getCloudletCount(), assign.length);
+		for (int vm : assign) {
+			assertTrue(engine + " used vm " + vm, vm >= 0 && vm < problem.getVmCount());
+		}
+		double makespan = problem.getMakespan(assign);
+		assertTrue(engine + " returned a schedule worse than its best published one",
+				makespan <= monitor.getBestMakespan() + DELTA);
+		if (problem.isAdditive()) {
+			assertTrue(engine + " returned a schedule worse than its start",
+					makespan <= problem.getMakespan(initial) + DELTA);
+		}
+	}
+
+	/**
+	 * Creates every engine with a small search, so that the test runs quickly.
+	 */
+	private static List<SchedulingEngine> createEngines() {
+		List<SchedulingEngine> engines = new ArrayList<SchedulingEngine>();
+		SimulatedAnnealingEngine annealing = new SimulatedAnnealingEngine();
+		annealing.setIterations(20000);
+		annealing.setSeed(1);
+		engines.add(annealing);
+		TabuSearchEngine tabu = new TabuSearchEngine(200, 50, 7);
+		tabu.setSeed(1);
+		engines.add(tabu);
+		engines.add(new ParticleSwarmEngine(50, ParticleSwarmEngine.Topology.RING));
+		AntColonyEngine ants = new AntColonyEngine(10, 20);
+		ants.setSeed(1);
+		engines.add(ants);
+		engines.add(new GreyWolfEngine(2000));
+		engines.add(new DifferentialEvolutionEngine(50, DifferentialEvolutionEngine.Strategy.RAND_1_BIN));
+		engines.add(new BranchAndBoundEngine(100000, 10000));
+		engines.add(new MultifitEngine());
+		engines.add(new HeftEngine());
+		engines.add(new GeneticEngine(50));
+		engines.add(new HierarchicalEngine());
+		engines.add(new PortfolioEngine(200));
+		return engines;
+	}
+
+	private static SchedulingProblem createProblem(Random random, int cloudlets, int vms) {
+		long[] lengths = new long[cloudlets];
+		for (int c = 0; c < cloudlets; c++) {
+			lengths[c] = 1000 + random.nextInt(20000);
+		}
+		double[] mips = new double[vms];
+		for (int vm = 0; vm < vms; vm++) {
+			mips[vm] = 250 + random.nextInt(1000);
+		}
+		return new SchedulingProblem(lengths, mips);
+	}
+
+	private static SchedulingProblem createWorkflow(Random random, int cloudlets, int vms) {
+		SchedulingProblem independent = createProblem(random, cloudlets, vms);
+		int[][] predecessors = new int[cloudlets][];
+		for (int c = 0; c < cloudlets; c++) {
+			List<Integer> before = new ArrayList<Integer>();
+			for (int p = 0; p < c; p++) {
+				if (random.nextInt(8) == 0) {
+					before.add(p);
+				}
+			}
+			predecessors[c] = new int[before.size()];
+			for (int k = 0; k < before.size(); k++) {
+				predecessors[c][k] = before.get(k);
+			}
+		}
+		return new WorkflowSchedulingProblem(lengths(independent), mips(independent), predecessors);
+	}
+
+	private static long[] lengths(SchedulingProblem problem) {
+		long[] lengths = new long[problem.getCloudletCount()];
+		for (int c = 0; c < lengths.length; c++) {
+			lengths[c] = problem.getLength(c);
+		}
+		return lengths;
+	}
+
+	private static double[] mips(SchedulingProblem problem) {
+		double[] mips = new double[problem.getVmCount()];
+		for (int vm = 0; vm < mips.length; vm++) {
+			mips[vm] = problem.getMips(vm);
+		}
+		return mips;
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the queue of vm finish times against a plain scan of the same times.
+ */
+public class VmLoadQueueTest {
+
+	@Test
+	public void testAgainstScan() {
+		Random random = new Random(1);
+		for (int round = 0; round < 100; round++) {
+			int vms = 1 + random.nextInt(20);
+			VmLoadQueue queue = new VmLoadQueue(vms);
+			double[] times = new double[vms];
+			boolean[] queued = new boolean[vms];
+			for (int i = 0; i < vms; i++) {
+				times[i] = random.nextInt(1000);
+				queue.insert(i, times[i]);
+				queued[i] = true;
+			}
+			for (int step = 0; step < 200 && !queue.isEmpty(); step++) {
+				assertEquals(scanMin(times, queued), queue.minTime(), 0);
+				assertEquals(times[queue.minVm()], queue.minTime(), 0);
+				int vm = random.nextInt(vms);
+				if (!queued[vm]) {
+					continue;
+				}
+				if (random.nextInt(4) == 0) {
+					int min = queue.delMin();
+					assertEquals(scanMin(times, queued), times[min], 0);
+					queued[min] = false;
+					assertFalse(queue.contains(min));
+				} else {
+					// a cloudlet put on the vm, or one taken off it
+					times[vm] = Math.max(0, times[vm] + random.nextInt(500) - 100);
+					queue.changeTime(vm, times[vm]);
+					assertEquals(times[vm], queue.timeOf(vm), 0);
+				}
+			}
+			int size = 0;
+			for (boolean q : queued) {
+				size += q ? 1 : 0;
+			}
+			assertEquals(size, queue.size());
+		}
+	}
+
+	@Test
+	public void testDrainsInOrder() {
+		double[] times = { 30, 10, 50, 20, 40 };
+		VmLoadQueue queue = new VmLoadQueue(times.length);
+		for (int i = 0; i < times.length; i++) {
+			queue.insert(i, times[i]);
+		}
+		int[] order = { 1, 3, 0, 4, 2 };
+		for (int vm : order) {
+			assertEquals(vm, queue.delMin());
+		}
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInsertTwice() {
+		VmLoadQueue queue = new VmLoadQueue(2);
+		queue.insert(0, 1);
+		queue.insert(0, 2);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testEmpty() {
+		new VmLoadQueue(2).delMin();
+	}
+
+	private static double scanMin(double[] times, boolean[] queued) {
+		double min = Double.MAX_VALUE;
+		for (int i = 0; i < times.length; i++) {
+			if (queued[i] && times[i] < min) {
+				min = times[i];
+			}
+		}
+		return min;
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the jobs written to a trace come back as cloudlets, plain and gzipped, a chunk
+ * at a time, with their lengths, pes and submit times.
+ */
+public class WorkloadTraceReaderTest {
+
+	/** Comments, a header, a job with no run time, a GWA line and an unreadable submit time. */
+	private static final String TRACE = "; Version: 2.2\n"
+			+ "; MaxProcs: 8\n"
+			+ "\n"
+			+ "1 1000 5 10 1 -1 -1 1\n"
+			+ "2 1000 5 20 4 -1 -1 4\n"
+			+ "3 1010 0 0 1 -1 -1 1\n"
+			+ "# JobID SubmitTime WaitTime RunTime NProcs\n"
+			+ "JobID,SubmitTime,WaitTime,RunTime,NProcs\n"
+			+ "4,1020,0,30,-1,-1,-1,2\n"
+			+ "5 x 0 40 1\n";
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("trace", ".swf");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testPlainTrace() throws IOException {
+		write(file, false);
+		checkTrace(file, 100);
+	}
+
+	@Test
+	public void testGzippedTrace() throws IOException {
+		file.delete();
+		file = File.createTempFile("trace", ".swf.gz");
+		write(file, true);
+		checkTrace(file, 1);
+	}
+
+	/**
+	 * Reads the trace in chunks of a size and checks the cloudlets and their order.
+	 */
+	private static void checkTrace(File file, int chunkSize) throws IOException {
+		WorkloadTraceReader reader = new WorkloadTraceReader(file.getPath(), 7, 100);
+		reader.setMaxPes(2);
+		List<TraceCloudlet> cloudlets = new ArrayList<TraceCloudlet>();
+		try {
+			List<TraceCloudlet> chunk;
+			while (!(chunk = reader.readCloudlets(chunkSize)).isEmpty()) {
+				assertTrue(chunk.size() <= chunkSize);
+				cloudlets.addAll(chunk);
+			}
+		} finally {
+			reader.close();
+		}
+
+		assertEquals(4, cloudlets.size());
+		assertEquals(4, reader.getCloudletCount());
+		// run time times rating, the jobs on 4 processors doubling on 2 pes
+		long[] lengths = { 1000, 4000, 3000, 4000 };
+		int[] pes = { 1, 2, 2, 1 };
+		// from the first job, the unreadable submit time taken from the job before
+		double[] submitTimes = { 0, 0, 20, 20 };
+		for (int c = 0; c < cloudlets.size(); c++) {
+			TraceCloudlet cloudlet = cloudlets.get(c);
+			assertEquals(c, cloudlet.getCloudletId());
+			assertEquals(lengths[c], cloudlet.getCloudletLength());
+			assertEquals(pes[c], cloudlet.getNumberOfPes());
+			assertEquals(submitTimes[c], cloudlet.getSubmitTime(), 0);
+			assertEquals(7, cloudlet.getUserId());
+		}
+	}
+
+	private static void write(File file, boolean gzip) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		if (gzip) {
+			out = new GZIPOutputStream(out);
+		}
+		try {
+			out.write(TRACE.getBytes("US-ASCII"));
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -11,7 +11,6 @@ package org.cloudbus.cloudsim;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -92,8 +91,6 @@ public class DatacenterBroker1 extends SimEntity {
 	 * @post $none
 	 */
 	
-	//list to store initial population
-	protected List<ArrayList<ArrayList<Integer>>> PopulationGeneticTemp=new ArrayList<ArrayList<ArrayList<Integer>>>();
 	//list to store initial population
 	protected List<ArrayList<ArrayList<Integer>>> PopulationGenetic=new ArrayList<ArrayList<ArrayList<Integer>>>();	
 	
@@ -103,14 +100,21 @@ public class DatacenterBroker1 extends SimEntity {
 	protected double [][] fitness=new double[solutioncount][2];
 	//fitness ratio of solutions in population
 	protected double [][] fitnessratio=new double[solutioncount][2];
-	//fitness of solutions in population after mutation
-	protected double [][] fitnessaftermutation=new double[400][2];
 	//to store new solution
 	protected ArrayList<ArrayList<Integer>> newsol=new ArrayList<ArrayList<Integer>>();
+	//runtimes learned from the returned cloudlets,correcting length/mips in the fitness
+	protected RuntimeModel runtimeModel=new RuntimeModel();
+	//schedules of past batches on disk,null to evolve every batch
+	protected ScheduleCache scheduleCache;
+	//best schedules of past batches,seeding the population of close batches,null for none
+	protected EliteLibrary eliteLibrary;
+	//number of schedules of a batch kept in the elite library
+	protected int eliteCount=5;
 	
 	//to store vmexecution time of each vm in new solution
 	protected double vmTimes[][];
-	protected int avg;
+	//capacity of each vm in cloudlet length,in proportion to its mips
+	protected double vmCapacity[];
 	
 	public DatacenterBroker1(String name) throws Exception {
 		super(name);
@@ -306,6 +310,10 @@ public class DatacenterBroker1 extends SimEntity {
 		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
 				+ " received");
 		cloudletsSubmitted--;
+		Vm vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
+		if (vm != null) {
+			runtimeModel.record(cloudlet, vm);
+		}
 		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
 			clearDatacenters();
@@ -410,12 +418,23 @@ public class DatacenterBroker1 extends SimEntity {
 	 
 	    //to store the final cloudlet assigning order
 	    List<ArrayList<Integer>> Assign=new ArrayList<ArrayList<Integer>>();
-	    this.avg=(getCloudletList().size()/getVmsCreatedList().size())+1;
+	    computeVmCapacity();
 	    
-		createPopulation();
-		
+	    //a batch scheduled before is submitted at once,without the generations
+	    ArrayList<ArrayList<Integer>> cached=lookupCachedSolution();
+	    if(cached!=null)
+	    {
+	    	PopulationGenetic.clear();
+	    	PopulationGenetic.add(cached);
+	    	System.out.println("Cached Solution Fitness-"+checkFitness(cached));
+	    }
+	    else
+	    {
+	    	createPopulation();
+	    }
 		
-		for(int z=0;z<40;z++) {
+		Random random=new Random();
+		for(int z=0;cached==null&&z<40;z++) {
 		//initialize fitness of each solution in initial population
 	    for(int i=0;i<solutioncount;i++)
 		{
@@ -447,67 +466,32 @@ public class DatacenterBroker1 extends SimEntity {
 			fitnessratio[i][1]=fitness[i][1]/totalfitnesssum;
 		}
 		
-		//crossover
-		for(int i=0; i<solutioncount;i++)
-		{
-			for(int j=i+1;j<solutioncount;j++)
-			{
-				//create crossover population --Crossover
-				//generate a random number between 0 to VmsCreatedList().size()-1 
-				int random=new Random().nextInt(getVmsCreatedList().size());
-				newsol=crosover(PopulationGenetic.get(i),PopulationGenetic.get(j),random);
-				checkNewSol();
-				PopulationGenetic.add(newsol);
-				newsol=crosover(PopulationGenetic.get(j),PopulationGenetic.get(i),random);
-	    		checkNewSol();
-	    		PopulationGenetic.add(newsol);
-			}
-		}
-		//create genetic mutation
-		createGeneticMutation();
-		
-		//initialize fitness of each solution in initial population
-	    for(int i=0;i<PopulationGenetic.size();i++)
-		{
-	    	fitnessaftermutation[i][0]=0;
-	    	fitnessaftermutation[i][1]=0;
-		}
-		//find fitness of each solution in initial population --Fitness function
-		for(int i=0;i<PopulationGenetic.size();i++)
+		//crossover,mutation and survival of the best,shared with the fpa broker
+		double []generation=new double[solutioncount];
+		for(int i=0;i<solutioncount;i++)
 		{
-			fitnessaftermutation[i][0]=i;
-			fitnessaftermutation[i][1]=checkFitness(PopulationGenetic.get(i));
+			generation[i]=fitness[i][1];
 		}
-		
-		//sort the fitnesses of all the solutions in ascending order
-		sortbyColumn(fitnessaftermutation,1);
-			
-		// Adding best solutions to initial population again for iteration
-		// Copying the Genetic Population to tempory location
-		for(int i =0;i<solutioncount;i++) {
-			int ele = (int)fitnessaftermutation[i][0];
-			PopulationGeneticTemp.add(PopulationGenetic.get(ele));
-		}		
-		PopulationGenetic.clear();
-		// Copying the Genetic Population back to Genetic Population
-		for(int i =0;i<PopulationGeneticTemp.size();i++) {
-			PopulationGenetic.add(PopulationGeneticTemp.get(i));
-		}
-		PopulationGeneticTemp.clear();
+		GeneticOperators.nextGeneration(PopulationGenetic,generation,getVmsCreatedList().size(),createBreeder(),random);
 		
 		if(z<39)
 		{
-			System.out.println("Fitness after cycle "+z+"="+fitnessaftermutation[0][1]);
+			System.out.println("Fitness after cycle "+z+"="+generation[0]);
 			System.out.println("Arrangement of cloudlets-");
 			System.out.println(PopulationGenetic.get(0));
 		}
 		else
 		{
-			System.out.println("Final Solution Fitness-"+fitnessaftermutation[0][1]);
+			System.out.println("Final Solution Fitness-"+generation[0]);
 			System.out.println("Arrangement of cloudlets-");
 			System.out.println(PopulationGenetic.get(0));
 		}
 	    }
+		if(cached==null)
+		{
+			storeCachedSolution(PopulationGenetic.get(0));
+			storeElites();
+		}
 		
 	    //initialize the list
 		for(int i=0;i<getCloudletList().size();i++)
@@ -547,6 +531,134 @@ public class DatacenterBroker1 extends SimEntity {
 		}
     }
 	
+	//take the solution of the batch from the cache,if it was scheduled before
+	protected ArrayList<ArrayList<Integer>> lookupCachedSolution()
+	{
+		if(getScheduleCache()==null)
+		{
+			return null;
+		}
+		int []assign=getScheduleCache().get(getCacheLengths(),getCacheMips(),"makespan ga");
+		if(assign==null)
+		{
+			return null;
+		}
+		ArrayList<ArrayList<Integer>> sol=new ArrayList<ArrayList<Integer>>();
+		for(int i=0;i<getVmsCreatedList().size();i++)
+		{
+			sol.add(new ArrayList<Integer>());
+		}
+		for(int i=0;i<assign.length;i++)
+		{
+			sol.get(assign[i]).add(getCloudletList().get(i).getCloudletId());
+		}
+		return sol;
+	}
+	
+	//keep the solution of the batch in the cache
+	protected void storeCachedSolution(ArrayList<ArrayList<Integer>> sol)
+	{
+		if(getScheduleCache()==null)
+		{
+			return;
+		}
+		Map<Integer,Integer> positions=new HashMap<Integer,Integer>();
+		for(int i=0;i<getCloudletList().size();i++)
+		{
+			positions.put(getCloudletList().get(i).getCloudletId(),i);
+		}
+		int []assign=new int[getCloudletList().size()];
+		for(int i=0;i<sol.size();i++)
+		{
+			for(int id:sol.get(i))
+			{
+				assign[positions.get(id)]=i;
+			}
+		}
+		getScheduleCache().put(getCacheLengths(),getCacheMips(),"makespan ga",assign);
+	}
+	
+	//the lengths the fitness sees,as the cache key
+	protected long[] getCacheLengths()
+	{
+		long []lengths=new long[getCloudletList().size()];
+		for(int i=0;i<lengths.length;i++)
+		{
+			lengths[i]=runtimeModel.getEffectiveLength(getCloudletList().get(i).getCloudletLength());
+		}
+		return lengths;
+	}
+	
+	//the mips the fitness sees,as the cache key
+	protected double[] getCacheMips()
+	{
+		double []mips=new double[getVmsCreatedList().size()];
+		for(int i=0;i<mips.length;i++)
+		{
+			mips[i]=runtimeModel.getEffectiveMips(getVmsCreatedList().get(i));
+		}
+		return mips;
+	}
+	
+	//replace the last solutions of the population by the elites of the past batches closest to this one
+	protected void seedFromEliteLibrary()
+	{
+		if(getEliteLibrary()==null)
+		{
+			return;
+		}
+		List<int[]> elites=getEliteLibrary().getNearest(getCacheLengths(),getCacheMips(),solutioncount/2);
+		for(int k=0;k<elites.size();k++)
+		{
+			newsol=new ArrayList<ArrayList<Integer>>();
+			for(int i=0;i<getVmsCreatedList().size();i++)
+			{
+				newsol.add(new ArrayList<Integer>());
+			}
+			for(int i=0;i<elites.get(k).length;i++)
+			{
+				newsol.get(elites.get(k)[i]).add(getCloudletList().get(i).getCloudletId());
+			}
+			checkNewSol();
+			PopulationGenetic.set(solutioncount-1-k,newsol);
+		}
+		if(!elites.isEmpty())
+		{
+			System.out.println("Seeded "+elites.size()+" solutions from the elite library");
+		}
+	}
+	
+	//keep the best solutions of the last generation,sorted by fitness,in the elite library
+	protected void storeElites()
+	{
+		if(getEliteLibrary()==null)
+		{
+			return;
+		}
+		Map<Integer,Integer> positions=new HashMap<Integer,Integer>();
+		for(int i=0;i<getCloudletList().size();i++)
+		{
+			positions.put(getCloudletList().get(i).getCloudletId(),i);
+		}
+		List<int[]> elites=new ArrayList<int[]>();
+		for(int k=0;k<PopulationGenetic.size()&&elites.size()<eliteCount;k++)
+		{
+			int []assign=new int[getCloudletList().size()];
+			for(int i=0;i<PopulationGenetic.get(k).size();i++)
+			{
+				for(int id:PopulationGenetic.get(k).get(i))
+				{
+					assign[positions.get(id)]=i;
+				}
+			}
+			if(elites.isEmpty()||!Arrays.equals(assign,elites.get(elites.size()-1)))
+			{
+				elites.add(assign);
+			}
+		}
+		getEliteLibrary().add(getCacheLengths(),getCacheMips(),elites);
+	}
+	
 	//create intial population
 	protected void createPopulation()
 	{
@@ -565,8 +677,51 @@ public class DatacenterBroker1 extends SimEntity {
 		//writeFile();
 		//read population in text file
 		readFile();
+		remapToCreatedVms();
+		seedFromEliteLibrary();
 	}
 
+	//row w of solution q read from the file,added when the file has more vms than were created
+	protected ArrayList<Integer> populationRow(int q,int w)
+	{
+		while(PopulationGenetic.get(q).size()<=w)
+		{
+			PopulationGenetic.get(q).add(new ArrayList<Integer>());
+		}
+		return PopulationGenetic.get(q).get(w);
+	}
+	
+	//the file has a row for each vm it was written for,which may not be the vms that were created:
+	//rows of the requested vms go to the same vms,other rows in order,and the cloudlets of
+	//vms that were not created are repaired onto the created ones instead of starting over
+	protected void remapToCreatedVms()
+	{
+		int vms=getVmsCreatedList().size();
+		for(int i=0;i<solutioncount;i++)
+		{
+			int rows=PopulationGenetic.get(i).size();
+			if(rows==vms)
+			{
+				continue;
+			}
+			int []positions=new int[rows];
+			for(int k=0;k<rows;k++)
+			{
+				if(rows==getVmList().size())
+				{
+					positions[k]=getVmsCreatedList().indexOf(getVmList().get(k));
+				}
+				else
+				{
+					positions[k]=k<vms?k:-1;
+				}
+			}
+			newsol=PopulationRemapper.remapVms(PopulationGenetic.get(i),positions,vms);
+			checkNewSol();
+			PopulationGenetic.set(i,newsol);
+		}
+	}
+	
 	//write population to a file
 	protected void writeFile() {
 		try{    
@@ -613,11 +768,12 @@ public class DatacenterBroker1 extends SimEntity {
 					}
 					else if(dataSplit[0].equals(""))
 					{
+						populationRow(q,w);
 						w++;
 					}
 					else
 					{
-						PopulationGenetic.get(q).get(w).add(Integer.parseInt(dataSplit[0].trim()));
+						populationRow(q,w).add(Integer.parseInt(dataSplit[0].trim()));
 						w++;
 					}
 				}
@@ -627,7 +783,7 @@ public class DatacenterBroker1 extends SimEntity {
 				{
 					String var1 = dataSplit[i].trim();
 					dataSplitInt[i] = Integer.parseInt(var1);
-					PopulationGenetic.get(q).get(w).add(dataSplitInt[i]);
+					populationRow(q,w).add(dataSplitInt[i]);
 				}
 				w++;
 				}
@@ -648,6 +804,34 @@ public class DatacenterBroker1 extends SimEntity {
 		}
 	}
 	
+	//capacity of each vm,a share of the total cloudlet length in proportion to its mips
+	//plus room for one more cloudlet,so faster vms can take more work than slower ones
+	protected void computeVmCapacity()
+	{
+		long totalcloudletlength=0;
+		long maxcloudletlength=0;
+		double totalmips=0;
+		//in the lengths and mips the returned cloudlets showed,as checkFitness counts them
+		for(Cloudlet cloudlet:getCloudletList())
+		{
+			long length=runtimeModel.getEffectiveLength(cloudlet.getCloudletLength());
+			totalcloudletlength+=length;
+			maxcloudletlength=Math.max(maxcloudletlength,length);
+		}
+		for(Vm vm:getVmsCreatedList())
+		{
+			totalmips+=runtimeModel.getEffectiveMips(vm);
+		}
+		
+		//makespan of a perfectly balanced schedule
+		double idealtime=(double)totalcloudletlength/totalmips;
+		this.vmCapacity=new double[getVmsCreatedList().size()];
+		for(int i=0;i<getVmsCreatedList().size();i++)
+		{
+			vmCapacity[i]=idealtime*runtimeModel.getEffectiveMips(getVmsCreatedList().get(i))+maxcloudletlength;
+		}
+	}
+	
 	//fitness of any solution
 	protected double checkFitness(ArrayList<ArrayList<Integer>> arr)
 	{
@@ -661,14 +845,14 @@ public class DatacenterBroker1 extends SimEntity {
 		Arrays.fill(vmexectime, 0);
 		for(int i=0;i<getVmsCreatedList().size();i++)
 		{
-			//get a vm object to find its mips.
+			//get a vm object to find its mips,as the returned cloudlets showed it runs
 			Vm vm=getVmsCreatedList().get(i);
-			double vmmips=vm.getMips();
+			double vmmips=runtimeModel.getEffectiveMips(vm);
 			totalcloudletlength=0;
 			for(int j=0;j<arr.get(i).size();j++)
 			{
 				//add all the cloudletlengths for a particular vm
-				totalcloudletlength+=CloudletList.getById(getCloudletList(),arr.get(i).get(j)).getCloudletLength();
+				totalcloudletlength+=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),arr.get(i).get(j)).getCloudletLength());
 			}
 				 
 			//calculate time duration for each vm
@@ -694,33 +878,32 @@ public class DatacenterBroker1 extends SimEntity {
 		return value;
 	}
 	
-	//to generate new solution by crossover	
-	protected ArrayList<ArrayList<Integer>> crosover(ArrayList<ArrayList<Integer>> sol1,ArrayList<ArrayList<Integer>> sol2,int random)
+	//crossover and mutation of the generation,with the repair and fitness of this broker
+	protected GeneticOperators.Breeder<ArrayList<ArrayList<Integer>>> createBreeder()
 	{
-		//initialize a 2d arraylist to store new solution
-		ArrayList<ArrayList<Integer>> newsol=new ArrayList<ArrayList<Integer>>();
-		
-		for(int i=0;i<getVmsCreatedList().size();i++)
-		 {
-			newsol.add(new ArrayList<Integer>());
-		 }
-		
-		
-		for(int i=0;i<getVmsCreatedList().size();i++)
+		//the operators are shared with the fpa broker,which may hand its population over
+		return new GeneticOperators.Breeder<ArrayList<ArrayList<Integer>>>()
 		{
-			if(i<=random)
+			@Override
+			public ArrayList<ArrayList<Integer>> crossover(ArrayList<ArrayList<Integer>> first,ArrayList<ArrayList<Integer>> second,int point)
 			{
-				//copy from 1st sol to new sol
-				newsol.get(i).addAll(sol1.get(i));
+				newsol=GeneticOperators.crossover(first,second,point);
+				checkNewSol();
+				return newsol;
 			}
 			
-			else
+			@Override
+			public void mutate(ArrayList<ArrayList<Integer>> child,Random random)
 			{
-				//copy from 2nd sol to new sol
-				newsol.get(i).addAll(sol2.get(i));
+				GeneticOperators.swapMutation(child,random);
 			}
-		}	
-		return newsol;
+			
+			@Override
+			public double getFitness(ArrayList<ArrayList<Integer>> solution)
+			{
+				return checkFitness(solution);
+			}
+		};
 	}
 
 	//to check the correctness of the new solution
@@ -744,6 +927,9 @@ public class DatacenterBroker1 extends SimEntity {
 			}
 		}
 		
+		//vm execution times are found once and kept up to date for the rest of the repair
+		getVmExecutionTimes();
+		
 		//check the count of vms on which clouldlet is assigned and correct the solution
 		for(int i=0;i<getCloudletList().size();i++)
 		{
@@ -753,61 +939,73 @@ public class DatacenterBroker1 extends SimEntity {
 			}
 		}
 		
+		//queue of vm finish times,so each unassigned cloudlet finds the least loaded vm in log time
+		VmLoadQueue queue=new VmLoadQueue(getVmsCreatedList().size());
+		for(int i=0;i<getVmsCreatedList().size();i++)
+		{
+			queue.insert(i,vmTimes[i][1]);
+		}
+		
 		//check the count of vms on which clouldlet is assigned and correct the solution
 		for(int i=0;i<getCloudletList().size();i++)
 		{
 			if(cloudletAssign.get(i).size()==0)
 			{
-				AssignUnassignedCloudlet(i);
+				AssignUnassignedCloudlet(i,queue);
 			}
 		}
 	
 	}
 
 	//to assign unassigned cloudlets
-    protected void AssignUnassignedCloudlet(int i)
+    protected void AssignUnassignedCloudlet(int i,VmLoadQueue queue)
     {
-    	getVmExecutionTimes();
-    	vmTimesSort(vmTimes);
+    	long cloudletlength=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),i).getCloudletLength());
     	
-    	//assign the cloudlet to the vm which has least execution time and is not overflowed
-    	for(int j=0;j<getVmsCreatedList().size();j++)
+    	//assign the cloudlet to the vm which has least execution time and is not overflowed,
+    	//the least loaded vm is below its balanced share so it normally has room
+    	int vmno=queue.minVm();
+    	double vmmips=runtimeModel.getEffectiveMips(getVmsCreatedList().get(vmno));
+    	if(queue.minTime()*vmmips+cloudletlength>vmCapacity[vmno])
     	{
-    		if(newsol.get((int) vmTimes[j][0]).size()<avg)
+    		//every vm is full,so put the cloudlet where it finishes first instead of dropping it
+    		double bestfinish=Double.MAX_VALUE;
+    		for(int j=0;j<getVmsCreatedList().size();j++)
     		{
-    			newsol.get((int)vmTimes[j][0]).add(i);
-    			break;
+    			double finish=queue.timeOf(j)+cloudletlength/runtimeModel.getEffectiveMips(getVmsCreatedList().get(j));
+    			if(finish<bestfinish)
+    			{
+    				bestfinish=finish;
+    				vmno=j;
+    			}
     		}
+    		vmmips=runtimeModel.getEffectiveMips(getVmsCreatedList().get(vmno));
     	}
+    	newsol.get(vmno).add(i);
+    	queue.changeTime(vmno,queue.timeOf(vmno)+cloudletlength/vmmips);
     }
     
     //to delete multiple assigned cloudlets
     protected void deleteMultipleAssignedCloudlet(int i,List<Integer> ls)
     {
-    	getVmExecutionTimes();
-    	 	
     	//if 1st vm has more exec time than 2nd,remove from 1st one
+    	//if 2nd vm has more exec time,remove from 2nd one
+    	int vmno=ls.get(1);
     	if((vmTimes[ls.get(0)][1]>=vmTimes[ls.get(1)][1]))
     	{
-    		for(int j=0;j<newsol.get(ls.get(0)).size();j++)
-    		{
-    			if(newsol.get(ls.get(0)).get(j)==i)
-    			{
-    				newsol.get(ls.get(0)).remove(j);
-    			}
-    		}
+    		vmno=ls.get(0);
     	}
-    	//if 2nd vm has more exec time,remove from 2nd one
-    	else if((vmTimes[ls.get(0)][1]<=vmTimes[ls.get(1)][1]))
+    	for(int j=0;j<newsol.get(vmno).size();j++)
     	{
-    		for(int j=0;j<newsol.get(ls.get(1)).size();j++)
+    		if(newsol.get(vmno).get(j)==i)
     		{
-    			if(newsol.get(ls.get(1)).get(j)==i)
-    			{
-    				newsol.get(ls.get(1)).remove(j);
-    			}
+    			newsol.get(vmno).remove(j);
     		}
     	}
+    	
+    	//keep the exec time of the vm in step with the removal
+    	long cloudletlength=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),i).getCloudletLength());
+    	vmTimes[vmno][1]-=cloudletlength/runtimeModel.getEffectiveMips(getVmsCreatedList().get(vmno));
     }
     
     //to get vm execution time for each vm of new solution
@@ -818,14 +1016,14 @@ public class DatacenterBroker1 extends SimEntity {
     	
     	for(int i=0;i<getVmsCreatedList().size();i++)
 		{
-			//get a vm object to find its mips.
+			//get a vm object to find its mips,as the returned cloudlets showed it runs
 			Vm vm=getVmsCreatedList().get(i);
-			double vmmips=vm.getMips();
+			double vmmips=runtimeModel.getEffectiveMips(vm);
 			totalcloudletlength=0;
 			for(int j=0;j<newsol.get(i).size();j++)
 			{
 				//add all the cloudletlengths for a particular vm
-				totalcloudletlength+=CloudletList.getById(getCloudletList(),newsol.get(i).get(j)).getCloudletLength();
+				totalcloudletlength+=runtimeModel.getEffectiveLength(CloudletList.getById(getCloudletList(),newsol.get(i).get(j)).getCloudletLength());
 			}
 			double duration=(double)totalcloudletlength/(double)vmmips;
 			vmTimes[i][0]=i;
@@ -833,79 +1031,6 @@ public class DatacenterBroker1 extends SimEntity {
 		}	
     }
 
-	//to sort the vmexec times of vms of a new solution
-	protected void vmTimesSort(double[][] arr)
-	{
-		int rows=arr.length;
-		
-		double temp,temp1;
-	    int k=0,i=0;
-	    for(k=0;k<rows-1;k++)
-		 {
-	        for(i=0;i<rows-k-1;i++) 
-			{
-	            if(arr[i][1]>arr[i+1][1] )
-				{
-	                temp=arr[i][1];
-	                arr[i][1]=arr[i+1][1];
-	                arr[i+1][1]=temp;
-	                
-	                temp1=arr[i][0];
-	                arr[i][0] = arr[i+1][0];
-	                arr[i+1][0]=temp1;
-	            }
-	        }
-	    }
-	}
-	
-	//Create Genetic Mutation
-	protected void createGeneticMutation() {
-		for(int i = 0 ;i < PopulationGenetic.size();i++) {
-			double randomnum = Math.random();
-	        if(randomnum > 0.5) {
-	        	//System.out.println("Solution Number going to be Genetically Mutated are- "+i);
-	    		int random1=new Random().nextInt(getVmsCreatedList().size());
-	    		int random2=new Random().nextInt(getVmsCreatedList().size());
-	    		int firstplace=PopulationGenetic.get(i).get(random1).size();
-	    		int secondplace=PopulationGenetic.get(i).get(random2).size();
-	    		if(firstplace!=0&&secondplace!=0)
-	    		{
-	    			int random3=new Random().nextInt(firstplace);
-	    		    int random4=new Random().nextInt(secondplace);
-	    		    int temp = PopulationGenetic.get(i).get(random1).get(random3);
-	    		    PopulationGenetic.get(i).get(random1).set(random3,PopulationGenetic.get(i).get(random2).get(random4));
-	    		    PopulationGenetic.get(i).get(random2).set(random4,temp);
-	    		}
-	        }
-	    	else
-	    	{
-	    		continue;
-	    	}
-	    }
-	}
-	
-	//to sort the fitness of solutions after mutation in increasing order
-	public static void sortbyColumn(double arr[][], int col) 
-	{ 
-		// Using built-in sort function Arrays.sort 
-	    Arrays.sort(arr, new Comparator<double[]>() { 
-	   
-	    @Override              
-	    // Compare values according to columns 
-	    public int compare(final double[] entry1,final double[] entry2) { 
-	  
-	         // To sort in descending order revert  
-	         // the '>' Operator 
-	         if (entry1[col] > entry2[col]) 
-	             return 1; 
-	         else if(entry1[col]<entry2[col])
-	             return -1; 
-	         else
-	        	 return 0;
-	       } 
-	    });  // End of function call sort(). 
-	} 
-	
 	/**
 	 * Destroy the virtual machines running in datacenters.
 	 * 
@@ -1189,4 +1314,65 @@ public class DatacenterBroker1 extends SimEntity {
 		this.datacenterRequestedIdsList = datacenterRequestedIdsList;
 	}
 
+	/**
+	 * Gets the runtimes learned from the returned cloudlets.
+	 * 
+	 * @return the runtime model
+	 */
+	public RuntimeModel getRuntimeModel() {
+		return runtimeModel;
+	}
+
+	/**
+	 * Sets the runtimes learned from the returned cloudlets. The fitness takes the runtime of
+	 * a cloudlet on a vm from the model, so a model carried over from an earlier simulation,
+	 * or kept across the rounds of this one, schedules against the runtimes actually seen.
+	 * 
+	 * @param runtimeModel the runtime model
+	 */
+	public void setRuntimeModel(RuntimeModel runtimeModel) {
+		this.runtimeModel = runtimeModel;
+	}
+
+
+	/**
+	 * Gets the cache of the schedules of past batches.
+	 * 
+	 * @return the schedule cache, null if every batch is optimised
+	 */
+	public ScheduleCache getScheduleCache() {
+		return scheduleCache;
+	}
+
+	/**
+	 * Sets the cache of the schedules of past batches. A batch with the same cloudlet lengths
+	 * and vm mips as one scheduled before is submitted with the kept solution at once,
+	 * skipping the generations; any other batch is evolved and its solution kept.
+	 * 
+	 * @param scheduleCache the schedule cache, null to evolve every batch
+	 */
+	public void setScheduleCache(ScheduleCache scheduleCache) {
+		this.scheduleCache = scheduleCache;
+	}
+
+	/**
+	 * Gets the library of the best schedules of past batches.
+	 * 
+	 * @return the elite library, null if the population is not seeded
+	 */
+	public EliteLibrary getEliteLibrary() {
+		return eliteLibrary;
+	}
+
+	/**
+	 * Sets the library of the best schedules of past batches. The initial population has up
+	 * to half its solutions replaced by the elites of the past batches closest to this one,
+	 * mapped onto its cloudlets and vms, and the best solutions of the last generation are
+	 * added to the library.
+	 * 
+	 * @param eliteLibrary the elite library, null not to seed the population
+	 */
+	public void setEliteLibrary(EliteLibrary eliteLibrary) {
+		this.eliteLibrary = eliteLibrary;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * GeneticOperators holds the crossover and mutation of the genetic algorithm. They work on the
+ * solution representation the flower pollination and genetic brokers share: for each vm, in
+ * the order of the vms created list, the list of the ids of the cloudlets assigned to it. A
+ * population in this form can be handed from one algorithm to the other as it is, without
+ * copying it or reading it back from a file.
+ * <p>
+ * It also holds the generation both brokers run, for any representation of a solution that
+ * a {@link Breeder} can cross over, mutate and evaluate.
+ */
+public class GeneticOperators {
+
+	/**
+	 * A Breeder makes and evaluates the solutions of a generation.
+	 *
+	 * @param <S> the representation of a solution
+	 */
+	public interface Breeder<S> {
+
+		/**
+		 * Makes a child of two solutions by one point crossover, repaired so that every
+		 * cloudlet is on exactly one vm.
+		 *
+		 * @param first the solution giving the vms up to the point
+		 * @param second the solution giving the vms after the point
+		 * @param point the crossover point
+		 * @return the child
+		 */
+		S crossover(S first, S second, int point);
+
+		/**
+		 * Mutates a child in place.
+		 *
+		 * @param child the child
+		 * @param random the random number generator
+		 */
+		void mutate(S child, Random random);
+
+		/**
+		 * Gets the fitness of a solution, lower is better.
+		 *
+		 * @param solution the solution
+		 * @return the fitness
+		 */
+		double getFitness(S solution);
+	}
+
+	/**
+	 * Runs one generation of the genetic algorithm. Every pair of solutions makes two children
+	 * by crossover at the same random point, one each way round. Each child is mutated with
+	 * probability one half. The best of parents and children survive, so the best solution is
+	 * never lost.
+	 *
+	 * @param population the solutions, replaced by the survivors best first
+	 * @param fitness the fitness of each solution, replaced by that of the survivors
+	 * @param points the number of crossover points, the vms
+	 * @param breeder the breeder of the solutions
+	 * @param random the random number generator
+	 * @pre fitness.length == population.size()
+	 */
+	public static <S> void nextGeneration(List<S> population, double[] fitness, int points, Breeder<S> breeder,
+			Random random) {
+		int size = population.size();
+		List<S> pool = new ArrayList<S>(size * size);
+		final double[] poolFitness = new double[size * size];
+		pool.addAll(population);
+		System.arraycopy(fitness, 0, poolFitness, 0, size);
+		for (int i = 0; i < size; i++) {
+			for (int j = i + 1; j < size; j++) {
+				int point = random.nextInt(points);
+				pool.add(breeder.crossover(population.get(i), population.get(j), point));
+				pool.add(breeder.crossover(population.get(j), population.get(i), point));
+			}
+		}
+		for (int k = size; k < pool.size(); k++) {
+			if (random.nextDouble() > 0.5) {
+				breeder.mutate(pool.get(k), random);
+			}
+			poolFitness[k] = breeder.getFitness(pool.get(k));
+		}
+
+		// the best of parents and children survive, ties in pool order
+		Integer[] ranks = new Integer[pool.size()];
+		for (int k = 0; k < ranks.length; k++) {
+			ranks[k] = k;
+		}
+		Arrays.sort(ranks, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(poolFitness[a], poolFitness[b]);
+			}
+		});
+		population.clear();
+		for (int i = 0; i < size; i++) {
+			population.add(pool.get(ranks[i]));
+			fitness[i] = poolFitness[ranks[i]];
+		}
+	}
+
+	/**
+	 * Makes a child of two solutions by one point crossover over the vms. A cloudlet may end up
+	 * on two vms or on none, so the child has to be repaired.
+	 *
+	 * @param sol1 the solution giving the vms up to the point
+	 * @param sol2 the solution giving the vms after the point
+	 * @param point the last vm taken from the first solution
+	 * @return the child
+	 * @pre sol1.size() == sol2.size()
+	 */
+	public static ArrayList<ArrayList<Integer>> crossover(ArrayList<ArrayList<Integer>> sol1,
+			ArrayList<ArrayList<Integer>> sol2, int point) {
+		ArrayList<ArrayList<Integer>> child = new ArrayList<ArrayList<Integer>>(sol1.size());
+		for (int i = 0; i < sol1.size(); i++) {
+			child.add(new ArrayList<Integer>(i <= point ? sol1.get(i) : sol2.get(i)));
+		}
+		return child;
+	}
+
+	/**
+	 * Swaps two random cloudlets of two random vms of a solution, if both vms have cloudlets.
+	 *
+	 * @param sol the solution, changed in place
+	 * @param random the random number generator
+	 */
+	public static void swapMutation(ArrayList<ArrayList<Integer>> sol, Random random) {
+		int vm1 = random.nextInt(sol.size());
+		int vm2 = random.nextInt(sol.size());
+		int size1 = sol.get(vm1).size();
+		int size2 = sol.get(vm2).size();
+		if (size1 != 0 && size2 != 0) {
+			int place1 = random.nextInt(size1);
+			int place2 = random.nextInt(size2);
+			int temp = sol.get(vm1).get(place1);
+			sol.get(vm1).set(place1, sol.get(vm2).get(place2));
+			sol.get(vm2).set(place2, temp);
+		}
+	}
+
+}
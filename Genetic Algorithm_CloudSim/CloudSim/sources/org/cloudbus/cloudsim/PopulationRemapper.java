@@ -0,0 +1,71 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PopulationRemapper carries a population over to a different problem, so that a search can
+ * start from what an earlier search learned instead of from scratch. It works on assignment
+ * arrays giving the vm of each cloudlet, as the scheduling engines use them, and on the lists
+ * of cloudlet ids of each vm of the brokers.
+ */
+public class PopulationRemapper {
+
+	/**
+	 * Maps a population onto a different set of cloudlets on the same vms. Both sets are
+	 * ranked by length and each new cloudlet takes the vm that every solution gave to the old
+	 * cloudlet of the same relative rank, so a solution keeps where it put long and short
+	 * cloudlets.
+	 *
+	 * @param population the vm of each old cloudlet for each solution
+	 * @param oldLengths the length of each old cloudlet
+	 * @param newLengths the length of each new cloudlet
+	 * @return the vm of each new cloudlet for each solution
+	 * @pre oldLengths.length > 0
+	 */
+	public static int[][] remapCloudlets(int[][] population, long[] oldLengths, long[] newLengths) {
+		int[] oldOrder = ScheduleUtil.longestFirst(oldLengths);
+		int[] newOrder = ScheduleUtil.longestFirst(newLengths);
+		int[][] remapped = new int[population.length][newLengths.length];
+		for (int r = 0; r < newOrder.length; r++) {
+			int old = oldOrder[(int) ((long) r * oldOrder.length / newOrder.length)];
+			for (int i = 0; i < population.length; i++) {
+				remapped[i][newOrder[r]] = population[i][old];
+			}
+		}
+		return remapped;
+	}
+
+	/**
+	 * Maps a solution onto a different set of vms. The cloudlets of a vm that is still there
+	 * move with it to its new position; those of a vm that is gone are left unassigned, for the
+	 * repair of the broker to place.
+	 *
+	 * @param sol the ids of the cloudlets of each old vm
+	 * @param positions the new position of each old vm, -1 if it is gone
+	 * @param vms the number of new vms
+	 * @return the ids of the cloudlets of each new vm
+	 * @pre positions.length == sol.size()
+	 */
+	public static ArrayList<ArrayList<Integer>> remapVms(List<ArrayList<Integer>> sol, int[] positions, int vms) {
+		ArrayList<ArrayList<Integer>> remapped = new ArrayList<ArrayList<Integer>>(vms);
+		for (int i = 0; i < vms; i++) {
+			remapped.add(new ArrayList<Integer>());
+		}
+		for (int k = 0; k < sol.size(); k++) {
+			if (positions[k] >= 0) {
+				remapped.get(positions[k]).addAll(sol.get(k));
+			}
+		}
+		return remapped;
+	}
+
+}
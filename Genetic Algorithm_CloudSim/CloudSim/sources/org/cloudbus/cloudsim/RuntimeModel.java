@@ -0,0 +1,175 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RuntimeModel predicts the runtime of a cloudlet on a vm from what the returned cloudlets
+ * actually took. The runtime the brokers assume, the length over the mips of the vm, is
+ * corrected by a factor for the vm and a factor for the class of the cloudlet, so a vm slower
+ * than its mips or a class of cloudlets longer than its length shows up in the fitness of the
+ * later schedules.
+ * <p>
+ * Each returned cloudlet gives the ratio of its actual cpu time to the assumed runtime. The
+ * factor of its vm moves towards that ratio over the factor of its class, and the factor of
+ * its class towards the ratio over the factor of the vm, each by a smoothing weight, so the
+ * two split the ratio between them and follow it when it drifts. A factor is 1 until its vm
+ * or class has returned a cloudlet. The class of a cloudlet is the power of two its length
+ * falls in, unless {@link #getCloudletClass(long)} is overridden.
+ * <p>
+ * Since the runtime is the length times the class factor over the mips over the vm factor,
+ * a calibrated problem is the same problem with effective lengths and mips, and every engine
+ * can schedule it.
+ */
+public class RuntimeModel {
+
+	/** The factor of each vm, by vm id. */
+	private final Map<Integer, Double> vmFactors;
+
+	/** The factor of each cloudlet class. */
+	private final Map<Integer, Double> classFactors;
+
+	/** The weight of a new ratio in a factor. */
+	private double smoothing;
+
+	/** The number of cloudlets recorded. */
+	private int observations;
+
+	/**
+	 * Creates a new runtime model with a smoothing weight of 0.2.
+	 */
+	public RuntimeModel() {
+		vmFactors = new HashMap<Integer, Double>();
+		classFactors = new HashMap<Integer, Double>();
+		setSmoothing(0.2);
+	}
+
+	/**
+	 * Records the actual cpu time of a returned cloudlet.
+	 *
+	 * @param cloudlet the returned cloudlet
+	 * @param vm the vm it ran on
+	 */
+	public void record(Cloudlet cloudlet, Vm vm) {
+		double actual = cloudlet.getActualCPUTime();
+		double assumed = cloudlet.getCloudletLength() / vm.getMips();
+		if (actual <= 0 || assumed <= 0 || cloudlet.getCloudletStatus() != Cloudlet.SUCCESS) {
+			return;
+		}
+		double ratio = actual / assumed;
+		int cloudletClass = getCloudletClass(cloudlet.getCloudletLength());
+		// the first ratio of a vm or a class is taken whole, the vm first so that the class
+		// keeps only what the vm does not explain
+		double vmWeight = vmFactors.containsKey(vm.getId()) ? smoothing : 1;
+		double classWeight = classFactors.containsKey(cloudletClass) ? smoothing : 1;
+		double classFactor = getClassFactor(cloudlet.getCloudletLength());
+		double vmFactor = (1 - vmWeight) * getVmFactor(vm.getId()) + vmWeight * ratio / classFactor;
+		vmFactors.put(vm.getId(), vmFactor);
+		classFactors.put(cloudletClass, (1 - classWeight) * classFactor + classWeight * ratio / vmFactor);
+		observations++;
+	}
+
+	/**
+	 * Gets the predicted runtime of a cloudlet on a vm.
+	 *
+	 * @param length the length of the cloudlet
+	 * @param vm the vm
+	 * @return the runtime
+	 */
+	public double getRuntime(long length, Vm vm) {
+		return length * getClassFactor(length) / getEffectiveMips(vm);
+	}
+
+	/**
+	 * Gets the length a cloudlet behaves as, its length times the factor of its class.
+	 *
+	 * @param length the length of the cloudlet
+	 * @return the effective length
+	 */
+	public long getEffectiveLength(long length) {
+		return Math.round(length * getClassFactor(length));
+	}
+
+	/**
+	 * Gets the mips a vm behaves as, its mips over its factor.
+	 *
+	 * @param vm the vm
+	 * @return the effective mips
+	 */
+	public double getEffectiveMips(Vm vm) {
+		return vm.getMips() / getVmFactor(vm.getId());
+	}
+
+	/**
+	 * Gets the factor of a vm.
+	 *
+	 * @param vmId the vm id
+	 * @return the factor, 1 if the vm has returned no cloudlet
+	 */
+	public double getVmFactor(int vmId) {
+		Double factor = vmFactors.get(vmId);
+		return factor == null ? 1 : factor;
+	}
+
+	/**
+	 * Gets the factor of the class of a cloudlet.
+	 *
+	 * @param length the length of the cloudlet
+	 * @return the factor, 1 if the class has returned no cloudlet
+	 */
+	public double getClassFactor(long length) {
+		Double factor = classFactors.get(getCloudletClass(length));
+		return factor == null ? 1 : factor;
+	}
+
+	/**
+	 * Gets the class of a cloudlet, the power of two its length falls in.
+	 *
+	 * @param length the length of the cloudlet
+	 * @return the class
+	 */
+	protected int getCloudletClass(long length) {
+		return 63 - Long.numberOfLeadingZeros(Math.max(length, 1));
+	}
+
+	/**
+	 * Gets the number of cloudlets recorded.
+	 *
+	 * @return the observations
+	 */
+	public int getObservations() {
+		return observations;
+	}
+
+	/**
+	 * Gets the weight of a new ratio in a factor.
+	 *
+	 * @return the smoothing weight, between 0 and 1
+	 */
+	public double getSmoothing() {
+		return smoothing;
+	}
+
+	/**
+	 * Sets the weight of a new ratio in a factor.
+	 *
+	 * @param smoothing the smoothing weight, between 0 and 1
+	 */
+	public void setSmoothing(double smoothing) {
+		this.smoothing = smoothing;
+	}
+
+	@Override
+	public String toString() {
+		return observations + " cloudlets, vm factors " + vmFactors + ", class factors " + classFactors;
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * ScheduleUtil holds the orderings and the file handling shared by the schedule stores, the
+ * population remapper and the engines. All orderings break ties by index, so that two runs on
+ * the same batch rank its cloudlets and vms the same way.
+ */
+public final class ScheduleUtil {
+
+	private ScheduleUtil() {
+	}
+
+	/**
+	 * Gets the indexes of values in increasing order of value, ties by index.
+	 *
+	 * @param values the values
+	 * @return the indexes, smallest value first
+	 */
+	public static int[] increasingOrder(final long[] values) {
+		Integer[] sorted = indexes(values.length);
+		Arrays.sort(sorted, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Long.compare(values[a], values[b]);
+			}
+		});
+		return toArray(sorted);
+	}
+
+	/**
+	 * Gets the indexes of values in increasing order of value, ties by index.
+	 *
+	 * @param values the values
+	 * @return the indexes, smallest value first
+	 */
+	public static int[] increasingOrder(final double[] values) {
+		Integer[] sorted = indexes(values.length);
+		Arrays.sort(sorted, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(values[a], values[b]);
+			}
+		});
+		return toArray(sorted);
+	}
+
+	/**
+	 * Gets the cloudlet indexes from the longest to the shortest cloudlet, ties by index. Large
+	 * batches are sorted as lengths and positions packed into primitive longs, which is many
+	 * times faster than sorting boxed positions.
+	 *
+	 * @param lengths the length of each cloudlet
+	 * @return the cloudlet indexes, longest first
+	 */
+	public static int[] longestFirst(final long[] lengths) {
+		int cloudlets = lengths.length;
+		int positionBits = 64 - Long.numberOfLeadingZeros(cloudlets);
+		long maxLength = 0;
+		for (int c = 0; c < cloudlets; c++) {
+			maxLength = Math.max(maxLength, lengths[c]);
+		}
+		if (maxLength < 1L << (63 - positionBits)) {
+			// the position is stored inverted, so that equal lengths come out by index
+			long mask = (1L << positionBits) - 1;
+			long[] keys = new long[cloudlets];
+			for (int c = 0; c < cloudlets; c++) {
+				keys[c] = lengths[c] << positionBits | (mask - c);
+			}
+			Arrays.sort(keys);
+			int[] order = new int[cloudlets];
+			for (int k = 0; k < cloudlets; k++) {
+				order[k] = (int) (mask - (keys[cloudlets - 1 - k] & mask));
+			}
+			return order;
+		}
+
+		Integer[] sorted = indexes(cloudlets);
+		Arrays.sort(sorted, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Long.compare(lengths[b], lengths[a]);
+			}
+		});
+		return toArray(sorted);
+	}
+
+	/**
+	 * Closes a reader or a writer, logging rather than throwing when that fails.
+	 *
+	 * @param closeable the reader or writer, may be null
+	 * @param owner the name logged with the failure
+	 */
+	public static void close(Closeable closeable, String owner) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				Log.printLine(owner + ": " + e);
+			}
+		}
+	}
+
+	private static Integer[] indexes(int count) {
+		Integer[] indexes = new Integer[count];
+		for (int k = 0; k < count; k++) {
+			indexes[k] = k;
+		}
+		return indexes;
+	}
+
+	private static int[] toArray(Integer[] sorted) {
+		int[] order = new int[sorted.length];
+		for (int k = 0; k < order.length; k++) {
+			order[k] = sorted[k];
+		}
+		return order;
+	}
+
+}
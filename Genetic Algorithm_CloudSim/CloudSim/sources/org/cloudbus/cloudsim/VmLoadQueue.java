@@ -0,0 +1,203 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.NoSuchElementException;
+
+/**
+ * VmLoadQueue is an indexed min-priority queue of vm finish times. Vms are addressed by their
+ * index in the vms created list, so the finish time of a vm can be changed in place after a
+ * cloudlet is put on it instead of sorting all the vms again.
+ */
+public class VmLoadQueue {
+
+	/** The vm stored at each heap position. */
+	private int[] heap;
+
+	/** The heap position of each vm, -1 if the vm is not in the queue. */
+	private int[] position;
+
+	/** The finish time of each vm. */
+	private double[] keys;
+
+	/** The number of vms in the queue. */
+	private int size;
+
+	/**
+	 * Creates an empty queue for vm indexes 0 to vms-1.
+	 *
+	 * @param vms the number of vms
+	 */
+	public VmLoadQueue(int vms) {
+		heap = new int[vms];
+		position = new int[vms];
+		keys = new double[vms];
+		for (int i = 0; i < vms; i++) {
+			position[i] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Checks if the queue is empty.
+	 *
+	 * @return true if no vm is in the queue
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the number of vms in the queue.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if a vm is in the queue.
+	 *
+	 * @param vm the vm index
+	 * @return true if the vm is in the queue
+	 */
+	public boolean contains(int vm) {
+		return position[vm] != -1;
+	}
+
+	/**
+	 * Adds a vm with its finish time.
+	 *
+	 * @param vm the vm index
+	 * @param time the finish time of the vm
+	 */
+	public void insert(int vm, double time) {
+		if (contains(vm)) {
+			throw new IllegalArgumentException("VM #" + vm + " is already in the queue");
+		}
+		keys[vm] = time;
+		heap[size] = vm;
+		position[vm] = size;
+		size++;
+		swim(size - 1);
+	}
+
+	/**
+	 * Gets the vm with the least finish time.
+	 *
+	 * @return the vm index
+	 */
+	public int minVm() {
+		if (size == 0) {
+			throw new NoSuchElementException("Queue is empty");
+		}
+		return heap[0];
+	}
+
+	/**
+	 * Gets the least finish time.
+	 *
+	 * @return the finish time
+	 */
+	public double minTime() {
+		return keys[minVm()];
+	}
+
+	/**
+	 * Gets the finish time of a vm.
+	 *
+	 * @param vm the vm index
+	 * @return the finish time
+	 */
+	public double timeOf(int vm) {
+		if (!contains(vm)) {
+			throw new NoSuchElementException("VM #" + vm + " is not in the queue");
+		}
+		return keys[vm];
+	}
+
+	/**
+	 * Changes the finish time of a vm, e.g. after a cloudlet was added to it.
+	 *
+	 * @param vm the vm index
+	 * @param time the new finish time
+	 */
+	public void changeTime(int vm, double time) {
+		if (!contains(vm)) {
+			throw new NoSuchElementException("VM #" + vm + " is not in the queue");
+		}
+		double old = keys[vm];
+		keys[vm] = time;
+		if (time < old) {
+			swim(position[vm]);
+		} else {
+			sink(position[vm]);
+		}
+	}
+
+	/**
+	 * Gets the vm at a heap position. The k vms with the least finish times are always within
+	 * the first 2^k-1 positions, so a few of the smallest can be read without removing them.
+	 *
+	 * @param k the heap position, less than size()
+	 * @return the vm index
+	 */
+	public int vmAt(int k) {
+		return heap[k];
+	}
+
+	/**
+	 * Removes the vm with the least finish time.
+	 *
+	 * @return the vm index
+	 */
+	public int delMin() {
+		int min = minVm();
+		exchange(0, size - 1);
+		size--;
+		sink(0);
+		position[min] = -1;
+		return min;
+	}
+
+	private void swim(int k) {
+		while (k > 0 && greater((k - 1) / 2, k)) {
+			exchange(k, (k - 1) / 2);
+			k = (k - 1) / 2;
+		}
+	}
+
+	private void sink(int k) {
+		while (2 * k + 1 < size) {
+			int j = 2 * k + 1;
+			if (j + 1 < size && greater(j, j + 1)) {
+				j++;
+			}
+			if (!greater(k, j)) {
+				break;
+			}
+			exchange(k, j);
+			k = j;
+		}
+	}
+
+	private boolean greater(int i, int j) {
+		return keys[heap[i]] > keys[heap[j]];
+	}
+
+	private void exchange(int i, int j) {
+		int swap = heap[i];
+		heap[i] = heap[j];
+		heap[j] = swap;
+		position[heap[i]] = i;
+		position[heap[j]] = j;
+	}
+
+}